@@ -5,6 +5,9 @@ import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.redis.client.*;
@@ -12,10 +15,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.swisspush.redisques.action.QueueAction;
 import org.swisspush.redisques.handler.RedisquesHttpRequestHandler;
+import org.swisspush.redisques.lua.LuaScript;
+import org.swisspush.redisques.lua.LuaScriptManager;
 import org.swisspush.redisques.util.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 import static org.swisspush.redisques.util.RedisquesAPI.*;
 import static org.swisspush.redisques.util.RedisquesAPI.QueueOperation.*;
@@ -52,11 +59,29 @@ public class RedisQues extends AbstractVerticle {
         }
     }
 
+    // Status values of the consume lua script
+    private static final String CONSUME_STATUS_NOT_OWNER = "notOwner";
+    private static final String CONSUME_STATUS_LOCKED = "locked";
+    private static final String CONSUME_STATUS_RELEASED = "released";
+    private static final int REGISTRATION_REFRESH_CHUNK_SIZE = 500;
+    private static final int QUEUE_CHECK_CHUNK_SIZE = 100;
+    // The attempts of a queue are forgotten when none of its messages failed for this time
+    private static final String ATTEMPTS_EXPIRE_SECONDS = String.valueOf(24 * 60 * 60);
+
     // State of each queue. Consuming means there is a message being processed.
     private enum QueueState {
         READY, CONSUMING
     }
 
+    // State of each queue which is not ordered. Taking means items are being moved into my processing list.
+    private static class UnorderedQueueState {
+        private int inFlight;
+        private int failed;
+        private boolean taking;
+        private boolean pending;
+        private long visibilityTimeoutMs;
+    }
+
     // Identifies the consumer
     private final String uid = UUID.randomUUID().toString();
 
@@ -65,13 +90,25 @@ public class RedisQues extends AbstractVerticle {
     // The queues this verticle is listening to
     private final Map<String, QueueState> myQueues = new HashMap<>();
 
+    // The consuming queues notified again while their current consume step was running. The step may have missed
+    // the notified messages, so the queue is consumed once more when the step finds the queue empty.
+    private final Set<String> pendingNotifications = new HashSet<>();
+
+    // The queues which are not ordered and have items in my processing list or are being taken
+    private final Map<String, UnorderedQueueState> unorderedQueues = new HashMap<>();
+
     private final Logger log = LoggerFactory.getLogger(RedisQues.class);
 
     private QueueStatisticsCollector queueStatisticsCollector;
 
     private Handler<Void> stoppedHandler = null;
 
+    private boolean registrationRefreshRunning = false;
+    private boolean checkQueuesRunning = false;
+    private boolean moveDelayedRunning = false;
+
     private MessageConsumer<String> consumersMessageConsumer;
+    private MessageConsumer<String> partitionMessageConsumer;
 
     // Configuration
 
@@ -81,8 +118,18 @@ public class RedisQues extends AbstractVerticle {
     private String queuesKey;
     private String queuesPrefix;
     private String consumersPrefix;
+    private String heartbeatsPrefix;
+    private String deadLettersPrefix;
+    private String attemptsPrefix;
+    private String processingKey;
+    private String processingPrefix;
     private String locksKey;
     private String queueCheckLastexecKey;
+    private String queueCheckPartitionsKey;
+    private String queueCheckLeasePrefix;
+    private String delayedPrefix;
+    private String delayedLeasePrefix;
+    private String wakeupChannel;
 
     private int consumerLockTime;
 
@@ -93,6 +140,35 @@ public class RedisQues extends AbstractVerticle {
 
     private Map<QueueOperation, QueueAction> queueActions = new HashMap<>();
 
+    // Not available in redis cluster mode, since the scripts access keys of different hash slots
+    private LuaScriptManager luaScriptManager;
+
+    // Only available when the consumer heartbeat is enabled and lua scripts are available
+    private ConsumerHeartbeat consumerHeartbeat;
+
+    // Only available when the wakeup channel is enabled
+    private WakeupChannelSubscriber wakeupChannelSubscriber;
+
+    // Only available when the consumer location cache is enabled
+    private ConsumerLocationCache consumerLocationCache;
+
+    // Only available when the timestamp coalescing is enabled
+    private QueueTimestampCoalescer timestampCoalescer;
+
+    // Only available when the notification deduplication is enabled
+    private ConsumerNotifier consumerNotifier;
+
+    // Only available when the messages processed at the same time are limited
+    private DispatchScheduler dispatchScheduler;
+
+    private QueueConfigurationResolver queueConfigurationResolver;
+    private final AdaptiveProcessorTimeout adaptiveProcessorTimeout = new AdaptiveProcessorTimeout();
+    private final CircuitBreakers circuitBreakers = new CircuitBreakers();
+
+    // Only available when deployed with multiple instances. Each instance consumes the queues of its partition
+    private LocalPartitions localPartitions;
+    private int partition;
+
     public RedisQues() {
     }
 
@@ -129,7 +205,63 @@ public class RedisQues extends AbstractVerticle {
             log.warn("Got message without queue name while handleRegistrationRequest.");
             // IMO we should 'fail()' here. But we don't, to keep backward compatibility.
         }
+        if (queueName != null && !isMyPartition(queueName)) {
+            // hand over to the local instance consuming the partition of the queue
+            vertx.eventBus().send(partitionAddress(LocalPartitions.partitionOf(queueName,
+                    localPartitions.getPartitions())), queueName);
+            return;
+        }
         log.debug("RedisQues Got registration request for queue {} from consumer: {}", queueName, uid);
+        registerConsumer(queueName);
+    }
+
+    private boolean isMyPartition(String queueName) {
+        return localPartitions == null
+                || LocalPartitions.partitionOf(queueName, localPartitions.getPartitions()) == partition;
+    }
+
+    private String partitionAddress(int partition) {
+        return configurationProvider.configuration().getAddress() + "-consumers-" + deploymentID() + "-" + partition;
+    }
+
+    /**
+     * <p>Handler receiving the messages published on the wakeup channel. Consumes the queue when we are its
+     * registered consumer or tries to register when no consumer is registered.</p>
+     */
+    private void handleWakeup(String message) {
+        JsonObject wakeup;
+        try {
+            wakeup = new JsonObject(message);
+        } catch (DecodeException ex) {
+            log.warn("Got invalid message on wakeup channel: {}", message);
+            return;
+        }
+        String queueName = wakeup.getString(QUEUENAME);
+        String consumer = wakeup.getString(CONSUMER);
+        if (queueName == null) {
+            log.warn("Got message without queue name on wakeup channel");
+        } else if (consumer == null) {
+            if (!isMyPartition(queueName)) {
+                return;
+            }
+            log.debug("RedisQues Got wakeup for queue {} without consumer", queueName);
+            registerConsumer(queueName);
+        } else if (uid.equals(consumer)) {
+            log.debug("RedisQues Got wakeup for queue {}", queueName);
+            consume(queueName);
+        }
+    }
+
+    private void registerConsumer(final String queueName) {
+        if (isUnordered(queueName)) {
+            // no registration, any instance may consume the queue
+            consumeUnordered(queueName);
+            return;
+        }
+        if (consumerHeartbeat != null) {
+            registerConsumerWithHeartbeat(queueName);
+            return;
+        }
         // Try to register for this queue
         redisSetWithOptions(consumersPrefix + queueName, uid, true, consumerLockTime, event -> {
             if (event.succeeded()) {
@@ -138,6 +270,7 @@ public class RedisQues extends AbstractVerticle {
                 if ("OK".equals(value)) {
                     // I am now the registered consumer for this queue.
                     log.debug("RedisQues Now registered for queue {}", queueName);
+                    cacheConsumerLocation(queueName, uid);
                     myQueues.put(queueName, QueueState.READY);
                     consume(queueName);
                 } else {
@@ -151,6 +284,29 @@ public class RedisQues extends AbstractVerticle {
         });
     }
 
+    /**
+     * Registers for the queue unless another living consumer is registered. The registration does not expire but
+     * is kept alive by our heartbeat.
+     */
+    private void registerConsumerWithHeartbeat(final String queueName) {
+        consumerHeartbeat.register(queueName, uid).onComplete(event -> {
+            if (event.failed()) {
+                log.error("Registration for queue " + queueName + " failed", event.cause());
+                return;
+            }
+            if (uid.equals(event.result())) {
+                log.debug("RedisQues Now registered for queue {}", queueName);
+                cacheConsumerLocation(queueName, uid);
+                if (!myQueues.containsKey(queueName)) {
+                    myQueues.put(queueName, QueueState.READY);
+                }
+                consume(queueName);
+            } else {
+                log.debug("RedisQues Missed registration for queue {}", queueName);
+            }
+        });
+    }
+
     @Override
     public void start(Promise<Void> promise) {
         log.info("Started with UID {}", uid);
@@ -164,13 +320,31 @@ public class RedisQues extends AbstractVerticle {
         queuesKey = modConfig.getRedisPrefix() + "queues";
         queuesPrefix = modConfig.getRedisPrefix() + "queues:";
         consumersPrefix = modConfig.getRedisPrefix() + "consumers:";
+        heartbeatsPrefix = modConfig.getRedisPrefix() + "heartbeats:";
+        deadLettersPrefix = modConfig.getRedisPrefix() + "deadletter:";
+        attemptsPrefix = modConfig.getRedisPrefix() + "attempts:";
+        processingKey = modConfig.getRedisPrefix() + "processing";
+        processingPrefix = modConfig.getRedisPrefix() + "processing:";
         locksKey = modConfig.getRedisPrefix() + "locks";
         queueCheckLastexecKey = modConfig.getRedisPrefix() + "check:lastexec";
+        queueCheckPartitionsKey = modConfig.getRedisPrefix() + "check:partitions";
+        queueCheckLeasePrefix = modConfig.getRedisPrefix() + "check:lease:";
+        delayedPrefix = modConfig.getRedisPrefix() + "delayed:";
+        delayedLeasePrefix = modConfig.getRedisPrefix() + "delayed:lease:";
+        wakeupChannel = modConfig.getWakeupChannelEnabled() ? modConfig.getRedisPrefix() + "wakeup" : null;
         consumerLockTime = 2 * modConfig.getRefreshPeriod(); // lock is kept twice as long as its refresh interval -> never expires as long as the consumer ('we') are alive
         timer = new RedisQuesTimer(vertx);
 
+        if (context.getInstanceCount() > 1) {
+            localPartitions = LocalPartitions.of(vertx, deploymentID(), context.getInstanceCount());
+            partition = localPartitions.claim();
+            log.info("Consuming partition {} of {}", partition, localPartitions.getPartitions());
+        }
+
         if (redisProvider == null) {
-            redisProvider = new DefaultRedisProvider(vertx, configurationProvider);
+            redisProvider = localPartitions != null
+                    ? localPartitions.redisProvider(() -> new DefaultRedisProvider(vertx, configurationProvider))
+                    : new DefaultRedisProvider(vertx, configurationProvider);
         }
 
         redisProvider.redis().onComplete(event -> {
@@ -185,20 +359,73 @@ public class RedisQues extends AbstractVerticle {
 
     private void initialize() {
         RedisquesConfiguration configuration = configurationProvider.configuration();
-        this.queueStatisticsCollector = new QueueStatisticsCollector(redisProvider,
-                queuesPrefix, vertx, configuration.getQueueSpeedIntervalSec());
+        if (localPartitions != null) {
+            this.queueStatisticsCollector = localPartitions.queueStatisticsCollector(() -> new QueueStatisticsCollector(
+                    redisProvider, queuesPrefix, vertx, configuration.getQueueSpeedIntervalSec()));
+        } else {
+            this.queueStatisticsCollector = new QueueStatisticsCollector(redisProvider,
+                    queuesPrefix, vertx, configuration.getQueueSpeedIntervalSec());
+        }
+
+        // the http api is served once per deployment
+        if (partition == 0) {
+            RedisquesHttpRequestHandler.init(vertx, configuration);
+        }
+
+        if (configuration.getRedisClientType() != RedisClientType.CLUSTER) {
+            luaScriptManager = new LuaScriptManager(redisProvider);
+            luaScriptManager.loadScripts().onFailure(throwable ->
+                    log.warn("Failed to load lua scripts. They will be loaded on first usage", throwable));
+        }
+
+        if (configuration.getConsumerHeartbeatEnabled()) {
+            if (luaScriptManager != null) {
+                consumerHeartbeat = new ConsumerHeartbeat(redisProvider, luaScriptManager, heartbeatsPrefix, consumersPrefix);
+                // sent before any registration of ours, so other consumers never see our registrations without heartbeat
+                refreshHeartbeat();
+            } else {
+                log.warn("Consumer heartbeat is not supported with redis client type {}. Registrations expire per queue",
+                        configuration.getRedisClientType());
+            }
+        }
+
+        if (configuration.getConsumerLocationCacheSize() > 0) {
+            // registrations of other consumers are refreshed within the refresh period
+            consumerLocationCache = new ConsumerLocationCache(configuration.getConsumerLocationCacheSize(),
+                    configuration.getRefreshPeriod() * 1000L);
+        }
+
+        long timestampCoalescingIntervalMs = configuration.getRefreshPeriod() * 10L * configuration.getTimestampCoalescingPercent();
+        if (timestampCoalescingIntervalMs > 0) {
+            // the queue check only considers queues not refreshed for three refresh periods
+            timestampCoalescer = new QueueTimestampCoalescer(vertx, redisProvider, queuesKey, timestampCoalescingIntervalMs);
+        }
+
+        if (configuration.getNotificationDedupEnabled()) {
+            consumerNotifier = new ConsumerNotifier(vertx, configuration.getRefreshPeriod() * 1000L,
+                    queueStatisticsCollector);
+        }
+
+        queueConfigurationResolver = new QueueConfigurationResolver(configurationProvider,
+                configuration.getQueueConfigurationCacheSize());
 
-        RedisquesHttpRequestHandler.init(vertx, configuration);
+        if (configuration.getMaxInFlight() > 0) {
+            dispatchScheduler = new DispatchScheduler(configuration.getMaxInFlight());
+        }
 
         // only initialize memoryUsageProvider when not provided in the constructor
         if (memoryUsageProvider == null) {
-            memoryUsageProvider = new DefaultMemoryUsageProvider(redisProvider, vertx,
-                    configurationProvider.configuration().getMemoryUsageCheckIntervalSec());
+            int memoryUsageCheckIntervalSec = configurationProvider.configuration().getMemoryUsageCheckIntervalSec();
+            memoryUsageProvider = localPartitions != null
+                    ? localPartitions.memoryUsageProvider(() -> new DefaultMemoryUsageProvider(redisProvider, vertx,
+                    memoryUsageCheckIntervalSec))
+                    : new DefaultMemoryUsageProvider(redisProvider, vertx, memoryUsageCheckIntervalSec);
         }
 
         queueActionFactory = new QueueActionFactory(redisProvider, vertx, log,
                 queuesKey, queuesPrefix, consumersPrefix, locksKey, queueStatisticsCollector, memoryUsageProvider,
-                configurationProvider);
+                configurationProvider, wakeupChannel, consumerHeartbeat, timer,
+                luaScriptManager, consumerLocationCache, timestampCoalescer, consumerNotifier, queueConfigurationResolver);
 
         queueActions.put(addQueueItem, queueActionFactory.buildQueueAction(addQueueItem));
         queueActions.put(deleteQueueItem, queueActionFactory.buildQueueAction(deleteQueueItem));
@@ -213,6 +440,8 @@ public class RedisQues extends AbstractVerticle {
         queueActions.put(getQueuesItemsCount, queueActionFactory.buildQueueAction(getQueuesItemsCount));
         queueActions.put(enqueue, queueActionFactory.buildQueueAction(enqueue));
         queueActions.put(lockedEnqueue, queueActionFactory.buildQueueAction(lockedEnqueue));
+        queueActions.put(bulkEnqueue, queueActionFactory.buildQueueAction(bulkEnqueue));
+        queueActions.put(enqueueDelayed, queueActionFactory.buildQueueAction(enqueueDelayed));
         queueActions.put(getLock, queueActionFactory.buildQueueAction(getLock));
         queueActions.put(putLock, queueActionFactory.buildQueueAction(putLock));
         queueActions.put(bulkPutLocks, queueActionFactory.buildQueueAction(bulkPutLocks));
@@ -222,6 +451,11 @@ public class RedisQues extends AbstractVerticle {
         queueActions.put(deleteAllLocks, queueActionFactory.buildQueueAction(deleteAllLocks));
         queueActions.put(getQueuesSpeed, queueActionFactory.buildQueueAction(getQueuesSpeed));
         queueActions.put(getQueuesStatistics, queueActionFactory.buildQueueAction(getQueuesStatistics));
+        queueActions.put(getNotificationStatistics, queueActionFactory.buildQueueAction(getNotificationStatistics));
+        queueActions.put(getDispatchStatistics, queueActionFactory.buildQueueAction(getDispatchStatistics));
+        queueActions.put(getDeadLetters, queueActionFactory.buildQueueAction(getDeadLetters));
+        queueActions.put(replayDeadLetters, queueActionFactory.buildQueueAction(replayDeadLetters));
+        queueActions.put(deleteDeadLetters, queueActionFactory.buildQueueAction(deleteDeadLetters));
         queueActions.put(setConfiguration, queueActionFactory.buildQueueAction(setConfiguration));
         queueActions.put(getConfiguration, queueActionFactory.buildQueueAction(getConfiguration));
 
@@ -233,6 +467,12 @@ public class RedisQues extends AbstractVerticle {
         // Handles registration requests
         consumersMessageConsumer = vertx.eventBus().consumer(address + "-consumers", this::handleRegistrationRequest);
 
+        // Handles registration requests handed over by the other instances of the deployment
+        if (localPartitions != null) {
+            partitionMessageConsumer = vertx.eventBus().localConsumer(partitionAddress(partition),
+                    (Message<String> event) -> registerConsumer(event.body()));
+        }
+
         // Handles notifications
         uidMessageConsumer = vertx.eventBus().consumer(uid, event -> {
             final String queue = event.body();
@@ -242,48 +482,188 @@ public class RedisQues extends AbstractVerticle {
             }
             log.debug("RedisQues got notification for queue '{}'", queue);
             consume(queue);
+            // acknowledge, so the notifier of the queue may send the next notification
+            event.reply(null);
         });
 
+        // Handles wakeups published by enqueues, even from instances not connected to our event bus
+        if (wakeupChannel != null) {
+            wakeupChannelSubscriber = new WakeupChannelSubscriber(vertx, configurationProvider, wakeupChannel,
+                    configuration.getRefreshPeriod() * 1000L, this::handleWakeup);
+            wakeupChannelSubscriber.subscribe();
+        }
+
+        // Handles started partitioned queue checks
+        if (configuration.getCheckPartitions() > 1) {
+            if (isPartitionedQueueCheck()) {
+                vertx.eventBus().consumer(address + "-check", event -> claimQueueCheckPartitions());
+            } else {
+                log.warn("Partitioned queue check is not supported with redis client type {}. Queues are checked by a single instance",
+                        configuration.getRedisClientType());
+            }
+        }
+
         registerActiveQueueRegistrationRefresh();
         registerQueueCheck();
+        registerDelayedMove();
     }
 
     private void registerActiveQueueRegistrationRefresh() {
         // Periodic refresh of my registrations on active queues.
         vertx.setPeriodic(configurationProvider.configuration().getRefreshPeriod() * 1000L, event -> {
-            // Check if I am still the registered consumer
-            myQueues.entrySet().stream().filter(entry -> entry.getValue() == QueueState.CONSUMING).
-                    forEach(entry -> {
-                        final String queue = entry.getKey();
-                        // Check if I am still the registered consumer
-                        String consumerKey = consumersPrefix + queue;
-                        if (log.isTraceEnabled()) {
-                            log.trace("RedisQues refresh queues get: {}", consumerKey);
-                        }
-                        redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(consumerKey, getConsumerEvent -> {
-                                    if (getConsumerEvent.failed()) {
-                                        log.warn("Failed to get queue consumer for queue '{}'. But we'll continue anyway :)", queue, getConsumerEvent.cause());
-                                        // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-                                    }
-                                    final String consumer = Objects.toString(getConsumerEvent.result(), "");
-                                    if (uid.equals(consumer)) {
-                                        log.debug("RedisQues Periodic consumer refresh for active queue {}", queue);
-                                        refreshRegistration(queue, ev -> {
-                                            if (ev.failed())
-                                                log.warn("TODO error handling", new Exception(ev.cause()));
-                                            updateTimestamp(queue, null);
-                                        });
-                                    } else {
-                                        log.debug("RedisQues Removing queue {} from the list", queue);
-                                        myQueues.remove(queue);
-                                        queueStatisticsCollector.resetQueueFailureStatistics(queue);
-                                    }
-                                }))
-                                .onFailure(throwable -> log.error("Redis: Failed to registerActiveQueueRegistrationRefresh", throwable));
-                    });
+            // renewed every period, even when a slow refresh is still running, so they never expire while we are alive
+            refreshProcessingLeases();
+            if (consumerHeartbeat != null) {
+                refreshHeartbeat();
+            }
+            if (registrationRefreshRunning) {
+                log.debug("RedisQues Previous refresh of registrations still running, skip this period");
+                return;
+            }
+            List<String> queues = new ArrayList<>();
+            myQueues.forEach((queue, state) -> {
+                if (state == QueueState.CONSUMING) {
+                    queues.add(queue);
+                }
+            });
+            registrationRefreshRunning = true;
+            // with the heartbeat, the registrations are kept alive by the heartbeat and only the timestamps are refreshed
+            Future<Void> refresh = consumerHeartbeat != null ? forEachChunk(queues, 0, this::updateTimestamps)
+                    : forEachChunk(queues, 0, this::refreshRegistrations);
+            refresh.onComplete(refreshEvent -> registrationRefreshRunning = false);
+        });
+    }
+
+    /**
+     * Passes the queues chunk by chunk to the given handler. The next chunk is passed when the handler has
+     * completed the previous one, so the number of pending redis commands stays bounded regardless of the number of
+     * queues.
+     */
+    private Future<Void> forEachChunk(final List<String> queues, final int from,
+                                      final Function<List<String>, Future<Void>> chunkHandler) {
+        if (from >= queues.size()) {
+            return Future.succeededFuture();
+        }
+        List<String> chunk = queues.subList(from, Math.min(from + REGISTRATION_REFRESH_CHUNK_SIZE, queues.size()));
+        return chunkHandler.apply(chunk)
+                .recover(throwable -> {
+                    log.warn("TODO error handling", throwable);
+                    return Future.succeededFuture();
+                })
+                .compose(v -> forEachChunk(queues, from + REGISTRATION_REFRESH_CHUNK_SIZE, chunkHandler));
+    }
+
+    /**
+     * Refreshes the registrations and timestamps of the given queues when I am still their registered consumer.
+     * Queues registered to someone else are removed from my queues.
+     */
+    private Future<Void> refreshRegistrations(final List<String> queues) {
+        if (luaScriptManager == null) {
+            List<Future> futures = new ArrayList<>(queues.size());
+            for (String queue : queues) {
+                futures.add(refreshRegistrationLegacy(queue));
+            }
+            return CompositeFuture.join(futures).mapEmpty();
+        }
+        log.debug("RedisQues Periodic consumer refresh for {} active queues", queues.size());
+        List<String> keys = new ArrayList<>(queues.size() + 1);
+        List<String> arguments = new ArrayList<>(queues.size() + 3);
+        keys.add(queuesKey);
+        arguments.add(uid);
+        arguments.add(String.valueOf(consumerLockTime));
+        arguments.add(String.valueOf(System.currentTimeMillis()));
+        for (String queue : queues) {
+            keys.add(consumersPrefix + queue);
+            arguments.add(queue);
+        }
+        return luaScriptManager.evalsha(LuaScript.REFRESH_REGISTRATIONS, keys, arguments).map(response -> {
+            for (Response queue : response) {
+                removeNotOwnedQueue(queue.toString());
+            }
+            return null;
         });
     }
 
+    /**
+     * Refresh of a single registration for redis setups not supporting lua scripts over multiple keys (redis cluster).
+     */
+    private Future<Void> refreshRegistrationLegacy(final String queue) {
+        final Promise<Void> promise = Promise.promise();
+        // Check if I am still the registered consumer
+        String consumerKey = consumersPrefix + queue;
+        if (log.isTraceEnabled()) {
+            log.trace("RedisQues refresh queues get: {}", consumerKey);
+        }
+        redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(consumerKey, getConsumerEvent -> {
+                    if (getConsumerEvent.failed()) {
+                        log.warn("Failed to get queue consumer for queue '{}'. But we'll continue anyway :)", queue, getConsumerEvent.cause());
+                        // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+                    }
+                    final String consumer = Objects.toString(getConsumerEvent.result(), "");
+                    if (uid.equals(consumer)) {
+                        log.debug("RedisQues Periodic consumer refresh for active queue {}", queue);
+                        refreshRegistration(queue, ev -> {
+                            if (ev.failed())
+                                log.warn("TODO error handling", new Exception(ev.cause()));
+                            updateTimestamp(queue, updateTimestampEvent -> promise.complete());
+                        });
+                    } else {
+                        removeNotOwnedQueue(queue);
+                        promise.complete();
+                    }
+                }))
+                .onFailure(throwable -> {
+                    log.error("Redis: Failed to registerActiveQueueRegistrationRefresh", throwable);
+                    promise.complete();
+                });
+        return promise.future();
+    }
+
+    private void removeNotOwnedQueue(final String queue) {
+        log.debug("RedisQues Removing queue {} from the list", queue);
+        myQueues.remove(queue);
+        pendingNotifications.remove(queue);
+        invalidateConsumerLocation(queue);
+        queueStatisticsCollector.resetQueueFailureStatistics(queue);
+        forgetFailingQueue(queue);
+    }
+
+    /**
+     * Removes a queue which is deleted, empty or consumed by another instance from the failing queues of its
+     * circuit breaker.
+     */
+    private void forgetFailingQueue(final String queueName) {
+        circuitBreakers.forget(findQueueConfiguration(queueName), queueName);
+    }
+
+    /**
+     * Refreshes our heartbeat, which keeps all our registrations alive. Registrations cannot be taken over while our
+     * heartbeat is alive, so there is no need to check them when refreshing. The consume step checks them anyway.
+     */
+    private void refreshHeartbeat() {
+        log.debug("RedisQues Refreshing heartbeat of consumer {}, expire in {} s", uid, consumerLockTime);
+        consumerHeartbeat.beat(uid, consumerLockTime).onFailure(throwable ->
+                log.error("Redis: Failed to refresh heartbeat of consumer " + uid, throwable));
+    }
+
+    /**
+     * Refreshes the timestamps of the given active queues with one ZADD.
+     */
+
+    private Future<Void> updateTimestamps(final List<String> queues) {
+        List<String> args = new ArrayList<>(2 * queues.size() + 1);
+        String ts = String.valueOf(System.currentTimeMillis());
+        args.add(queuesKey);
+        for (String queue : queues) {
+            args.add(ts);
+            args.add(queue);
+        }
+        if (timestampCoalescer != null) {
+            timestampCoalescer.markWritten(queues, Long.parseLong(ts));
+        }
+        return redisProvider.redis().compose(redisAPI -> redisAPI.zadd(args)).mapEmpty();
+    }
+
     private Handler<Message<JsonObject>> operationsHandler() {
         return event -> {
             final JsonObject body = event.body();
@@ -301,7 +681,11 @@ public class RedisQues extends AbstractVerticle {
             // handle system operations
             switch (queueOperation) {
                 case check:
-                    checkQueues();
+                    if (isPartitionedQueueCheck()) {
+                        startPartitionedQueueCheck();
+                    } else {
+                        checkQueues();
+                    }
                     return;
                 case reset:
                     resetConsumers();
@@ -317,20 +701,39 @@ public class RedisQues extends AbstractVerticle {
         };
     }
 
+    private int updateQueueFailureCountAndGetRetryInterval(final String queueName, boolean sendSuccess,
+                                                            ProcessorReply processorReply) {
+        if (!sendSuccess && !processorReply.isAttempted()) {
+            // the message was not sent to the processor, so this is no failed attempt
+            return processorReply.getRetryAfter();
+        }
+        return updateQueueFailureCountAndGetRetryInterval(queueName, sendSuccess, processorReply.getRetryAfter());
+    }
+
     int updateQueueFailureCountAndGetRetryInterval(final String queueName, boolean sendSuccess) {
+        return updateQueueFailureCountAndGetRetryInterval(queueName, sendSuccess, (Integer) null);
+    }
+
+    /**
+     * @param retryAfter the retry interval [s] requested by the processor or <code>null</code> to use the retry
+     *                   intervals of the queue configuration
+     */
+    int updateQueueFailureCountAndGetRetryInterval(final String queueName, boolean sendSuccess, Integer retryAfter) {
         if (sendSuccess) {
             queueStatisticsCollector.queueMessageSuccess(queueName);
             return 0;
         } else {
             // update the failure count
             long failureCount = queueStatisticsCollector.queueMessageFailed(queueName);
+            if (retryAfter != null) {
+                queueStatisticsCollector.setQueueSlowDownTime(queueName, retryAfter);
+                return retryAfter;
+            }
             // find a retry interval from the queue configurations
             QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
             if (queueConfiguration != null) {
-                int[] retryIntervals = queueConfiguration.getRetryIntervals();
-                if (retryIntervals != null && retryIntervals.length > 0) {
-                    int retryIntervalIndex = (int) (failureCount <= retryIntervals.length ? failureCount - 1 : retryIntervals.length - 1);
-                    int retryTime = retryIntervals[retryIntervalIndex];
+                Integer retryTime = RetryBackoff.retryInterval(queueConfiguration, failureCount);
+                if (retryTime != null) {
                     queueStatisticsCollector.setQueueSlowDownTime(queueName, retryTime);
                     return retryTime;
                 }
@@ -349,13 +752,129 @@ public class RedisQues extends AbstractVerticle {
                                         "NX", "EX", configurationProvider.configuration().getCheckInterval()))
                                 .onFailure(ex -> log.error("Unexpected queue check result", new Exception(ex)))
                                 .onSuccess(response -> {
-                                    log.info("periodic queue check is triggered now");
-                                    checkQueues();
+                                    if (response != null) {
+                                        log.info("periodic queue check is triggered now");
+                                        recoverExpiredProcessing();
+                                        if (isPartitionedQueueCheck()) {
+                                            startPartitionedQueueCheck();
+                                        } else {
+                                            checkQueues();
+                                        }
+                                    } else if (isPartitionedQueueCheck()) {
+                                        // help with the partitions of a check started by another instance
+                                        claimQueueCheckPartitions();
+                                    } else {
+                                        log.debug("periodic queue check is executed by another instance");
+                                    }
                                 });
                     });
         });
     }
 
+    private void registerDelayedMove() {
+        vertx.setPeriodic(configurationProvider.configuration().getDelayedMoveIntervalMs(), event -> moveDelayed());
+    }
+
+    /**
+     * Moves the due delayed messages into their queues. Each instance tries all shards of the delayed messages,
+     * starting at a random shard. A shard is leased for one interval by the instance moving it, so the instances
+     * share the shards instead of competing for them. A shard without due messages is skipped with a single read,
+     * so no lease is written while the delayed enqueueing is not used.
+     */
+    private void moveDelayed() {
+        if (moveDelayedRunning) {
+            log.debug("RedisQues Previous move of delayed messages still running");
+            return;
+        }
+        moveDelayedRunning = true;
+        int shards = configurationProvider.configuration().getDelayedShards();
+        int first = ThreadLocalRandom.current().nextInt(shards);
+        Future<Void> future = Future.succeededFuture();
+        for (int i = 0; i < shards; i++) {
+            final int shard = (first + i) % shards;
+            future = future.compose(v -> claimDelayedShard(shard));
+        }
+        future.onComplete(event -> moveDelayedRunning = false);
+    }
+
+    private Future<Void> claimDelayedShard(final int shard) {
+        final String leaseKey = delayedLeasePrefix + shard;
+        final String lease = String.valueOf(configurationProvider.configuration().getDelayedMoveIntervalMs());
+        final String delayedKey = delayedPrefix + shard;
+        final String now = String.valueOf(System.currentTimeMillis());
+        return redisProvider.redis()
+                .compose(redisAPI -> redisAPI.zrangebyscore(List.of(delayedKey, "-inf", now, "LIMIT", "0", "1"))
+                        .compose(due -> {
+                            if (due == null || due.size() == 0) {
+                                log.trace("RedisQues delayed shard {} has no due messages", shard);
+                                return Future.succeededFuture();
+                            }
+                            return redisAPI.set(List.of(leaseKey, uid, "NX", "PX", lease));
+                        }))
+                .compose(response -> {
+                    if (response == null) {
+                        log.trace("RedisQues delayed shard {} has no due messages or is leased by another instance", shard);
+                        return Future.succeededFuture();
+                    }
+                    return luaScriptManager != null ? moveDelayedChunk(delayedKey) : moveDelayedChunkLegacy(delayedKey);
+                })
+                .recover(throwable -> {
+                    log.warn("RedisQues is unable to move the delayed messages of shard " + shard, throwable);
+                    return Future.succeededFuture();
+                });
+    }
+
+    /**
+     * Moves the next chunk of due delayed messages of a shard with a single lua script and continues with the next
+     * chunk as long as the chunks are full.
+     */
+    private Future<Void> moveDelayedChunk(final String delayedKey) {
+        List<String> arguments = List.of(String.valueOf(System.currentTimeMillis()),
+                String.valueOf(QUEUE_CHECK_CHUNK_SIZE), queuesPrefix);
+        return luaScriptManager.evalsha(LuaScript.MOVE_DELAYED, List.of(delayedKey, queuesKey), arguments)
+                .compose(response -> {
+                    int moved = response.get(0).toInteger();
+                    log.trace("RedisQues moved {} delayed messages of {}", moved, delayedKey);
+                    for (Response queue : response.get(1)) {
+                        notifyConsumer(queue.toString());
+                    }
+                    return moved < QUEUE_CHECK_CHUNK_SIZE ? Future.succeededFuture() : moveDelayedChunk(delayedKey);
+                });
+    }
+
+    /**
+     * Chunk of the delayed messages move for redis setups not supporting lua scripts over multiple keys (redis
+     * cluster). A message is only enqueued by the instance which removed it from the shard, so it is moved once.
+     */
+    private Future<Void> moveDelayedChunkLegacy(final String delayedKey) {
+        return redisProvider.redis().compose(redisAPI -> redisAPI.zrangebyscore(List.of(delayedKey, "-inf",
+                        String.valueOf(System.currentTimeMillis()), "LIMIT", "0", String.valueOf(QUEUE_CHECK_CHUNK_SIZE))))
+                .compose(members -> {
+                    List<Future> futureList = new ArrayList<>(members.size());
+                    for (Response member : members) {
+                        futureList.add(moveDelayedLegacy(delayedKey, member.toString()));
+                    }
+                    return CompositeFuture.join(futureList).compose(event -> members.size() < QUEUE_CHECK_CHUNK_SIZE
+                            ? Future.succeededFuture() : moveDelayedChunkLegacy(delayedKey));
+                });
+    }
+
+    private Future<Void> moveDelayedLegacy(final String delayedKey, final String member) {
+        JsonObject delayed = new JsonObject(member);
+        String queueName = delayed.getString(QUEUENAME);
+        return redisProvider.redis().compose(redisAPI -> redisAPI.zrem(List.of(delayedKey, member))
+                .compose(removed -> {
+                    if (removed.toInteger() == 0) {
+                        // moved by another instance
+                        return Future.succeededFuture();
+                    }
+                    return redisAPI.rpush(List.of(queuesPrefix + queueName, delayed.getString(MESSAGE))).compose(v -> {
+                        updateTimestamp(queueName, null);
+                        return notifyConsumer(queueName);
+                    });
+                }));
+    }
+
     private void unsupportedOperation(String operation, Message<JsonObject> event) {
         JsonObject reply = new JsonObject();
         String message = "QUEUE_ERROR: Unsupported operation received: " + operation;
@@ -367,23 +886,48 @@ public class RedisQues extends AbstractVerticle {
 
     @Override
     public void stop() {
-        unregisterConsumers(true);
+        if (wakeupChannelSubscriber != null) {
+            wakeupChannelSubscriber.close();
+        }
+        if (timestampCoalescer != null) {
+            timestampCoalescer.flush();
+        }
+        if (localPartitions != null) {
+            localPartitions.release(vertx, deploymentID());
+        }
+        unregisterConsumers(true).onComplete(event -> removeHeartbeat());
     }
 
     private void gracefulStop(final Handler<Void> doneHandler) {
+        if (wakeupChannelSubscriber != null) {
+            wakeupChannelSubscriber.close();
+        }
+        if (partitionMessageConsumer != null) {
+            partitionMessageConsumer.unregister();
+        }
         consumersMessageConsumer.unregister(event -> uidMessageConsumer.unregister(unregisterEvent -> {
             if( event.failed() ) log.warn("TODO error handling", new Exception(event.cause()));
             unregisterConsumers(false).onComplete(unregisterConsumersEvent -> {
                 if( unregisterEvent.failed() )
                     log.warn("TODO error handling", new Exception(unregisterEvent.cause()));
-                stoppedHandler = doneHandler;
-                if (myQueues.keySet().isEmpty()) {
+                stoppedHandler = stopped -> {
+                    removeHeartbeat();
                     doneHandler.handle(null);
+                };
+                if (myQueues.keySet().isEmpty()) {
+                    stoppedHandler.handle(null);
                 }
             });
         }));
     }
 
+    private void removeHeartbeat() {
+        if (consumerHeartbeat != null) {
+            consumerHeartbeat.remove(uid).onFailure(throwable ->
+                    log.warn("Redis: Failed to remove heartbeat of consumer " + uid, throwable));
+        }
+    }
+
     private Future<Void> unregisterConsumers(boolean force) {
         final Promise<Void> result = Promise.promise();
         log.debug("RedisQues unregister consumers. force={}", force);
@@ -409,6 +953,15 @@ public class RedisQues extends AbstractVerticle {
                         if (uid.equals(consumer)) {
                             log.debug("RedisQues remove consumer: {}", uid);
                             myQueues.remove(queue);
+                            if (consumerHeartbeat != null) {
+                                // Does not expire by itself. We are the living owner, so nobody else can have
+                                // registered in between.
+                                redisAPI.del(List.of(consumerKey), delEvent -> {
+                                    if (delEvent.failed()) log.warn("TODO error handling", delEvent.cause());
+                                    promise.complete();
+                                });
+                                return;
+                            }
                         }
                         promise.complete();
                     })).onFailure(throwable -> {
@@ -462,73 +1015,361 @@ public class RedisQues extends AbstractVerticle {
     }
 
     private Future<Void> consume(final String queueName) {
+        if (isUnordered(queueName)) {
+            return consumeUnordered(queueName);
+        }
+        if (luaScriptManager == null) {
+            return consumeLegacy(queueName);
+        }
         final Promise<Void> promise = Promise.promise();
         log.debug("RedisQues Requested to consume queue {}", queueName);
-        refreshRegistration(queueName, event -> {
-            if (event.failed()) {
-                log.warn("Failed to refresh registration for queue '{}'.", queueName, event.cause());
-                // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-            }
-            // Make sure that I am still the registered consumer
-            String consumerKey = consumersPrefix + queueName;
-            log.trace("RedisQues consume get: {}", consumerKey);
-            redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(consumerKey, event1 -> {
-                        if (event1.failed()) {
-                            log.error("Unable to get consumer for queue " + queueName, event1.cause());
-                            return;
-                        }
-                        String consumer = Objects.toString(event1.result(), "");
-                        log.trace("RedisQues refresh registration consumer: {}", consumer);
-                        if (uid.equals(consumer)) {
-                            QueueState state = myQueues.get(queueName);
-                            log.trace("RedisQues consumer: {} queue: {} state: {}", consumer, queueName, state);
-                            // Get the next message only once the previous has
-                            // been completely processed
-                            if (state != QueueState.CONSUMING) {
-                                myQueues.put(queueName, QueueState.CONSUMING);
-                                if (state == null) {
-                                    // No previous state was stored. Maybe the
-                                    // consumer was restarted
-                                    log.warn("Received request to consume from a queue I did not know about: {}", queueName);
-                                }
-                                log.debug("RedisQues Starting to consume queue {}", queueName);
-                                readQueue(queueName).onComplete(readQueueEvent -> {
-                                    if( readQueueEvent.failed() )
-                                        log.warn("TODO error handling", new Exception(readQueueEvent.cause()));
-                                    promise.complete();
-                                });
-                            } else {
-                                log.debug("RedisQues Queue {} is already being consumed", queueName);
-                                promise.complete();
-                            }
-                        } else {
-                            // Somehow registration changed. Let's renotify.
-                            log.warn("Registration for queue {} has changed to {}", queueName, consumer);
-                            myQueues.remove(queueName);
-                            notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
-                                if( notifyConsumerEvent.failed() )
-                                    log.warn("TODO error handling", notifyConsumerEvent.cause());
-                                promise.complete();
-                            });
-                        }
-                    }))
-                    .onFailure(throwable -> log.error("Redis: Unable to get consumer for queue " + queueName, throwable));
-        });
+        QueueState state = myQueues.get(queueName);
+        // Get the next message only once the previous has been completely processed
+        if (state == QueueState.CONSUMING) {
+            log.debug("RedisQues Queue {} is already being consumed", queueName);
+            addPendingNotification(queueName);
+            promise.complete();
+            return promise.future();
+        }
+        // Reserve the queue before going to redis, so a concurrent notification cannot peek the same message again
+        myQueues.put(queueName, QueueState.CONSUMING);
+        executeConsumeStep(queueName, List.of(), 0, state, promise);
         return promise.future();
     }
 
-    private Future<Boolean> isQueueLocked(final String queue) {
-        final Promise<Boolean> promise = Promise.promise();
-        redisProvider.redis().onSuccess(redisAPI -> redisAPI.hexists(locksKey, queue, event -> {
+    /**
+     * Executes the consume lua script which removes the given number of processed items from the queue and
+     * dispatches the next head items (up to the configured prefetch count) to the processor. This way a backlogged
+     * queue is consumed item after item without going through {@link #notifyConsumer(String)} in between. The queue
+     * must be in state {@link QueueState#CONSUMING}.
+     *
+     * @param previousItems  the items of the previous step
+     * @param processedItems the number of leading previous items which are processed
+     */
+    private void executeConsumeStep(final String queueName, final List<String> previousItems, final int processedItems,
+                                    final QueueState previousState, final Promise<Void> promise) {
+        List<String> keys = List.of(consumersPrefix + queueName, locksKey, queuesPrefix + queueName,
+                attemptsPrefix + queueName);
+        // with the heartbeat, the registration does not expire but is released when the queue is empty
+        int lockTime = consumerHeartbeat != null ? 0 : consumerLockTime;
+        List<String> arguments = List.of(uid, String.valueOf(lockTime), queueName, String.valueOf(processedItems),
+                String.valueOf(getPrefetchCount(queueName)),
+                processedItems > 0 ? attemptsIdToForget(queueName, previousItems.get(0)) : "");
+        // this step sees all messages of the notifications so far
+        pendingNotifications.remove(queueName);
+        luaScriptManager.evalsha(LuaScript.CONSUME, keys, arguments).onComplete(event -> {
             if (event.failed()) {
-                log.warn("Failed to check if queue '{}' is locked. Assume no.", queue, event.cause());
-                // TODO:  Is it correct, to assume a queue is not locked in case our query failed?
-                // Previous implementation assumed this. See "https://github.com/hiddenalpha/vertx-redisques/blob/v2.5.1/src/main/java/org/swisspush/redisques/RedisQues.java#L856".
-                promise.complete(Boolean.FALSE);
-            } else if (event.result() == null) {
-                promise.complete(Boolean.FALSE);
-            } else {
-                promise.complete(event.result().toInteger() == 1);
+                log.error("Unable to execute consume step for queue " + queueName, event.cause());
+                myQueues.put(queueName, QueueState.READY);
+                promise.complete();
+                return;
+            }
+            Response response = event.result();
+            String status = response.get(0).toString();
+            String consumer = Objects.toString(response.get(1), "");
+            long length = response.get(2).toLong();
+            log.trace("RedisQues consume step result: {} consumer: {} length: {} queue: {}", status, consumer, length, queueName);
+            if (CONSUME_STATUS_RELEASED.equals(status)) {
+                log.debug("RedisQues Queue {} is empty, registration released", queueName);
+                invalidateConsumerLocation(queueName);
+                myQueues.remove(queueName);
+                forgetFailingQueue(queueName);
+                if (stoppedHandler != null && myQueues.isEmpty()) {
+                    stoppedHandler.handle(null);
+                }
+                if (pendingNotifications.remove(queueName)) {
+                    // messages may have been enqueued after the release, so let a consumer register again
+                    hasPendingMessages(queueName, false).compose(pending -> pending ? notifyConsumer(queueName)
+                            : Future.succeededFuture()).onComplete(notifyConsumerEvent -> promise.complete());
+                    return;
+                }
+                promise.complete();
+                return;
+            }
+            if (processedItems > 0) {
+                log.debug("RedisQues Message removed, queue {} has {} remaining messages", queueName, length);
+                if (stoppedHandler != null) {
+                    // We are stopping, so do not dispatch the next message. Whoever owns the queue afterwards will
+                    // continue with it.
+                    myQueues.put(queueName, QueueState.READY);
+                    notifyStopped(queueName, length, promise);
+                    return;
+                }
+            }
+            if (CONSUME_STATUS_NOT_OWNER.equals(status)) {
+                // Somehow registration changed. Let's renotify.
+                log.warn("Registration for queue {} has changed to {}", queueName, consumer);
+                myQueues.remove(queueName);
+                forgetFailingQueue(queueName);
+                // we may have been notified because of a stale location
+                invalidateConsumerLocation(queueName);
+                notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
+                    if (notifyConsumerEvent.failed())
+                        log.warn("TODO error handling", notifyConsumerEvent.cause());
+                    promise.complete();
+                });
+                return;
+            }
+            if (previousState == null) {
+                // No previous state was stored. Maybe the consumer was restarted
+                log.warn("Received request to consume from a queue I did not know about: {}", queueName);
+            }
+            if (CONSUME_STATUS_LOCKED.equals(status)) {
+                log.debug("Got a request to consume from locked queue {}", queueName);
+                myQueues.put(queueName, QueueState.READY);
+                promise.complete();
+                return;
+            }
+            if (response.size() <= 3) {
+                // This can happen when requests to consume happen at the same moment the queue is emptied.
+                log.debug("Got a request to consume from empty queue {}", queueName);
+                myQueues.put(queueName, QueueState.READY);
+                forgetFailingQueue(queueName);
+                if (pendingNotifications.remove(queueName)) {
+                    hasPendingMessages(queueName, true).compose(pending -> pending ? consume(queueName)
+                            : Future.succeededFuture()).onComplete(consumeEvent -> promise.complete());
+                    return;
+                }
+                promise.complete();
+                return;
+            }
+            List<String> items = new ArrayList<>(response.size() - 3);
+            for (int i = 3; i < response.size(); i++) {
+                items.add(response.get(i).toString());
+            }
+            log.debug("RedisQues Starting to consume {} items of queue {}", items.size(), queueName);
+            QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+            if (queueConfiguration != null && queueConfiguration.isBatchProcessing()) {
+                processQueueItemsBatch(queueName, items, promise);
+            } else {
+                processQueueItems(queueName, items, 0, promise);
+            }
+        });
+    }
+
+    /**
+     * Sends the prefetched items to the processor strictly one after the other, starting at the given index.
+     * The successfully processed items are removed from the queue together once all of them are processed, or
+     * before rescheduling when the processing of an item fails.
+     */
+    private void processQueueItems(final String queueName, final List<String> items, final int index,
+                                   final Promise<Void> promise) {
+        processMessageWithTimeout(queueName, items.get(index), processorReply -> (processorReply.getProcessed() > 0
+                ? Future.succeededFuture(false)
+                : moveToDeadLettersIfFailed(queueName, items.get(index), queuesPrefix + queueName, index, processorReply)
+        ).onComplete(deadLettered -> {
+            // a message moved to the dead letters is done like a processed one
+            boolean success = processorReply.getProcessed() > 0 || deadLettered.result();
+
+            // update the queue failure count and get a retry interval
+            int retryInterval = updateQueueFailureCountAndGetRetryInterval(queueName, success, processorReply);
+
+            if (deadLettered.result()) {
+                // the message and the processed items in front of it are already removed from the queue
+                List<String> remainingItems = items.subList(index + 1, items.size());
+                if (!remainingItems.isEmpty() && stoppedHandler == null) {
+                    processQueueItems(queueName, remainingItems, 0, promise);
+                } else {
+                    executeConsumeStep(queueName, List.of(), 0, QueueState.CONSUMING, promise);
+                }
+                return;
+            }
+            if (success) {
+                int processedItems = index + 1;
+                if (processedItems < items.size() && stoppedHandler == null) {
+                    processQueueItems(queueName, items, processedItems, promise);
+                } else {
+                    // Remove the processed items and continue with the next ones in the same roundtrip
+                    executeConsumeStep(queueName, items, processedItems, QueueState.CONSUMING, promise);
+                }
+                return;
+            }
+            // Failed. Message will be kept in queue and retried later
+            log.debug("RedisQues Processing failed for queue {}", queueName);
+            removeProcessedItems(queueName, items, index).onComplete(event -> {
+                if (event.failed())
+                    log.warn("TODO error handling", new Exception(event.cause()));
+                log.debug("RedisQues will re-send the message to queue '{}' in {} seconds", queueName, retryInterval);
+                rescheduleSendMessageAfterFailure(queueName, retryInterval);
+                promise.complete();
+            });
+        }));
+    }
+
+    /**
+     * Sends the prefetched items to the processor in one request. The processor replies with the number of
+     * successfully processed leading items which are then removed from the queue. Processing continues with the
+     * first failed item after the retry interval.
+     */
+    private void processQueueItemsBatch(final String queueName, final List<String> items, final Promise<Void> promise) {
+        processMessagesWithTimeout(queueName, items, processorReply -> {
+            int processed = processorReply.getProcessed();
+            Future<Boolean> deadLettered = processed < items.size()
+                    ? moveToDeadLettersIfFailed(queueName, items.get(processed), queuesPrefix + queueName, processed,
+                    processorReply)
+                    : Future.succeededFuture(false);
+            deadLettered.onComplete(event -> {
+                if (!event.result()) {
+                    processQueueItemsBatchReply(queueName, items, processed, processorReply, promise);
+                    return;
+                }
+                // the message and the processed items in front of it are already removed from the queue
+                queueStatisticsCollector.queueMessageSuccess(queueName, processed + 1);
+                executeConsumeStep(queueName, List.of(), 0, QueueState.CONSUMING, promise);
+            });
+        });
+    }
+
+    /**
+     * @param processedItems the number of leading items processed
+     */
+    private void processQueueItemsBatchReply(final String queueName, final List<String> items, final int processedItems,
+                                             final ProcessorReply processorReply, final Promise<Void> promise) {
+        if (processedItems > 0) {
+            queueStatisticsCollector.queueMessageSuccess(queueName, processedItems);
+        }
+        if (processedItems == items.size()) {
+            // Remove the processed items and continue with the next ones in the same roundtrip
+            executeConsumeStep(queueName, items, processedItems, QueueState.CONSUMING, promise);
+            return;
+        }
+        int retryInterval = updateQueueFailureCountAndGetRetryInterval(queueName, false, processorReply);
+        log.debug("RedisQues Processing failed for queue {} after {} of {} items", queueName, processedItems, items.size());
+        removeProcessedItems(queueName, items, processedItems).onComplete(event -> {
+            if (event.failed())
+                log.warn("TODO error handling", new Exception(event.cause()));
+            log.debug("RedisQues will re-send the message to queue '{}' in {} seconds", queueName, retryInterval);
+            rescheduleSendMessageAfterFailure(queueName, retryInterval);
+            promise.complete();
+        });
+    }
+
+    private Future<Void> removeProcessedItems(final String queueName, final List<String> items, final int processedItems) {
+        if (processedItems == 0) {
+            return Future.succeededFuture();
+        }
+        final Promise<Void> promise = Promise.promise();
+        String queueKey = queuesPrefix + queueName;
+        String attemptsId = attemptsIdToForget(queueName, items.get(0));
+        log.trace("RedisQues remove processed items ltrim: {} {}", queueKey, processedItems);
+        redisProvider.redis().onSuccess(redisAPI -> redisAPI.ltrim(queueKey, String.valueOf(processedItems), "-1", event -> {
+            if (event.failed()) {
+                promise.fail(event.cause());
+            } else {
+                forgetAttempts(redisAPI, queueName, attemptsId);
+                promise.complete();
+            }
+        })).onFailure(promise::fail);
+        return promise.future();
+    }
+
+    private int getPrefetchCount(String queueName) {
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        return queueConfiguration != null ? queueConfiguration.getPrefetchCount() : 1;
+    }
+
+    /**
+     * Unregisters the consumers while stopping and notifies the stopped handler when this was the last active queue.
+     * The remaining messages of the queue are handed over to whoever will be its consumer.
+     */
+    private void notifyStopped(final String queueName, final long remainingMessages, final Promise<Void> promise) {
+        unregisterConsumers(false).onComplete(event -> {
+            if (event.failed())
+                log.warn("TODO error handling", new Exception(event.cause()));
+            if (myQueues.isEmpty()) {
+                stoppedHandler.handle(null);
+            }
+            if (remainingMessages <= 0) {
+                promise.complete();
+                return;
+            }
+            notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
+                if (notifyConsumerEvent.failed())
+                    log.warn("TODO error handling", new Exception(notifyConsumerEvent.cause()));
+                promise.complete();
+            });
+        });
+    }
+
+    /**
+     * Consume step for redis setups not supporting lua scripts over multiple keys (redis cluster).
+     */
+    private Future<Void> consumeLegacy(final String queueName) {
+        final Promise<Void> promise = Promise.promise();
+        log.debug("RedisQues Requested to consume queue {}", queueName);
+        if (myQueues.get(queueName) == QueueState.CONSUMING) {
+            log.debug("RedisQues Queue {} is already being consumed", queueName);
+            addPendingNotification(queueName);
+            promise.complete();
+            return promise.future();
+        }
+        refreshRegistration(queueName, event -> {
+            if (event.failed()) {
+                log.warn("Failed to refresh registration for queue '{}'.", queueName, event.cause());
+                // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+            }
+            // Make sure that I am still the registered consumer
+            String consumerKey = consumersPrefix + queueName;
+            log.trace("RedisQues consume get: {}", consumerKey);
+            redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(consumerKey, event1 -> {
+                        if (event1.failed()) {
+                            log.error("Unable to get consumer for queue " + queueName, event1.cause());
+                            return;
+                        }
+                        String consumer = Objects.toString(event1.result(), "");
+                        log.trace("RedisQues refresh registration consumer: {}", consumer);
+                        if (uid.equals(consumer)) {
+                            QueueState state = myQueues.get(queueName);
+                            log.trace("RedisQues consumer: {} queue: {} state: {}", consumer, queueName, state);
+                            // Get the next message only once the previous has
+                            // been completely processed
+                            if (state != QueueState.CONSUMING) {
+                                myQueues.put(queueName, QueueState.CONSUMING);
+                                if (state == null) {
+                                    // No previous state was stored. Maybe the
+                                    // consumer was restarted
+                                    log.warn("Received request to consume from a queue I did not know about: {}", queueName);
+                                }
+                                log.debug("RedisQues Starting to consume queue {}", queueName);
+                                readQueue(queueName).onComplete(readQueueEvent -> {
+                                    if( readQueueEvent.failed() )
+                                        log.warn("TODO error handling", new Exception(readQueueEvent.cause()));
+                                    promise.complete();
+                                });
+                            } else {
+                                log.debug("RedisQues Queue {} is already being consumed", queueName);
+                                promise.complete();
+                            }
+                        } else {
+                            // Somehow registration changed. Let's renotify.
+                            log.warn("Registration for queue {} has changed to {}", queueName, consumer);
+                            myQueues.remove(queueName);
+                            // we may have been notified because of a stale location
+                            invalidateConsumerLocation(queueName);
+                            notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
+                                if( notifyConsumerEvent.failed() )
+                                    log.warn("TODO error handling", notifyConsumerEvent.cause());
+                                promise.complete();
+                            });
+                        }
+                    }))
+                    .onFailure(throwable -> log.error("Redis: Unable to get consumer for queue " + queueName, throwable));
+        });
+        return promise.future();
+    }
+
+    private Future<Boolean> isQueueLocked(final String queue) {
+        final Promise<Boolean> promise = Promise.promise();
+        redisProvider.redis().onSuccess(redisAPI -> redisAPI.hexists(locksKey, queue, event -> {
+            if (event.failed()) {
+                log.warn("Failed to check if queue '{}' is locked. Assume no.", queue, event.cause());
+                // TODO:  Is it correct, to assume a queue is not locked in case our query failed?
+                // Previous implementation assumed this. See "https://github.com/hiddenalpha/vertx-redisques/blob/v2.5.1/src/main/java/org/swisspush/redisques/RedisQues.java#L856".
+                promise.complete(Boolean.FALSE);
+            } else if (event.result() == null) {
+                promise.complete(Boolean.FALSE);
+            } else {
+                promise.complete(event.result().toInteger() == 1);
             }
         })).onFailure(throwable -> {
             log.warn("Redis: Failed to check if queue '{}' is locked. Assume no.", queue, throwable);
@@ -544,6 +1385,8 @@ public class RedisQues extends AbstractVerticle {
         log.trace("RedisQues read queue: {}", queueName);
         String queueKey = queuesPrefix + queueName;
         log.trace("RedisQues read queue lindex: {}", queueKey);
+        // this read sees all messages of the notifications so far
+        pendingNotifications.remove(queueName);
 
         isQueueLocked(queueName).onComplete(lockAnswer -> {
             if( lockAnswer.failed() )
@@ -558,67 +1401,17 @@ public class RedisQues extends AbstractVerticle {
                     Response response = answer.result();
                     log.trace("RedisQues read queue lindex result: {}", response);
                     if (response != null) {
-                        processMessageWithTimeout(queueName, response.toString(), success -> {
-
-                            // update the queue failure count and get a retry interval
-                            int retryInterval = updateQueueFailureCountAndGetRetryInterval(queueName, success);
-
-                            if (success) {
-                                // Remove the processed message from the queue
-                                log.trace("RedisQues read queue lpop: {}", queueKey);
-                                redisAPI.lpop(Collections.singletonList(queueKey), jsonAnswer -> {
-                                    if (jsonAnswer.failed()) {
-                                        log.error("Failed to pop from queue '{}'", queueName, jsonAnswer.cause());
-                                        // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-                                    }
-                                    log.debug("RedisQues Message removed, queue {} is ready again", queueName);
-                                    myQueues.put(queueName, QueueState.READY);
-
-                                    Handler<Void> nextMsgHandler = event -> {
-                                        // Issue notification to consume next message if any
-                                        log.trace("RedisQues read queue: {}", queueKey);
-                                        redisAPI.llen(queueKey, answer1 -> {
-                                            if (answer1.succeeded() && answer1.result() != null && answer1.result().toInteger() > 0) {
-                                                notifyConsumer(queueName).onComplete(event1 -> {
-                                                    if( event1.failed() )
-                                                        log.warn("TODO error handling", new Exception(event1.cause()));
-                                                    promise.complete();
-                                                });
-                                            } else {
-                                                if( answer1.failed() )
-                                                    log.warn("TODO error handling", new Exception(answer1.cause()));
-                                                promise.complete();
-                                            }
-                                        });
-                                    };
-
-                                    // Notify that we are stopped in case it was the last active consumer
-                                    if (stoppedHandler != null) {
-                                        unregisterConsumers(false).onComplete(event -> {
-                                            if( event.failed() )
-                                                log.warn("TODO error handling", new Exception(event.cause()));
-                                            if (myQueues.isEmpty()) {
-                                                stoppedHandler.handle(null);
-                                            }
-                                            nextMsgHandler.handle(null);
-                                        });
-                                        return;
-                                    }
-                                    nextMsgHandler.handle(null);
-                                });
-                            } else {
-                                // Failed. Message will be kept in queue and retried later
-                                log.debug("RedisQues Processing failed for queue {}", queueName);
-                                // reschedule
-                                log.debug("RedisQues will re-send the message to queue '{}' in {} seconds", queueName, retryInterval);
-                                rescheduleSendMessageAfterFailure(queueName, retryInterval);
-                                promise.complete();
-                            }
-                        });
+                        processQueueItem(queueName, response.toString(), promise);
                     } else {
                         // This can happen when requests to consume happen at the same moment the queue is emptied.
                         log.debug("Got a request to consume from empty queue {}", queueName);
                         myQueues.put(queueName, QueueState.READY);
+                        forgetFailingQueue(queueName);
+                        if (pendingNotifications.remove(queueName)) {
+                            hasPendingMessages(queueName, true).compose(pending -> pending ? consume(queueName)
+                                    : Future.succeededFuture()).onComplete(consumeEvent -> promise.complete());
+                            return;
+                        }
                         promise.complete();
                     }
                 })).onFailure(throwable -> {
@@ -636,10 +1429,345 @@ public class RedisQues extends AbstractVerticle {
         return promise.future();
     }
 
+    /**
+     * Sends the head item of the queue to the processor and removes it from the queue when successfully
+     * processed. Used when the consume step cannot be executed as lua script. The queue must be in state
+     * {@link QueueState#CONSUMING}.
+     */
+    private void processQueueItem(final String queueName, final String payload, final Promise<Void> promise) {
+        String queueKey = queuesPrefix + queueName;
+        processMessageWithTimeout(queueName, payload, processorReply -> (processorReply.getProcessed() > 0
+                ? Future.succeededFuture(false)
+                : moveToDeadLettersIfFailed(queueName, payload, queueKey, 0, processorReply)).onComplete(deadLettered -> {
+            // a message moved to the dead letters is removed from the queue like a processed one
+            boolean success = processorReply.getProcessed() > 0 || deadLettered.result();
+
+            // update the queue failure count and get a retry interval
+            int retryInterval = updateQueueFailureCountAndGetRetryInterval(queueName, success, processorReply);
+
+            if (success) {
+                // Remove the processed message from the queue
+                log.trace("RedisQues read queue lpop: {}", queueKey);
+                redisProvider.redis().onSuccess(redisAPI -> redisAPI.lpop(Collections.singletonList(queueKey), jsonAnswer -> {
+                    if (jsonAnswer.failed()) {
+                        log.error("Failed to pop from queue '{}'", queueName, jsonAnswer.cause());
+                        // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+                    } else {
+                        forgetAttempts(redisAPI, queueName, attemptsIdToForget(queueName, payload));
+                    }
+                    log.debug("RedisQues Message removed, queue {} is ready again", queueName);
+                    myQueues.put(queueName, QueueState.READY);
+                    // the length of the queue is checked below anyway
+                    pendingNotifications.remove(queueName);
+
+                    Handler<Void> nextMsgHandler = event -> {
+                        // Issue notification to consume next message if any
+                        log.trace("RedisQues read queue: {}", queueKey);
+                        redisAPI.llen(queueKey, answer1 -> {
+                            if (answer1.succeeded() && answer1.result() != null && answer1.result().toInteger() > 0) {
+                                notifyConsumer(queueName).onComplete(event1 -> {
+                                    if( event1.failed() )
+                                        log.warn("TODO error handling", new Exception(event1.cause()));
+                                    promise.complete();
+                                });
+                            } else {
+                                if( answer1.failed() )
+                                    log.warn("TODO error handling", new Exception(answer1.cause()));
+                                promise.complete();
+                            }
+                        });
+                    };
+
+                    // Notify that we are stopped in case it was the last active consumer
+                    if (stoppedHandler != null) {
+                        unregisterConsumers(false).onComplete(event -> {
+                            if( event.failed() )
+                                log.warn("TODO error handling", new Exception(event.cause()));
+                            if (myQueues.isEmpty()) {
+                                stoppedHandler.handle(null);
+                            }
+                            nextMsgHandler.handle(null);
+                        });
+                        return;
+                    }
+                    nextMsgHandler.handle(null);
+                })).onFailure(throwable -> {
+                    log.warn("Redis: Failed to pop from queue '{}'", queueName, throwable);
+                    myQueues.put(queueName, QueueState.READY);
+                    promise.complete();
+                });
+            } else {
+                // Failed. Message will be kept in queue and retried later
+                log.debug("RedisQues Processing failed for queue {}", queueName);
+                // reschedule
+                log.debug("RedisQues will re-send the message to queue '{}' in {} seconds", queueName, retryInterval);
+                rescheduleSendMessageAfterFailure(queueName, retryInterval);
+                promise.complete();
+            }
+        }));
+    }
+
+    private boolean isUnordered(final String queueName) {
+        if (luaScriptManager == null || queueName == null) {
+            return false;
+        }
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        return queueConfiguration != null && !queueConfiguration.isOrdered();
+    }
+
+    /**
+     * Consumes a queue which is not ordered ({@link QueueConfiguration#isOrdered()}). Without registration, the free
+     * in-flight slots of the queue ({@link QueueConfiguration#getPrefetchCount()}) are filled with items moved from
+     * the head of the queue into my processing list. The items are sent to the processor at the same time and each
+     * processed item frees its slot for the next one. So any number of instances drain the queue in parallel.
+     */
+    private Future<Void> consumeUnordered(final String queueName) {
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        UnorderedQueueState state = unorderedQueues.computeIfAbsent(queueName, queue -> new UnorderedQueueState());
+        if (!isUnordered(queueName)) {
+            // the queue configuration has changed, let a consumer register
+            removeIdleUnorderedQueue(queueName, state);
+            return notifyConsumer(queueName);
+        }
+        if (state.taking) {
+            // the running take may have missed the notified items
+            state.pending = true;
+            return Future.succeededFuture();
+        }
+        int count = queueConfiguration.getPrefetchCount() - state.inFlight;
+        if (count <= 0 || state.failed > 0 || stoppedHandler != null) {
+            // the next items are taken once the items in flight are processed or moved back
+            removeIdleUnorderedQueue(queueName, state);
+            return Future.succeededFuture();
+        }
+        state.taking = true;
+        state.pending = false;
+        state.visibilityTimeoutMs = queueConfiguration.getVisibilityTimeoutSeconds() * 1000L;
+        String lease = uid + ":" + queueName;
+        List<String> keys = List.of(locksKey, queuesPrefix + queueName, processingPrefix + lease, processingKey);
+        List<String> arguments = List.of(queueName, String.valueOf(count), lease,
+                String.valueOf(System.currentTimeMillis() + state.visibilityTimeoutMs));
+        return luaScriptManager.evalsha(LuaScript.UNORDERED_TAKE, keys, arguments).compose(items -> {
+            state.taking = false;
+            log.debug("RedisQues Took {} items of queue {}, {} in flight before", items.size(), queueName, state.inFlight);
+            for (Response item : items) {
+                state.inFlight++;
+                processUnorderedQueueItem(queueName, item.toString(), state);
+            }
+            if (state.pending) {
+                return consumeUnordered(queueName);
+            }
+            removeIdleUnorderedQueue(queueName, state);
+            return Future.succeededFuture();
+        }, throwable -> {
+            log.error("Unable to take items of queue " + queueName, throwable);
+            state.taking = false;
+            removeIdleUnorderedQueue(queueName, state);
+            return Future.succeededFuture();
+        });
+    }
+
+    private void removeIdleUnorderedQueue(final String queueName, final UnorderedQueueState state) {
+        if (state.inFlight == 0 && state.failed == 0 && !state.taking) {
+            unorderedQueues.remove(queueName);
+        }
+    }
+
+    /**
+     * Sends an item of my processing list to the processor. A processed item is removed from the processing list. A
+     * failed item is moved back to the head of the queue after the retry interval and no further items of the queue
+     * are taken until then.
+     */
+    private void processUnorderedQueueItem(final String queueName, final String payload,
+                                           final UnorderedQueueState state) {
+        String processingListKey = processingPrefix + uid + ":" + queueName;
+        processMessageWithTimeout(queueName, payload, processorReply -> (processorReply.getProcessed() > 0
+                ? Future.succeededFuture(false)
+                : moveToDeadLettersIfFailed(queueName, payload, processingListKey, -1, processorReply)
+        ).onComplete(deadLettered -> {
+            boolean success = processorReply.getProcessed() > 0 || deadLettered.result();
+
+            // update the queue failure count and get a retry interval
+            int retryInterval = updateQueueFailureCountAndGetRetryInterval(queueName, success, processorReply);
+
+            if (deadLettered.result()) {
+                // the message is already removed from the processing list
+                state.inFlight--;
+                consumeUnordered(queueName);
+                return;
+            }
+            if (success) {
+                String attemptsId = attemptsIdToForget(queueName, payload);
+                redisProvider.redis().compose(redisAPI -> redisAPI.lrem(processingListKey, "1", payload)
+                                .onSuccess(response -> forgetAttempts(redisAPI, queueName, attemptsId)))
+                        .onFailure(throwable -> log.warn("Redis: Failed to remove a processed item of queue '{}' from the processing list",
+                                queueName, throwable))
+                        .onComplete(event -> {
+                            state.inFlight--;
+                            consumeUnordered(queueName);
+                        });
+                return;
+            }
+            log.debug("RedisQues Processing failed for queue {}, the item is moved back in {} seconds", queueName, retryInterval);
+            state.failed++;
+            long delayMs = RetryBackoff.jitter(findQueueConfiguration(queueName), retryInterval * 1000L);
+            timer.schedule(delayMs, delayed -> luaScriptManager.evalsha(LuaScript.UNORDERED_RELEASE,
+                    List.of(processingListKey, queuesPrefix + queueName), List.of(payload)).onComplete(event -> {
+                if (event.failed()) {
+                    log.warn("Unable to move a failed item of queue {} back. It is recovered once the lease of the processing list expires",
+                            queueName, event.cause());
+                }
+                state.inFlight--;
+                state.failed--;
+                consumeUnordered(queueName);
+            }));
+        }));
+    }
+
+    /**
+     * Renews the leases of my processing lists, so their items stay invisible to the other instances while being
+     * processed.
+     */
+    private void refreshProcessingLeases() {
+        if (unorderedQueues.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> args = new ArrayList<>(2 * unorderedQueues.size() + 1);
+        args.add(processingKey);
+        unorderedQueues.forEach((queueName, state) -> {
+            args.add(String.valueOf(now + state.visibilityTimeoutMs));
+            args.add(uid + ":" + queueName);
+        });
+        redisProvider.redis().compose(redisAPI -> redisAPI.zadd(args)).onFailure(throwable ->
+                log.warn("Redis: Failed to refresh the leases of the processing lists of consumer " + uid, throwable));
+    }
+
+    /**
+     * Moves the items of the processing lists with an expired lease (e.g. of a crashed instance) back to their
+     * queues and notifies the queues. The remaining expired leases are recovered by the next queue check.
+     */
+    private void recoverExpiredProcessing() {
+        if (luaScriptManager == null) {
+            return;
+        }
+        List<String> arguments = List.of(String.valueOf(System.currentTimeMillis()),
+                String.valueOf(QUEUE_CHECK_CHUNK_SIZE), processingPrefix, queuesPrefix);
+        luaScriptManager.evalsha(LuaScript.UNORDERED_RECOVER, List.of(processingKey, queuesKey), arguments)
+                .onFailure(throwable -> log.error("RedisQues is unable to recover expired processing lists", throwable))
+                .onSuccess(queues -> {
+                    for (Response queue : queues) {
+                        log.warn("RedisQues Recovered the items of an expired processing list of queue {}", queue);
+                        notifyConsumer(queue.toString());
+                    }
+                });
+    }
+
+    /**
+     * Moves a failed message to the dead letters of the queue when the processor reported a permanent failure or
+     * the message has failed {@link QueueConfiguration#getMaxAttempts()} times. The attempts are counted per message
+     * in redis, so they survive a restart or a move of the queue to another instance.
+     * <p>
+     * The dead letter is written and the message is removed from the given list in one step by a lua script. In
+     * redis cluster mode, where the lua scripts are not available, the dead letter is written first and the caller
+     * removes the message afterwards, so a message is never lost but may remain in the queue as a duplicate of its
+     * dead letter when redisques stops in between.
+     *
+     * @param listKey the queue key or the processing list holding the message
+     * @param index   the number of processed items in front of the message which are removed from the queue
+     *                together with it, or -1 to remove the message from a processing list
+     * @return a {@link Future} which completes with <code>true</code> when the message was moved to the dead letters.
+     * Then the message and the processed items in front of it are already removed from the list unless redisques runs
+     * in redis cluster mode. It never fails
+     */
+    private Future<Boolean> moveToDeadLettersIfFailed(final String queueName, final String payload, final String listKey,
+                                                      final int index, final ProcessorReply processorReply) {
+        if (!processorReply.isAttempted()) {
+            return Future.succeededFuture(false);
+        }
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        boolean limited = queueConfiguration != null && queueConfiguration.getMaxAttempts() > 0;
+        if (!processorReply.isPermanentFailure() && !limited) {
+            return Future.succeededFuture(false);
+        }
+        String attemptsKey = attemptsPrefix + queueName;
+        String messageId = attemptsId(payload);
+        return countAttempt(attemptsKey, messageId).compose(attempts -> {
+            String reason;
+            if (processorReply.isPermanentFailure()) {
+                reason = PERMANENT_FAILURE;
+            } else if (attempts >= queueConfiguration.getMaxAttempts()) {
+                reason = MAX_ATTEMPTS;
+            } else {
+                return Future.succeededFuture(false);
+            }
+            log.warn("RedisQues Moving a message of queue {} to the dead letters after {} attempts ({})", queueName, attempts, reason);
+            String deadLetter = new JsonObject()
+                    .put(PAYLOAD, payload)
+                    .put(ATTEMPTS, attempts)
+                    .put(REASON, reason)
+                    .put(TIMESTAMP, System.currentTimeMillis())
+                    .encode();
+            if (luaScriptManager == null) {
+                return redisProvider.redis()
+                        .compose(redisAPI -> redisAPI.rpush(List.of(deadLettersPrefix + queueName, deadLetter))
+                                .compose(response -> redisAPI.hdel(List.of(attemptsKey, messageId))))
+                        .map(response -> true);
+            }
+            return luaScriptManager.evalsha(LuaScript.DEAD_LETTER,
+                    List.of(listKey, deadLettersPrefix + queueName, attemptsKey),
+                    List.of(payload, deadLetter, messageId, String.valueOf(index)))
+                    .map(response -> response.toInteger() == 1);
+        }).otherwise(throwable -> {
+            log.warn("Redis: Failed to move a message of queue '{}' to the dead letters. It will be retried", queueName, throwable);
+            return false;
+        });
+    }
+
+    /**
+     * @return the id of the message in the attempts of its queue. Identical messages share their attempts
+     */
+    private static String attemptsId(final String payload) {
+        return UUID.nameUUIDFromBytes(payload.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * @return the id of the message in the attempts of its queue or an empty string when the queue does not limit
+     * the attempts. Then no attempts are left to forget once the message is processed, since the attempts of a
+     * permanent failure are removed together with the message
+     */
+    private String attemptsIdToForget(final String queueName, final String payload) {
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        return queueConfiguration != null && queueConfiguration.getMaxAttempts() > 0 ? attemptsId(payload) : "";
+    }
+
+    /**
+     * Forgets the failed attempts of a processed message, so they are not counted for a later identical message.
+     */
+    private void forgetAttempts(final RedisAPI redisAPI, final String queueName, final String attemptsId) {
+        if (attemptsId.isEmpty()) {
+            return;
+        }
+        redisAPI.hdel(List.of(attemptsPrefix + queueName, attemptsId)).onFailure(throwable ->
+                log.warn("Redis: Failed to forget the attempts of a processed message of queue '{}'", queueName, throwable));
+    }
+
+    /**
+     * Counts a failed attempt to process the given message.
+     *
+     * @return a {@link Future} with the number of failed attempts of the message including this one
+     */
+    private Future<Long> countAttempt(final String attemptsKey, final String messageId) {
+        return redisProvider.redis().compose(redisAPI -> redisAPI.hincrby(attemptsKey, messageId, "1")
+                .compose(attempts -> redisAPI.expire(List.of(attemptsKey, ATTEMPTS_EXPIRE_SECONDS))
+                        .map(response -> attempts.toLong())));
+    }
+
     private void rescheduleSendMessageAfterFailure(final String queueName, int retryInSeconds) {
         log.trace("RedsQues reschedule after failure for queue: {}", queueName);
 
-        vertx.setTimer(retryInSeconds * 1000L, timerId -> {
+        long delayMs = RetryBackoff.jitter(findQueueConfiguration(queueName), retryInSeconds * 1000L);
+        timer.schedule(delayMs, delayed -> {
             if (log.isDebugEnabled()) {
                 log.debug("RedisQues re-notify the consumer of queue '{}' at {}", queueName, new Date(System.currentTimeMillis()));
             }
@@ -651,7 +1779,78 @@ public class RedisQues extends AbstractVerticle {
         });
     }
 
-    private void processMessageWithTimeout(final String queue, final String payload, final Handler<Boolean> handler) {
+    private void processMessageWithTimeout(final String queue, final String payload, final Handler<ProcessorReply> handler) {
+        JsonObject message = new JsonObject();
+        message.put("queue", queue);
+        message.put(PAYLOAD, payload);
+        if (isBlockedByCircuitBreaker(queue, handler)) {
+            return;
+        }
+        sendToProcessorWithTimeout(queue, message, reply -> {
+            ProcessorReply processorReply;
+            if (reply.succeeded()) {
+                processorReply = ProcessorReply.of(reply.result().body(), 1);
+            } else {
+                log.info("RedisQues QUEUE_ERROR: Consumer failed {} queue: {}",
+                        uid, queue, new Exception(reply.cause()));
+                processorReply = ProcessorReply.failed();
+            }
+            updateCircuitBreaker(queue, processorReply);
+            handler.handle(processorReply);
+        });
+    }
+
+    /**
+     * Sends multiple messages in one request to the processor. The number of successfully processed leading
+     * messages is the {@link RedisquesAPI#COUNT} of the reply or all messages when an {@link RedisquesAPI#OK} reply
+     * has no count.
+     */
+    private void processMessagesWithTimeout(final String queue, final List<String> payloads, final Handler<ProcessorReply> handler) {
+        JsonObject message = new JsonObject();
+        message.put("queue", queue);
+        message.put(PAYLOADS, new JsonArray(new ArrayList<>(payloads)));
+        if (isBlockedByCircuitBreaker(queue, handler)) {
+            return;
+        }
+        sendToProcessorWithTimeout(queue, message, reply -> {
+            ProcessorReply processorReply;
+            if (reply.succeeded()) {
+                processorReply = ProcessorReply.of(reply.result().body(), payloads.size());
+            } else {
+                log.info("RedisQues QUEUE_ERROR: Consumer failed {} queue: {}",
+                        uid, queue, new Exception(reply.cause()));
+                processorReply = ProcessorReply.failed();
+            }
+            updateCircuitBreaker(queue, processorReply);
+            handler.handle(processorReply);
+        });
+    }
+
+    /**
+     * Fails the processing of the queue without sending it to the processor while the circuit breaker of its queue
+     * configuration is open. The queue is retried once the circuit breaker allows the next queue.
+     */
+    private boolean isBlockedByCircuitBreaker(final String queue, final Handler<ProcessorReply> handler) {
+        long blockedFor = circuitBreakers.blockedFor(findQueueConfiguration(queue), System.currentTimeMillis());
+        if (blockedFor <= 0) {
+            return false;
+        }
+        log.debug("RedisQues Circuit breaker is open, queue {} is not sent to the processor", queue);
+        handler.handle(ProcessorReply.notAttempted((int) Math.max(1, (blockedFor + 999) / 1000)));
+        return true;
+    }
+
+    private void updateCircuitBreaker(final String queue, final ProcessorReply processorReply) {
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queue);
+        if (processorReply.getProcessed() > 0 || processorReply.isPermanentFailure()) {
+            circuitBreakers.success(queueConfiguration, queue);
+        } else {
+            circuitBreakers.failure(queueConfiguration, queue, System.currentTimeMillis());
+        }
+    }
+
+    private void sendToProcessorWithTimeout(final String queue, final JsonObject message,
+                                            final Handler<AsyncResult<Message<JsonObject>>> replyHandler) {
         long processorDelayMax = configurationProvider.configuration().getProcessorDelayMax();
         if (processorDelayMax > 0) {
             log.info("About to process message for queue {} with a maximum delay of {}ms", queue, processorDelayMax);
@@ -662,65 +1861,180 @@ public class RedisQues extends AbstractVerticle {
                 // TODO: May we should call handler with failed state now.
                 return;
             }
-            String processorAddress = configurationProvider.configuration().getProcessorAddress();
-            final EventBus eb = vertx.eventBus();
-            JsonObject message = new JsonObject();
-            message.put("queue", queue);
-            message.put(PAYLOAD, payload);
-            log.trace("RedisQues process message: {} for queue: {} send it to processor: {}", message, queue, processorAddress);
-
-            // send the message to the consumer
-            DeliveryOptions options = new DeliveryOptions().setSendTimeout(configurationProvider.configuration().getProcessorTimeout());
-            eb.request(processorAddress, message, options, (Handler<AsyncResult<Message<JsonObject>>>) reply -> {
-                boolean success;
-                if (reply.succeeded()) {
-                    success = OK.equals(reply.result().body().getString(STATUS));
-                } else {
-                    log.info("RedisQues QUEUE_ERROR: Consumer failed {} queue: {}",
-                            uid, queue, new Exception(reply.cause()));
-                    success = Boolean.FALSE;
-                }
-                handler.handle(success);
-            });
-            updateTimestamp(queue, null);
+            QueueConfiguration queueConfiguration = findQueueConfiguration(queue);
+            int priority = queueConfiguration != null ? queueConfiguration.getPriority() : 0;
+            long waitStart = System.currentTimeMillis();
+            if (dispatchScheduler == null) {
+                sendToProcessor(queue, message, queueConfiguration, waitStart, replyHandler);
+                return;
+            }
+            int weight = queueConfiguration != null ? queueConfiguration.getDispatchWeight() : 1;
+            dispatchScheduler.dispatch(queue, priority, weight, dispatch -> sendToProcessor(queue, message,
+                    queueConfiguration, waitStart, reply -> {
+                        dispatchScheduler.release();
+                        replyHandler.handle(reply);
+                    }));
         });
     }
 
+    private void sendToProcessor(final String queue, final JsonObject message, QueueConfiguration queueConfiguration,
+                                 long waitStart, final Handler<AsyncResult<Message<JsonObject>>> replyHandler) {
+        long sendStart = System.currentTimeMillis();
+        String processorAddress = configurationProvider.configuration().getProcessorAddress();
+        final EventBus eb = vertx.eventBus();
+        log.trace("RedisQues process message: {} for queue: {} send it to processor: {}", message, queue, processorAddress);
+
+        // send the message to the consumer
+        long timeout = adaptiveProcessorTimeout.timeout(queueConfiguration,
+                configurationProvider.configuration().getProcessorTimeout());
+        DeliveryOptions options = new DeliveryOptions().setSendTimeout(timeout);
+        eb.request(processorAddress, message, options, (AsyncResult<Message<JsonObject>> reply) -> {
+            long now = System.currentTimeMillis();
+            int priority = queueConfiguration != null ? queueConfiguration.getPriority() : 0;
+            queueStatisticsCollector.dispatched(priority, sendStart - waitStart, now - sendStart);
+            if (reply.failed() && isTimeout(reply.cause())) {
+                adaptiveProcessorTimeout.observeTimeout(queueConfiguration);
+            } else {
+                adaptiveProcessorTimeout.observe(queueConfiguration, now - sendStart);
+            }
+            replyHandler.handle(reply);
+        });
+        if (timestampCoalescer != null) {
+            timestampCoalescer.update(queue);
+        } else {
+            updateTimestamp(queue, null);
+        }
+    }
+
+    private static boolean isTimeout(Throwable cause) {
+        return cause instanceof ReplyException && ((ReplyException) cause).failureType() == ReplyFailure.TIMEOUT;
+    }
+
     private Future<Void> notifyConsumer(final String queueName) {
         log.debug("RedisQues Notifying consumer of queue {}", queueName);
-        final EventBus eb = vertx.eventBus();
         final Promise<Void> promise = Promise.promise();
         // Find the consumer to notify
+        getConsumer(queueName).onSuccess(consumer -> {
+                    log.trace("RedisQues got consumer: {}", consumer);
+                    sendNotification(queueName, consumer);
+                    promise.complete();
+                })
+                .onFailure(throwable -> {
+                    log.warn("Redis: Failed to get consumer for queue '{}'", queueName, throwable);
+                    // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+                    promise.complete();
+                });
+        return promise.future();
+    }
+
+    /**
+     * Notifies the given consumer or, when there is none, makes a peer become consumer of the queue.
+     */
+    private void sendNotification(final String queueName, final String consumer) {
+        final EventBus eb = vertx.eventBus();
+        if (consumer == null) {
+            // No consumer for this queue, let's make a peer become consumer
+            log.debug("RedisQues Sending registration request for queue {}", queueName);
+            eb.send(configurationProvider.configuration().getAddress() + "-consumers", queueName);
+        } else {
+            // Notify the registered consumer
+            log.debug("RedisQues Notifying consumer {} to consume queue {}", consumer, queueName);
+            if (consumerNotifier != null) {
+                consumerNotifier.notify(queueName, consumer);
+            } else {
+                eb.send(consumer, queueName);
+            }
+        }
+    }
+
+    /**
+     * Remembers the notification of a queue already being consumed instead of consuming it once more.
+     */
+    private void addPendingNotification(final String queueName) {
+        if (pendingNotifications.add(queueName)) {
+            log.trace("RedisQues Notification of queue {} is pending", queueName);
+            queueStatisticsCollector.notificationDeduplicated();
+        }
+    }
+
+    /**
+     * Checks whether a queue with a pending notification still needs to be consumed once more. A queue which has
+     * been emptied or deleted in the meantime is left alone, so it is not registered and consumed again.
+     *
+     * @param registered whether we are still to be the registered consumer of the queue
+     * @return a {@link Future} holding whether the queue has messages (and is still registered to us). It never
+     * fails
+     */
+    private Future<Boolean> hasPendingMessages(final String queueName, final boolean registered) {
+        return redisProvider.redis().compose(redisAPI -> {
+            Future<Response> length = redisAPI.llen(queuesPrefix + queueName);
+            Future<Response> consumer = registered ? redisAPI.get(consumersPrefix + queueName)
+                    : Future.succeededFuture();
+            return CompositeFuture.all(length, consumer).map(event -> {
+                boolean hasMessages = length.result() != null && length.result().toLong() > 0;
+                boolean owner = !registered || (consumer.result() != null && uid.equals(consumer.result().toString()));
+                if (!hasMessages || !owner) {
+                    log.debug("RedisQues Skipping the pending notification of queue {}", queueName);
+                }
+                return hasMessages && owner;
+            });
+        }).otherwise(throwable -> {
+            log.warn("Redis: Failed to check the pending notification of queue " + queueName, throwable);
+            return false;
+        });
+    }
+
+    /**
+     * @return the registered consumer of the queue or <code>null</code> when there is none. With the consumer
+     * heartbeat, registrations of consumers without heartbeat are ignored.
+     */
+    private Future<String> getConsumer(final String queueName) {
+        if (consumerLocationCache == null) {
+            return lookupConsumer(queueName);
+        }
+        String consumer = consumerLocationCache.get(queueName);
+        if (consumer != null) {
+            return Future.succeededFuture(consumer);
+        }
+        return lookupConsumer(queueName).onSuccess(lookedUp -> consumerLocationCache.put(queueName, lookedUp));
+    }
+
+    private void cacheConsumerLocation(final String queueName, final String consumer) {
+        if (consumerLocationCache != null) {
+            consumerLocationCache.put(queueName, consumer);
+        }
+    }
+
+    private void invalidateConsumerLocation(final String queueName) {
+        if (consumerLocationCache != null) {
+            consumerLocationCache.invalidate(queueName);
+        }
+    }
+
+    private Future<String> lookupConsumer(final String queueName) {
+        if (consumerHeartbeat != null) {
+            return consumerHeartbeat.getConsumer(queueName);
+        }
         String key = consumersPrefix + queueName;
         log.trace("RedisQues notify consumer get: {}", key);
+        final Promise<String> promise = Promise.promise();
         redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(key, event -> {
                     if (event.failed()) {
                         log.warn("Failed to get consumer for queue '{}'", queueName, new Exception(event.cause()));
                         // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
                     }
-                    String consumer = Objects.toString(event.result(), null);
-                    log.trace("RedisQues got consumer: {}", consumer);
-                    if (consumer == null) {
-                        // No consumer for this queue, let's make a peer become consumer
-                        log.debug("RedisQues Sending registration request for queue {}", queueName);
-                        eb.send(configurationProvider.configuration().getAddress() + "-consumers", queueName);
-                        promise.complete();
-                    } else {
-                        // Notify the registered consumer
-                        log.debug("RedisQues Notifying consumer {} to consume queue {}", consumer, queueName);
-                        eb.send(consumer, queueName);
-                        promise.complete();
-                    }
+                    promise.complete(Objects.toString(event.result(), null));
                 }))
-                .onFailure(throwable -> {
-                    log.warn("Redis: Failed to get consumer for queue '{}'", queueName, throwable);
-                    // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-                    promise.complete();
-                });
+                .onFailure(promise::fail);
         return promise.future();
     }
 
     private void refreshRegistration(String queueName, Handler<AsyncResult<Response>> handler) {
+        if (consumerHeartbeat != null && handler != null) {
+            // The registration is kept alive by the heartbeat and must not get an expiry
+            handler.handle(Future.succeededFuture());
+            return;
+        }
         log.debug("RedisQues Refreshing registration of queue {}, expire in {} s", queueName, consumerLockTime);
         String consumerKey = consumersPrefix + queueName;
         if (handler == null) {
@@ -762,95 +2076,249 @@ public class RedisQues extends AbstractVerticle {
      * Notify not-active/not-empty queues to be processed (e.g. after a reboot).
      * Check timestamps of not-active/empty queues.
      * This uses a sorted set of queue names scored by last update timestamp.
+     * <p>
+     * The inactive queues are checked in chunks. The chunks are paced according to
+     * {@link RedisquesConfiguration#getCheckQueuesPerSec()}, so the check runs as a smooth background job instead of
+     * a burst of commands for all inactive queues at once.
      */
     private Future<Void> checkQueues() {
-        final Promise<Void> result = Promise.promise();
+        if (checkQueuesRunning) {
+            log.debug("Previous check of queues timestamps still running");
+            return Future.succeededFuture();
+        }
+        checkQueuesRunning = true;
         log.debug("Checking queues timestamps");
         // List all queues that look inactive (i.e. that have not been updated since 3 periods).
         final long limit = System.currentTimeMillis() - 3L * configurationProvider.configuration().getRefreshPeriod() * 1000;
-        redisProvider.redis().onSuccess(redisAPI -> redisAPI.zrangebyscore(Arrays.asList(queuesKey, "-inf", String.valueOf(limit)), answer -> {
-                    Response queues = answer.result();
-                    if (answer.failed() || queues == null) {
-                        log.error("RedisQues is unable to get list of queues", answer.cause());
-                        result.complete();
+        Future<Void> check = luaScriptManager != null ? checkQueuesChunk("-inf", String.valueOf(limit), null)
+                : checkQueuesChunkLegacy(limit, 0);
+        return check.recover(throwable -> {
+            log.error("RedisQues is unable to check queues", throwable);
+            return Future.succeededFuture();
+        }).onComplete(event -> checkQueuesRunning = false);
+    }
+
+    /**
+     * Checks the next chunk of inactive queues with a single lua script. Each checked queue leaves the range of
+     * inactive queues (it is either updated or removed), so the range itself is the cursor of the check. A check
+     * interrupted halfway (e.g. by a restart) is therefore continued by the next check of any instance.
+     *
+     * @param min      the lower bound of the scores of the queues to check in the syntax of ZRANGEBYSCORE
+     * @param max      the upper bound (inclusive) of the scores of the queues to check
+     * @param leaseKey the lease of the checked partition to renew after each chunk or <code>null</code>
+     */
+    private Future<Void> checkQueuesChunk(final String min, final String max, final String leaseKey) {
+        final long started = System.currentTimeMillis();
+        int lockTime = consumerHeartbeat != null ? 0 : consumerLockTime;
+        List<String> arguments = List.of(max, String.valueOf(QUEUE_CHECK_CHUNK_SIZE), String.valueOf(started),
+                queuesPrefix, consumersPrefix, String.valueOf(lockTime), heartbeatsPrefix, min);
+        return luaScriptManager.evalsha(LuaScript.CHECK_QUEUES, List.of(queuesKey), arguments).compose(response -> {
+            Response queues = response.get(0);
+            Response consumers = response.get(1);
+            Response removed = response.get(2);
+            log.trace("RedisQues checked {} not empty and {} empty queues", queues.size(), removed.size());
+            for (int i = 0; i < queues.size(); i++) {
+                String consumer = consumers.get(i).toString();
+                sendNotification(queues.get(i).toString(), consumer.isEmpty() ? null : consumer);
+            }
+            for (Response queue : removed) {
+                queueStatisticsCollector.resetQueueFailureStatistics(queue.toString());
+                forgetFailingQueue(queue.toString());
+            }
+            int checked = queues.size() + removed.size();
+            if (checked < QUEUE_CHECK_CHUNK_SIZE) {
+                return Future.succeededFuture();
+            }
+            if (leaseKey != null) {
+                redisProvider.redis().onSuccess(redisAPI -> redisAPI.expire(List.of(leaseKey, String.valueOf(consumerLockTime))));
+            }
+            return paceQueueCheck(started, checked).compose(v -> checkQueuesChunk(min, max, leaseKey));
+        });
+    }
+
+    private boolean isPartitionedQueueCheck() {
+        return luaScriptManager != null && configurationProvider.configuration().getCheckPartitions() > 1;
+    }
+
+    /**
+     * Splits the inactive queues into {@link RedisquesConfiguration#getCheckPartitions()} partitions and asks all
+     * instances to claim them.
+     */
+    private void startPartitionedQueueCheck() {
+        RedisquesConfiguration configuration = configurationProvider.configuration();
+        final long limit = System.currentTimeMillis() - 3L * configuration.getRefreshPeriod() * 1000;
+        List<String> arguments = List.of(String.valueOf(limit), String.valueOf(configuration.getCheckPartitions()),
+                String.valueOf(configuration.getCheckInterval()));
+        luaScriptManager.evalsha(LuaScript.CHECK_PARTITIONS, List.of(queuesKey, queueCheckPartitionsKey), arguments)
+                .onFailure(throwable -> log.error("RedisQues is unable to partition the queues to check", throwable))
+                .onSuccess(bounds -> {
+                    if (bounds.size() == 0) {
+                        log.debug("No inactive queues to check");
                         return;
                     }
-                    final AtomicInteger counter = new AtomicInteger(queues.size());
-                    log.trace("RedisQues update queues: {}", counter);
-                    final List<Future> futureList = new ArrayList<>(queues.size());
+                    log.debug("Checking queues timestamps in {} partitions", bounds.size() - 1);
+                    vertx.eventBus().publish(configuration.getAddress() + "-check", queueCheckPartitionsKey);
+                });
+    }
+
+    /**
+     * Checks the partitions of the currently running partitioned queue check which are not leased by another
+     * instance. A lease expires when not renewed, so the partitions of a crashed instance are taken over. Since
+     * the range of the partition is its cursor, the takeover continues where the crashed instance stopped.
+     */
+    private void claimQueueCheckPartitions() {
+        if (checkQueuesRunning) {
+            log.debug("Previous check of queues timestamps still running");
+            return;
+        }
+        checkQueuesRunning = true;
+        redisProvider.redis().compose(redisAPI -> redisAPI.lrange(queueCheckPartitionsKey, "0", "-1"))
+                .compose(response -> {
+                    List<String> bounds = new ArrayList<>(response.size());
+                    for (Response bound : response) {
+                        bounds.add(bound.toString());
+                    }
+                    int partitions = bounds.size() - 1;
+                    if (partitions <= 0) {
+                        return Future.succeededFuture();
+                    }
+                    // start at a random partition, so the instances do not compete for the same partitions
+                    int first = ThreadLocalRandom.current().nextInt(partitions);
+                    Future<Void> future = Future.succeededFuture();
+                    for (int i = 0; i < partitions; i++) {
+                        final int partition = (first + i) % partitions;
+                        String min = partition == 0 ? bounds.get(0) : "(" + bounds.get(partition);
+                        String max = bounds.get(partition + 1);
+                        future = future.compose(v -> claimQueueCheckPartition(partition, min, max));
+                    }
+                    return future;
+                })
+                .onFailure(throwable -> log.error("RedisQues is unable to check the queue partitions", throwable))
+                .onComplete(event -> checkQueuesRunning = false);
+    }
+
+    private Future<Void> claimQueueCheckPartition(final int partition, final String min, final String max) {
+        final String leaseKey = queueCheckLeasePrefix + partition;
+        return redisProvider.redis()
+                .compose(redisAPI -> redisAPI.set(List.of(leaseKey, uid, "NX", "EX", String.valueOf(consumerLockTime))))
+                .compose(response -> {
+                    if (response == null) {
+                        log.trace("RedisQues queue check partition {} is leased by another instance", partition);
+                        return Future.succeededFuture();
+                    }
+                    log.debug("RedisQues Checking queue partition {} with scores from {} to {}", partition, min, max);
+                    // release the lease when done, so the partition is checked again by the next check
+                    return checkQueuesChunk(min, max, leaseKey).eventually(v -> releaseLease(leaseKey));
+                })
+                .recover(throwable -> {
+                    log.warn("RedisQues is unable to check queue partition " + partition, throwable);
+                    return Future.succeededFuture();
+                });
+    }
+
+    private Future<Void> releaseLease(final String leaseKey) {
+        return luaScriptManager.evalsha(LuaScript.RELEASE_LEASE, List.of(leaseKey), List.of(uid))
+                .<Void>mapEmpty()
+                .recover(throwable -> {
+                    log.warn("RedisQues is unable to release the lease " + leaseKey, throwable);
+                    return Future.succeededFuture();
+                });
+    }
+
+    /**
+     * Chunk of the queue check for redis setups not supporting lua scripts over multiple keys (redis cluster).
+     * The empty queues stay at the head of the range until all chunks are checked, so they are skipped with the
+     * given offset.
+     */
+    private Future<Void> checkQueuesChunkLegacy(final long limit, final int offset) {
+        final long started = System.currentTimeMillis();
+        return redisProvider.redis().compose(redisAPI -> redisAPI.zrangebyscore(Arrays.asList(queuesKey, "-inf",
+                String.valueOf(limit), "LIMIT", String.valueOf(offset), String.valueOf(QUEUE_CHECK_CHUNK_SIZE))))
+                .compose(queues -> {
+                    List<Future> futureList = new ArrayList<>(queues.size());
                     for (Response queueObject : queues) {
-                        final Promise<Void> promise = Promise.promise();
-                        futureList.add(promise.future());
-                        // Check if the inactive queue is not empty (i.e. the key exists)
-                        final String queueName = queueObject.toString();
-                        String key = queuesPrefix + queueName;
-                        log.trace("RedisQues update queue: {}", key);
-
-                        Handler<Void> refreshRegHandler = event -> {
-                            // Make sure its TTL is correctly set (replaces the previous orphan detection mechanism).
-                            refreshRegistration(queueName, refreshRegistrationEvent -> {
-                                if( refreshRegistrationEvent.failed() )
-                                    log.warn("TODO error handling", new Exception(refreshRegistrationEvent.cause()));
-                                // And trigger its consumer.
-                                notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
-                                    if( notifyConsumerEvent.failed() )
-                                        log.warn("TODO error handling", new Exception(notifyConsumerEvent.cause()));
-                                    promise.complete();
-                                });
-                            });
-                        };
-                        redisAPI.exists(Collections.singletonList(key), event -> {
-                            if (event.failed() || event.result() == null) {
-                                log.error("RedisQues is unable to check existence of queue " + queueName, event.cause());
-                                promise.complete();
-                                return;
-                            }
-                            if (event.result().toLong() == 1) {
-                                log.debug("Updating queue timestamp for queue '{}'", queueName);
-                                // If not empty, update the queue timestamp to keep it in the sorted set.
-                                updateTimestamp(queueName, upTsResult -> {
-                                    if (upTsResult.failed()) {
-                                        log.warn("Failed to update timestamps for queue '{}'", queueName, upTsResult.cause());
-                                        // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-                                    }
-                                    // Ensure we clean the old queues after having updated all timestamps
-                                    if (counter.decrementAndGet() == 0) {
-                                        removeOldQueues(limit).onComplete(removeOldQueuesEvent -> {
-                                            if (removeOldQueuesEvent.failed())
-                                                log.warn("TODO error handling", new Exception(removeOldQueuesEvent.cause()));
-                                            refreshRegHandler.handle(null);
-                                        });
-                                    } else {
-                                        refreshRegHandler.handle(null);
-                                    }
-                                });
-                            } else {
-                                // Ensure we clean the old queues also in the case of empty queue.
-                                log.trace("RedisQues remove old queue: {}", queueName);
-                                if (counter.decrementAndGet() == 0) {
-                                    removeOldQueues(limit).onComplete(removeOldQueuesEvent -> {
-                                        if( removeOldQueuesEvent.failed() )
-                                            log.warn("TODO error handling", new Exception(removeOldQueuesEvent.cause()));
-                                        queueStatisticsCollector.resetQueueFailureStatistics(queueName);
-                                        promise.complete();
-                                    });
-                                } else {
-                                    queueStatisticsCollector.resetQueueFailureStatistics(queueName);
-                                    promise.complete();
-                                }
-                            }
-                        });
+                        futureList.add(checkQueueLegacy(queueObject.toString()));
                     }
-                    CompositeFuture.all(futureList).onComplete(ev1 -> {
-                        if( ev1.failed() ) log.warn("Cannot happen", new Exception(ev1.cause()));
-                        result.complete();
+                    return CompositeFuture.join(futureList).compose(event -> {
+                        int empty = 0;
+                        for (int i = 0; i < futureList.size(); i++) {
+                            if (!Boolean.TRUE.equals(event.resultAt(i))) {
+                                empty++;
+                            }
+                        }
+                        if (queues.size() < QUEUE_CHECK_CHUNK_SIZE) {
+                            // Ensure we clean the old queues after having updated all timestamps
+                            return removeOldQueues(limit);
+                        }
+                        final int nextOffset = offset + empty;
+                        return paceQueueCheck(started, queues.size()).compose(v -> checkQueuesChunkLegacy(limit, nextOffset));
                     });
-                }))
-                .onFailure(throwable -> {
-                    log.warn("Redis: Failed to checkQueues", throwable);
-                    result.complete();
                 });
-        return result.future();
+    }
+
+    /**
+     * @return a {@link Future} holding whether the queue is not empty
+     */
+    private Future<Boolean> checkQueueLegacy(final String queueName) {
+        final Promise<Boolean> promise = Promise.promise();
+        // Check if the inactive queue is not empty (i.e. the key exists)
+        String key = queuesPrefix + queueName;
+        log.trace("RedisQues update queue: {}", key);
+        redisProvider.redis().onSuccess(redisAPI -> redisAPI.exists(Collections.singletonList(key), event -> {
+            if (event.failed() || event.result() == null) {
+                log.error("RedisQues is unable to check existence of queue " + queueName, event.cause());
+                promise.complete(false);
+                return;
+            }
+            if (event.result().toLong() != 1) {
+                log.trace("RedisQues remove old queue: {}", queueName);
+                queueStatisticsCollector.resetQueueFailureStatistics(queueName);
+                forgetFailingQueue(queueName);
+                promise.complete(false);
+                return;
+            }
+            log.debug("Updating queue timestamp for queue '{}'", queueName);
+            // If not empty, update the queue timestamp to keep it in the sorted set.
+            updateTimestamp(queueName, upTsResult -> {
+                if (upTsResult.failed()) {
+                    log.warn("Failed to update timestamps for queue '{}'", queueName, upTsResult.cause());
+                    // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+                }
+                // Make sure its TTL is correctly set (replaces the previous orphan detection mechanism).
+                refreshRegistration(queueName, refreshRegistrationEvent -> {
+                    if (refreshRegistrationEvent.failed())
+                        log.warn("TODO error handling", new Exception(refreshRegistrationEvent.cause()));
+                    // And trigger its consumer.
+                    notifyConsumer(queueName).onComplete(notifyConsumerEvent -> {
+                        if (notifyConsumerEvent.failed())
+                            log.warn("TODO error handling", new Exception(notifyConsumerEvent.cause()));
+                        promise.complete(true);
+                    });
+                });
+            });
+        })).onFailure(throwable -> {
+            log.warn("Redis: Failed to check queue " + queueName, throwable);
+            promise.complete(false);
+        });
+        return promise.future();
+    }
+
+    /**
+     * @return a {@link Future} completing when the next chunk of the queue check may start according to the
+     * configured budget of checked queues per second
+     */
+    private Future<Void> paceQueueCheck(final long chunkStarted, final int checkedQueues) {
+        int checkQueuesPerSec = configurationProvider.configuration().getCheckQueuesPerSec();
+        if (checkQueuesPerSec <= 0) {
+            return Future.succeededFuture();
+        }
+        long delay = checkedQueues * 1000L / checkQueuesPerSec - (System.currentTimeMillis() - chunkStarted);
+        if (delay <= 0) {
+            return Future.succeededFuture();
+        }
+        Promise<Void> promise = Promise.promise();
+        vertx.setTimer(delay, timerId -> promise.complete());
+        return promise.future();
     }
 
     /**
@@ -882,12 +2350,7 @@ public class RedisQues extends AbstractVerticle {
      * @return null when no queueConfiguration's RegEx matches given queueName - else the QueueConfiguration
      */
     private QueueConfiguration findQueueConfiguration(String queueName) {
-        for (QueueConfiguration queueConfiguration : configurationProvider.configuration().getQueueConfigurations()) {
-            if (queueConfiguration.compiledPattern().matcher(queueName).matches()) {
-                return queueConfiguration;
-            }
-        }
-        return null;
+        return queueConfigurationResolver.resolve(queueName);
     }
 
     private class FailedAsyncResult<Response> implements AsyncResult<Response> {
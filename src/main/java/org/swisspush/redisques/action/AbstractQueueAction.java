@@ -2,6 +2,7 @@ package org.swisspush.redisques.action;
 
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
@@ -9,7 +10,11 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.redis.client.Response;
 import org.slf4j.Logger;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
 import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueConfigurationResolver;
 import org.swisspush.redisques.util.QueueStatisticsCollector;
 import org.swisspush.redisques.util.RedisProvider;
 
@@ -34,10 +39,33 @@ public abstract class AbstractQueueAction implements QueueAction {
     protected final String locksKey;
     protected final List<QueueConfiguration> queueConfigurations;
     protected final QueueStatisticsCollector queueStatisticsCollector;
+    protected final ConsumerHeartbeat consumerHeartbeat;
+    protected final ConsumerLocationCache consumerLocationCache;
+    protected final ConsumerNotifier consumerNotifier;
+    protected final QueueConfigurationResolver queueConfigurationResolver;
 
     public AbstractQueueAction(Vertx vertx, RedisProvider redisProvider, String address, String queuesKey,
                                String queuesPrefix, String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
                                QueueStatisticsCollector queueStatisticsCollector, Logger log) {
+        this(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, null, null, null, null);
+    }
+
+    /**
+     * @param consumerHeartbeat used to look up the living consumer of a queue or <code>null</code> when the
+     *                          consumer registrations expire by themselves
+     * @param consumerLocationCache caches the consumers looked up to notify or <code>null</code> to look up the
+     *                              consumer in redis for each notification
+     * @param consumerNotifier suppresses redundant notifications of the consumers or <code>null</code> to send
+     *                         each notification
+     * @param queueConfigurationResolver caches the queue configuration per queue name or <code>null</code> to match
+     *                                   the patterns with each lookup
+     */
+    public AbstractQueueAction(Vertx vertx, RedisProvider redisProvider, String address, String queuesKey,
+                               String queuesPrefix, String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+                               QueueStatisticsCollector queueStatisticsCollector, Logger log, ConsumerHeartbeat consumerHeartbeat,
+                               ConsumerLocationCache consumerLocationCache, ConsumerNotifier consumerNotifier,
+                               QueueConfigurationResolver queueConfigurationResolver) {
         this.vertx = vertx;
         this.redisProvider = redisProvider;
         this.address = address;
@@ -48,6 +76,10 @@ public abstract class AbstractQueueAction implements QueueAction {
         this.queueConfigurations = queueConfigurations;
         this.queueStatisticsCollector = queueStatisticsCollector;
         this.log = log;
+        this.consumerHeartbeat = consumerHeartbeat;
+        this.consumerLocationCache = consumerLocationCache;
+        this.consumerNotifier = consumerNotifier;
+        this.queueConfigurationResolver = queueConfigurationResolver;
     }
 
     protected Handler<Throwable> replyErrorMessageHandler(Message<JsonObject> event) {
@@ -144,13 +176,12 @@ public abstract class AbstractQueueAction implements QueueAction {
      * @return null when no queueConfiguration's RegEx matches given queueName - else the QueueConfiguration
      */
     protected QueueConfiguration findQueueConfiguration(String queueName) {
-        for (QueueConfiguration queueConfiguration : queueConfigurations) {
-            if (queueConfiguration.compiledPattern().matcher(queueName).matches()) {
-                return queueConfiguration;
-            }
+        if (queueConfigurationResolver != null) {
+            return queueConfigurationResolver.resolve(queueName);
         }
-        return null;
+        return QueueConfigurationResolver.match(queueConfigurations, queueName);
     }
+
     protected Future<Response> updateTimestamp(final String queueName) {
         long ts = System.currentTimeMillis();
         if (log.isTraceEnabled()) {
@@ -159,38 +190,80 @@ public abstract class AbstractQueueAction implements QueueAction {
         return redisProvider.redis().compose(redisAPI -> redisAPI.zadd(Arrays.asList(queuesKey, String.valueOf(ts), queueName)));
     }
 
-    protected void notifyConsumer(final String queueName) {
+    /**
+     * Notifies the registered consumer of the queue or requests a registration when there is none.
+     *
+     * @return the registered consumer or <code>null</code> when no consumer is registered
+     */
+    protected Future<String> notifyConsumer(final String queueName) {
         log.debug("RedisQues Notifying consumer of queue {}", queueName);
-        final EventBus eb = vertx.eventBus();
+        final Promise<String> promise = Promise.promise();
 
         // Find the consumer to notify
+        getConsumer(queueName).onSuccess(consumer -> {
+            promise.complete(consumer);
+            if (log.isTraceEnabled()) {
+                log.trace("RedisQues got consumer: {}", consumer);
+            }
+            notifyConsumer(queueName, consumer);
+        }).onFailure(throwable -> {
+            log.warn("Redis: Failed to get consumer for queue '{}'", queueName, throwable);
+            // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
+            promise.fail(throwable);
+        });
+        return promise.future();
+    }
+
+    /**
+     * Notifies the given consumer of the queue, which has already been looked up, or requests a registration
+     * when it is <code>null</code>.
+     */
+    protected void notifyConsumer(final String queueName, final String consumer) {
+        final EventBus eb = vertx.eventBus();
+        if (consumer == null) {
+            // No consumer for this queue, let's make a peer become consumer
+            if (log.isDebugEnabled()) {
+                log.debug("RedisQues Sending registration request for queue {}", queueName);
+            }
+            eb.send(address + "-consumers", queueName);
+        } else {
+            // Notify the registered consumer
+            log.debug("RedisQues Notifying consumer {} to consume queue {}", consumer, queueName);
+            if (consumerNotifier != null) {
+                consumerNotifier.notify(queueName, consumer);
+            } else {
+                eb.send(consumer, queueName);
+            }
+        }
+    }
+
+    private Future<String> getConsumer(final String queueName) {
+        if (consumerLocationCache == null) {
+            return lookupConsumer(queueName);
+        }
+        String consumer = consumerLocationCache.get(queueName);
+        if (consumer != null) {
+            return Future.succeededFuture(consumer);
+        }
+        return lookupConsumer(queueName).onSuccess(lookedUp -> consumerLocationCache.put(queueName, lookedUp));
+    }
+
+    private Future<String> lookupConsumer(final String queueName) {
+        if (consumerHeartbeat != null) {
+            return consumerHeartbeat.getConsumer(queueName);
+        }
         String key = consumersPrefix + queueName;
         if (log.isTraceEnabled()) {
             log.trace("RedisQues notify consumer get: {}", key);
         }
+        final Promise<String> promise = Promise.promise();
         redisProvider.redis().onSuccess(redisAPI -> redisAPI.get(key, event -> {
             if (event.failed()) {
                 log.warn("Failed to get consumer for queue '{}'", queueName, event.cause());
                 // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
             }
-            String consumer = Objects.toString(event.result(), null);
-            if (log.isTraceEnabled()) {
-                log.trace("RedisQues got consumer: {}", consumer);
-            }
-            if (consumer == null) {
-                // No consumer for this queue, let's make a peer become consumer
-                if (log.isDebugEnabled()) {
-                    log.debug("RedisQues Sending registration request for queue {}", queueName);
-                }
-                eb.send(address + "-consumers", queueName);
-            } else {
-                // Notify the registered consumer
-                log.debug("RedisQues Notifying consumer {} to consume queue {}", consumer, queueName);
-                eb.send(consumer, queueName);
-            }
-        })).onFailure(throwable -> {
-            log.warn("Redis: Failed to get consumer for queue '{}'", queueName, throwable);
-            // We should return here. See: "https://softwareengineering.stackexchange.com/a/190535"
-        });
+            promise.complete(Objects.toString(event.result(), null));
+        })).onFailure(promise::fail);
+        return promise.future();
     }
 }
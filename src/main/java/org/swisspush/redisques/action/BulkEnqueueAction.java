@@ -0,0 +1,124 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.redis.client.Command;
+import io.vertx.redis.client.Request;
+import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScriptManager;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
+import org.swisspush.redisques.util.MemoryUsageProvider;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueConfigurationResolver;
+import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.QueueTimestampCoalescer;
+import org.swisspush.redisques.util.RedisProvider;
+import org.swisspush.redisques.util.RedisQuesTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Enqueues many messages into one or more queues at once. All RPUSHes and the due updates of the queue timestamps
+ * are sent as one pipelined batch, and the consumer of each queue is notified once per batch instead of once per
+ * message.
+ * <p>
+ * The enqueue slow-down of the queue configurations does not apply to bulk enqueues.
+ */
+public class BulkEnqueueAction extends EnqueueAction {
+
+    public BulkEnqueueAction(
+            Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+            String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+            QueueStatisticsCollector queueStatisticsCollector, Logger log, MemoryUsageProvider memoryUsageProvider,
+            int memoryUsageLimitPercent, String wakeupChannel, ConsumerHeartbeat consumerHeartbeat,
+            RedisQuesTimer timer, LuaScriptManager luaScriptManager, ConsumerLocationCache consumerLocationCache,
+            QueueTimestampCoalescer timestampCoalescer, ConsumerNotifier consumerNotifier,
+            QueueConfigurationResolver queueConfigurationResolver
+    ) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent, wakeupChannel,
+                consumerHeartbeat, timer, luaScriptManager, consumerLocationCache, timestampCoalescer,
+                consumerNotifier, queueConfigurationResolver);
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        JsonObject messagesPerQueue = event.body().getJsonObject(PAYLOAD).getJsonObject(QUEUES);
+        if (messagesPerQueue == null) {
+            event.reply(createErrorReply().put(ERROR_TYPE, BAD_INPUT).put(MESSAGE, "No messages to enqueue provided"));
+            return;
+        }
+        if (isMemoryUsageLimitReached()) {
+            log.warn("Failed to bulk enqueue into {} queues because the memory usage limit is reached",
+                    messagesPerQueue.size());
+            event.reply(createErrorReply().put(MESSAGE, MEMORY_FULL));
+            return;
+        }
+
+        String ts = String.valueOf(System.currentTimeMillis());
+        Request zadd = Request.cmd(Command.ZADD).arg(queuesKey);
+        List<Request> requests = new ArrayList<>(messagesPerQueue.size() + 1);
+        List<String> queueNames = new ArrayList<>(messagesPerQueue.size());
+        long count = 0;
+        int timestamps = 0;
+        for (Map.Entry<String, Object> entry : messagesPerQueue) {
+            if (!(entry.getValue() instanceof JsonArray) || !jsonArrayContainsStringsOnly((JsonArray) entry.getValue())) {
+                event.reply(createErrorReply().put(ERROR_TYPE, BAD_INPUT)
+                        .put(MESSAGE, "Messages of queue " + entry.getKey() + " must be an array of string values"));
+                return;
+            }
+            JsonArray messages = (JsonArray) entry.getValue();
+            if (messages.isEmpty()) {
+                continue;
+            }
+            Request rpush = Request.cmd(Command.RPUSH).arg(buildQueueKey(entry.getKey()));
+            for (Object message : messages) {
+                rpush.arg((String) message);
+            }
+            requests.add(rpush);
+            if (timestampCoalescer == null || timestampCoalescer.markIfDue(entry.getKey())) {
+                zadd.arg(ts).arg(entry.getKey());
+                timestamps++;
+            }
+            queueNames.add(entry.getKey());
+            count += messages.size();
+        }
+        if (queueNames.isEmpty()) {
+            event.reply(createOkReply().put(VALUE, 0));
+            return;
+        }
+        if (timestamps > 0) {
+            requests.add(zadd);
+        }
+
+        final long enqueued = count;
+        redisProvider.connection().compose(redis -> redis.batch(requests)).onComplete(batchEvent -> {
+            if (batchEvent.failed()) {
+                log.error("RedisQues Failed to bulk enqueue into {} queues", queueNames.size(),
+                        new Exception(batchEvent.cause()));
+                if (timestampCoalescer != null) {
+                    queueNames.forEach(timestampCoalescer::forget);
+                }
+                event.reply(createErrorReply().put(MESSAGE, batchEvent.cause().getMessage()));
+                return;
+            }
+            log.debug("RedisQues Bulk enqueued {} messages into {} queues", enqueued, queueNames.size());
+            for (String queueName : queueNames) {
+                notifyConsumer(queueName).onSuccess(consumer -> {
+                    if (wakeupChannel != null) {
+                        publishWakeup(queueName, consumer);
+                    }
+                });
+            }
+            event.reply(createOkReply().put(VALUE, enqueued));
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.RedisProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Purges the dead letters of a queue.
+ */
+public class DeleteDeadLettersAction extends AbstractQueueAction {
+
+    private final String deadLettersPrefix;
+
+    public DeleteDeadLettersAction(Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+                                   String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+                                   QueueStatisticsCollector queueStatisticsCollector, Logger log, String deadLettersPrefix) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log);
+        this.deadLettersPrefix = deadLettersPrefix;
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        String queueName = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+        redisProvider.redis()
+                .compose(redisAPI -> redisAPI.del(Collections.singletonList(deadLettersPrefix + queueName)))
+                .onSuccess(response -> event.reply(createOkReply().put(VALUE, response.toLong())))
+                .onFailure(ex -> replyErrorMessageHandler(event).handle(ex));
+    }
+}
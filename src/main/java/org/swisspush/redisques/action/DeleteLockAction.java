@@ -4,6 +4,9 @@ import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
 import org.swisspush.redisques.handler.DeleteLockHandler;
 import org.swisspush.redisques.util.QueueConfiguration;
 import org.swisspush.redisques.util.QueueStatisticsCollector;
@@ -22,9 +25,20 @@ public class DeleteLockAction extends AbstractQueueAction {
             Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
             String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
             QueueStatisticsCollector queueStatisticsCollector, Logger log
+    ) {
+        this(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey,
+                queueConfigurations, queueStatisticsCollector, log, null, null, null);
+    }
+
+    public DeleteLockAction(
+            Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+            String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+            QueueStatisticsCollector queueStatisticsCollector, Logger log, ConsumerHeartbeat consumerHeartbeat,
+            ConsumerLocationCache consumerLocationCache, ConsumerNotifier consumerNotifier
     ) {
         super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey,
-                queueConfigurations, queueStatisticsCollector, log);
+                queueConfigurations, queueStatisticsCollector, log, consumerHeartbeat, consumerLocationCache,
+                consumerNotifier, null);
     }
 
     @Override
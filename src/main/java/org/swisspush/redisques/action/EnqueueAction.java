@@ -1,16 +1,28 @@
 package org.swisspush.redisques.action;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
+import io.vertx.redis.client.Response;
 import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScript;
+import org.swisspush.redisques.lua.LuaScriptManager;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
 import org.swisspush.redisques.util.MemoryUsageProvider;
 import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueConfigurationResolver;
 import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.QueueTimestampCoalescer;
 import org.swisspush.redisques.util.RedisProvider;
+import org.swisspush.redisques.util.RedisQuesTimer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import static org.swisspush.redisques.util.RedisquesAPI.*;
 
@@ -18,17 +30,58 @@ public class EnqueueAction extends AbstractQueueAction {
 
     private final MemoryUsageProvider memoryUsageProvider;
     private final int memoryUsageLimitPercent;
+    protected final String wakeupChannel;
+    private final RedisQuesTimer timer;
+    protected final LuaScriptManager luaScriptManager;
+    protected final QueueTimestampCoalescer timestampCoalescer;
 
     public EnqueueAction(
             Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
             String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
             QueueStatisticsCollector queueStatisticsCollector, Logger log, MemoryUsageProvider memoryUsageProvider,
             int memoryUsageLimitPercent
+    ) {
+        this(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent, null, null, null, null, null,
+                null, null, null);
+    }
+
+    /**
+     * @param wakeupChannel the redis pub/sub channel to publish the enqueued queue names to or <code>null</code>
+     *                      when the wakeup channel is disabled
+     * @param consumerHeartbeat used to look up the living consumer of a queue or <code>null</code> when the
+     *                          consumer registrations expire by themselves
+     * @param timer used to delay the replies of slowed down enqueues or <code>null</code> to use a vertx timer
+     *              per delayed reply
+     * @param luaScriptManager used to enqueue with a single script or <code>null</code> to enqueue with
+     *                         separate commands (e.g. in redis cluster mode)
+     * @param consumerLocationCache caches the consumers looked up to notify or <code>null</code> to look up the
+     *                              consumer in redis for each notification
+     * @param timestampCoalescer coalesces the timestamp updates of the queues or <code>null</code> to update the
+     *                           timestamp with each enqueue
+     * @param consumerNotifier suppresses redundant notifications of the consumers or <code>null</code> to send
+     *                         each notification
+     * @param queueConfigurationResolver caches the queue configuration per queue name or <code>null</code> to match
+     *                                   the patterns with each lookup
+     */
+    public EnqueueAction(
+            Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+            String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+            QueueStatisticsCollector queueStatisticsCollector, Logger log, MemoryUsageProvider memoryUsageProvider,
+            int memoryUsageLimitPercent, String wakeupChannel, ConsumerHeartbeat consumerHeartbeat,
+            RedisQuesTimer timer, LuaScriptManager luaScriptManager, ConsumerLocationCache consumerLocationCache,
+            QueueTimestampCoalescer timestampCoalescer, ConsumerNotifier consumerNotifier,
+            QueueConfigurationResolver queueConfigurationResolver
     ) {
         super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey,
-                queueConfigurations, queueStatisticsCollector, log);
+                queueConfigurations, queueStatisticsCollector, log, consumerHeartbeat, consumerLocationCache,
+                consumerNotifier, queueConfigurationResolver);
         this.memoryUsageProvider = memoryUsageProvider;
         this.memoryUsageLimitPercent = memoryUsageLimitPercent;
+        this.wakeupChannel = wakeupChannel;
+        this.timer = timer;
+        this.luaScriptManager = luaScriptManager;
+        this.timestampCoalescer = timestampCoalescer;
     }
 
     @Override
@@ -40,7 +93,18 @@ public class EnqueueAction extends AbstractQueueAction {
             event.reply(createErrorReply().put(MESSAGE, MEMORY_FULL));
             return;
         }
-        updateTimestamp(queueName).onComplete(updateTimestampEvent -> {
+        if (luaScriptManager != null) {
+            enqueueWithScript(event, queueName, null);
+            return;
+        }
+        Future<?> updateTimestampFuture;
+        if (timestampCoalescer != null) {
+            timestampCoalescer.update(queueName);
+            updateTimestampFuture = Future.succeededFuture();
+        } else {
+            updateTimestampFuture = updateTimestamp(queueName);
+        }
+        updateTimestampFuture.onComplete(updateTimestampEvent -> {
             if (updateTimestampEvent.failed()) {
                 replyError(event, queueName, updateTimestampEvent.cause());
                 return;
@@ -50,36 +114,15 @@ public class EnqueueAction extends AbstractQueueAction {
 
             var p = redisProvider.redis();
             p.onSuccess(redisAPI -> redisAPI.rpush(Arrays.asList(keyEnqueue, valueEnqueue)).onComplete(enqueueEvent -> {
-                JsonObject reply = new JsonObject();
                 if (enqueueEvent.succeeded()) {
                     if (log.isDebugEnabled()) {
                         log.debug("RedisQues Enqueued message into queue {}", queueName);
                     }
-                    long queueLength = enqueueEvent.result().toLong();
-                    notifyConsumer(queueName);
-                    reply.put(STATUS, OK);
-                    reply.put(MESSAGE, "enqueued");
-
-                    // feature EN-queue slow-down (the larger the queue the longer we delay "OK" response)
-                    long delayReplyMillis = 0;
-                    QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
-                    if (queueConfiguration != null) {
-                        float enqueueDelayFactorMillis = queueConfiguration.getEnqueueDelayFactorMillis();
-                        if (enqueueDelayFactorMillis > 0f) {
-                            // minus one as we need the queueLength _before_ our en-queue here
-                            delayReplyMillis = (long) ((queueLength - 1) * enqueueDelayFactorMillis);
-                            int max = queueConfiguration.getEnqueueMaxDelayMillis();
-                            if (max > 0 && delayReplyMillis > max) {
-                                delayReplyMillis = max;
-                            }
-                        }
-                    }
-                    if (delayReplyMillis > 0) {
-                        vertx.setTimer(delayReplyMillis, timeIsUp -> event.reply(reply));
-                    } else {
-                        event.reply(reply);
+                    Future<String> notifyConsumerFuture = notifyConsumer(queueName);
+                    if (wakeupChannel != null) {
+                        notifyConsumerFuture.onSuccess(consumer -> publishWakeup(queueName, consumer));
                     }
-                    queueStatisticsCollector.setQueueBackPressureTime(queueName, delayReplyMillis);
+                    replyEnqueued(event, queueName, enqueueEvent.result().toLong());
                 } else {
                     replyError(event, queueName, enqueueEvent.cause());
                 }
@@ -87,6 +130,92 @@ public class EnqueueAction extends AbstractQueueAction {
         });
     }
 
+    /**
+     * Enqueues the message with a single roundtrip. The script updates the timestamp of the queue when it is due,
+     * appends the message and looks up the registered consumer, which is notified afterwards.
+     *
+     * @param lockInfo the lock info to lock the queue with before the enqueue or <code>null</code>
+     */
+    protected void enqueueWithScript(Message<JsonObject> event, String queueName, JsonObject lockInfo) {
+        List<String> keys = List.of(queuesKey, queuesPrefix + queueName, consumersPrefix + queueName, locksKey);
+        List<String> arguments = new ArrayList<>(5);
+        arguments.add(queueName);
+        if (timestampCoalescer == null || timestampCoalescer.markIfDue(queueName)) {
+            arguments.add(String.valueOf(System.currentTimeMillis()));
+        } else {
+            arguments.add("");
+        }
+        arguments.add(event.body().getString(MESSAGE));
+        arguments.add(consumerHeartbeat != null ? consumerHeartbeat.getHeartbeatsPrefix() : "");
+        if (lockInfo != null) {
+            arguments.add(lockInfo.encode());
+        }
+        luaScriptManager.evalsha(LuaScript.ENQUEUE, keys, arguments).onComplete(enqueueEvent -> {
+            if (enqueueEvent.failed()) {
+                if (timestampCoalescer != null) {
+                    timestampCoalescer.forget(queueName);
+                }
+                replyError(event, queueName, enqueueEvent.cause());
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("RedisQues Enqueued message into queue {}", queueName);
+            }
+            Response response = enqueueEvent.result();
+            String consumer = response.size() > 1 ? Objects.toString(response.get(1), null) : null;
+            if (consumerLocationCache != null) {
+                consumerLocationCache.put(queueName, consumer);
+            }
+            notifyConsumer(queueName, consumer);
+            if (wakeupChannel != null) {
+                publishWakeup(queueName, consumer);
+            }
+            replyEnqueued(event, queueName, response.get(0).toLong());
+        });
+    }
+
+    private void replyEnqueued(Message<JsonObject> event, String queueName, long queueLength) {
+        JsonObject reply = new JsonObject();
+        reply.put(STATUS, OK);
+        reply.put(MESSAGE, "enqueued");
+
+        // feature EN-queue slow-down (the larger the queue the longer we delay "OK" response)
+        long delayReplyMillis = 0;
+        QueueConfiguration queueConfiguration = findQueueConfiguration(queueName);
+        if (queueConfiguration != null) {
+            float enqueueDelayFactorMillis = queueConfiguration.getEnqueueDelayFactorMillis();
+            if (enqueueDelayFactorMillis > 0f) {
+                // minus one as we need the queueLength _before_ our en-queue here
+                delayReplyMillis = (long) ((queueLength - 1) * enqueueDelayFactorMillis);
+                int max = queueConfiguration.getEnqueueMaxDelayMillis();
+                if (max > 0 && delayReplyMillis > max) {
+                    delayReplyMillis = max;
+                }
+            }
+        }
+        if (delayReplyMillis > 0 && timer != null) {
+            timer.schedule(delayReplyMillis, timeIsUp -> event.reply(reply));
+        } else if (delayReplyMillis > 0) {
+            vertx.setTimer(delayReplyMillis, timeIsUp -> event.reply(reply));
+        } else {
+            event.reply(reply);
+        }
+        queueStatisticsCollector.setQueueBackPressureTime(queueName, delayReplyMillis);
+    }
+
+    /**
+     * Publishes the enqueued queue name together with its registered consumer on the wakeup channel. This
+     * reaches the consumer even when it is not connected to our event bus.
+     */
+    protected void publishWakeup(String queueName, String consumer) {
+        String message = new JsonObject().put(QUEUENAME, queueName).put(CONSUMER, consumer).encode();
+        redisProvider.redis().onSuccess(redisAPI -> redisAPI.publish(wakeupChannel, message, event -> {
+            if (event.failed()) {
+                log.warn("Failed to publish wakeup for queue '{}'", queueName, event.cause());
+            }
+        })).onFailure(throwable -> log.warn("Redis: Failed to publish wakeup for queue '{}'", queueName, throwable));
+    }
+
     private void replyError(Message<JsonObject> event, String queueName, Throwable ex) {
         String message = "RedisQues QUEUE_ERROR: Error while enqueueing message into queue " + queueName;
         log.error(message, new Exception(ex));
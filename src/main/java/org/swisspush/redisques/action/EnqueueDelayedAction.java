@@ -0,0 +1,100 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScriptManager;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
+import org.swisspush.redisques.util.MemoryUsageProvider;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueConfigurationResolver;
+import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.QueueTimestampCoalescer;
+import org.swisspush.redisques.util.RedisProvider;
+import org.swisspush.redisques.util.RedisQuesTimer;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Stores a message in the sorted set of delayed messages scored by its due time. The delayed messages are spread
+ * over the shards <code>&lt;delayedPrefix&gt;&lt;shard&gt;</code> by the hash of their queue name. Due messages are
+ * moved into their queue by the instances of redisques. A message which is already due is enqueued right away.
+ */
+public class EnqueueDelayedAction extends EnqueueAction {
+
+    // makes equal messages distinct members of the sorted set
+    private static final String ID = "id";
+
+    private final String delayedPrefix;
+    private final int delayedShards;
+
+    /**
+     * @param delayedPrefix the prefix of the sorted sets of the delayed messages
+     * @param delayedShards the number of sorted sets the delayed messages are spread over
+     */
+    public EnqueueDelayedAction(
+            Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+            String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+            QueueStatisticsCollector queueStatisticsCollector, Logger log, MemoryUsageProvider memoryUsageProvider,
+            int memoryUsageLimitPercent, String wakeupChannel, ConsumerHeartbeat consumerHeartbeat,
+            RedisQuesTimer timer, LuaScriptManager luaScriptManager, ConsumerLocationCache consumerLocationCache,
+            QueueTimestampCoalescer timestampCoalescer, ConsumerNotifier consumerNotifier,
+            QueueConfigurationResolver queueConfigurationResolver, String delayedPrefix, int delayedShards
+    ) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent, wakeupChannel,
+                consumerHeartbeat, timer, luaScriptManager, consumerLocationCache, timestampCoalescer,
+                consumerNotifier, queueConfigurationResolver);
+        this.delayedPrefix = delayedPrefix;
+        this.delayedShards = delayedShards;
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        JsonObject payload = event.body().getJsonObject(PAYLOAD);
+        String queueName = payload.getString(QUEUENAME);
+        Long deliverAt;
+        try {
+            deliverAt = payload.getLong(DELIVER_AT);
+        } catch (ClassCastException ex) {
+            deliverAt = null;
+        }
+        if (deliverAt == null) {
+            event.reply(createErrorReply().put(ERROR_TYPE, BAD_INPUT).put(MESSAGE, "deliverAt must be a timestamp"));
+            return;
+        }
+        if (deliverAt <= System.currentTimeMillis()) {
+            super.execute(event);
+            return;
+        }
+        if (isMemoryUsageLimitReached()) {
+            log.warn("Failed to enqueue delayed into queue {} because the memory usage limit is reached", queueName);
+            event.reply(createErrorReply().put(MESSAGE, MEMORY_FULL));
+            return;
+        }
+        String member = new JsonObject()
+                .put(QUEUENAME, queueName)
+                .put(MESSAGE, event.body().getString(MESSAGE))
+                .put(ID, UUID.randomUUID().toString())
+                .encode();
+        String delayedKey = delayedPrefix + shardOf(queueName, delayedShards);
+        String score = String.valueOf(deliverAt);
+        redisProvider.redis()
+                .compose(redisAPI -> redisAPI.zadd(List.of(delayedKey, score, member)))
+                .onSuccess(response -> {
+                    log.debug("RedisQues Delayed message for queue {} until {}", queueName, score);
+                    event.reply(createOkReply().put(MESSAGE, "enqueued"));
+                })
+                .onFailure(ex -> replyErrorMessageHandler(event).handle(ex));
+    }
+
+    private static int shardOf(String queueName, int delayedShards) {
+        return Math.floorMod(queueName.hashCode(), delayedShards);
+    }
+}
@@ -0,0 +1,65 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.redis.client.Response;
+import org.slf4j.Logger;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.RedisProvider;
+
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Lists the dead letters of a queue, i.e. the messages which were moved out of the queue after failing to be
+ * processed, together with their failure information.
+ */
+public class GetDeadLettersAction extends AbstractQueueAction {
+
+    private static final int DEFAULT_MAX_DEAD_LETTER_COUNT = 49;
+
+    private final String deadLettersPrefix;
+
+    public GetDeadLettersAction(Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+                                String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+                                QueueStatisticsCollector queueStatisticsCollector, Logger log, String deadLettersPrefix) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log);
+        this.deadLettersPrefix = deadLettersPrefix;
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        String queueName = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+        String maxIndex = String.valueOf(getMaxDeadLetterCountIndex(event.body().getJsonObject(PAYLOAD).getString(LIMIT)));
+        redisProvider.redis()
+                .compose(redisAPI -> redisAPI.lrange(deadLettersPrefix + queueName, "0", maxIndex))
+                .onSuccess(response -> {
+                    JsonArray deadLetters = new JsonArray();
+                    for (Response deadLetter : response) {
+                        deadLetters.add(new JsonObject(deadLetter.toString()));
+                    }
+                    event.reply(createOkReply().put(VALUE, deadLetters));
+                })
+                .onFailure(ex -> replyErrorMessageHandler(event).handle(ex));
+    }
+
+    private int getMaxDeadLetterCountIndex(String limit) {
+        if (limit != null) {
+            try {
+                int maxIndex = Integer.parseInt(limit) - 1;
+                if (maxIndex >= 0) {
+                    return maxIndex;
+                }
+            } catch (NumberFormatException ex) {
+                log.warn("Invalid limit parameter '{}' configured for max dead letter count. Using default {}",
+                        limit, DEFAULT_MAX_DEAD_LETTER_COUNT);
+            }
+        }
+        return DEFAULT_MAX_DEAD_LETTER_COUNT;
+    }
+}
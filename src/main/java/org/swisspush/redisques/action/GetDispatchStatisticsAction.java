@@ -0,0 +1,30 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.swisspush.redisques.util.*;
+
+import java.util.List;
+
+/**
+ * Retrieve the dispatch latencies per queue priority of this instance
+ */
+public class GetDispatchStatisticsAction extends AbstractQueueAction {
+
+    public GetDispatchStatisticsAction(
+            Vertx vertx, RedisProvider redisProvider, String address, String queuesKey,
+            String queuesPrefix, String consumersPrefix, String locksKey,
+            List<QueueConfiguration> queueConfigurations, QueueStatisticsCollector queueStatisticsCollector,
+            Logger log
+    ) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey,
+                queueConfigurations, queueStatisticsCollector, log);
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        queueStatisticsCollector.getDispatchStatistics(event);
+    }
+}
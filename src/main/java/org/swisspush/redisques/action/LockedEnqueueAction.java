@@ -4,10 +4,17 @@ import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScriptManager;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
 import org.swisspush.redisques.util.MemoryUsageProvider;
 import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueConfigurationResolver;
 import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.QueueTimestampCoalescer;
 import org.swisspush.redisques.util.RedisProvider;
+import org.swisspush.redisques.util.RedisQuesTimer;
 
 import java.util.Arrays;
 import java.util.List;
@@ -21,8 +28,24 @@ public class LockedEnqueueAction extends EnqueueAction {
                                String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
                                QueueStatisticsCollector queueStatisticsCollector, Logger log,
                                MemoryUsageProvider memoryUsageProvider, int memoryUsageLimitPercent) {
-        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix,
-                locksKey, queueConfigurations, queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent);
+        this(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent, null, null, null, null, null,
+                null, null, null);
+    }
+
+    public LockedEnqueueAction(Vertx vertx, RedisProvider redisProvider,
+                               String address, String queuesKey, String queuesPrefix,
+                               String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+                               QueueStatisticsCollector queueStatisticsCollector, Logger log,
+                               MemoryUsageProvider memoryUsageProvider, int memoryUsageLimitPercent,
+                               String wakeupChannel, ConsumerHeartbeat consumerHeartbeat, RedisQuesTimer timer,
+                               LuaScriptManager luaScriptManager, ConsumerLocationCache consumerLocationCache,
+                               QueueTimestampCoalescer timestampCoalescer, ConsumerNotifier consumerNotifier,
+                               QueueConfigurationResolver queueConfigurationResolver) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, memoryUsageProvider, memoryUsageLimitPercent, wakeupChannel,
+                consumerHeartbeat, timer, luaScriptManager, consumerLocationCache, timestampCoalescer,
+                consumerNotifier, queueConfigurationResolver);
     }
 
     @Override
@@ -35,7 +58,10 @@ public class LockedEnqueueAction extends EnqueueAction {
             return;
         }
         JsonObject lockInfo = extractLockInfo(event.body().getJsonObject(PAYLOAD).getString(REQUESTED_BY));
-        if (lockInfo != null) {
+        if (lockInfo != null && luaScriptManager != null) {
+            // the lock is set by the enqueue script
+            enqueueWithScript(event, queueName, lockInfo);
+        } else if (lockInfo != null) {
             var p = redisProvider.redis();
             p.onSuccess(redisAPI -> redisAPI.hmset(Arrays.asList(locksKey, queueName, lockInfo.encode()), putLockResult -> {
                 if (putLockResult.succeeded()) {
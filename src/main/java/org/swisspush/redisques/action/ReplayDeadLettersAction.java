@@ -0,0 +1,91 @@
+package org.swisspush.redisques.action;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.redis.client.Response;
+import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScript;
+import org.swisspush.redisques.lua.LuaScriptManager;
+import org.swisspush.redisques.util.ConsumerHeartbeat;
+import org.swisspush.redisques.util.ConsumerLocationCache;
+import org.swisspush.redisques.util.ConsumerNotifier;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.QueueStatisticsCollector;
+import org.swisspush.redisques.util.RedisProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Appends the dead letters of a queue to the queue again and removes them from the dead letters in one step with a
+ * lua script. In redis cluster mode, where the lua scripts are not available, the dead letters are appended before
+ * they are removed, so a dead letter is processed twice rather than lost when the replay is interrupted, and dead
+ * letters added during the replay are kept. Concurrent replays of the same queue are not safe in cluster mode.
+ */
+public class ReplayDeadLettersAction extends AbstractQueueAction {
+
+    private final String deadLettersPrefix;
+    private final LuaScriptManager luaScriptManager;
+
+    /**
+     * @param luaScriptManager used to replay with a single script or <code>null</code> to replay with separate
+     *                         commands (e.g. in redis cluster mode)
+     */
+    public ReplayDeadLettersAction(Vertx vertx, RedisProvider redisProvider, String address, String queuesKey, String queuesPrefix,
+                                   String consumersPrefix, String locksKey, List<QueueConfiguration> queueConfigurations,
+                                   QueueStatisticsCollector queueStatisticsCollector, Logger log, ConsumerHeartbeat consumerHeartbeat,
+                                   ConsumerLocationCache consumerLocationCache, ConsumerNotifier consumerNotifier,
+                                   String deadLettersPrefix, LuaScriptManager luaScriptManager) {
+        super(vertx, redisProvider, address, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueConfigurations,
+                queueStatisticsCollector, log, consumerHeartbeat, consumerLocationCache, consumerNotifier, null);
+        this.deadLettersPrefix = deadLettersPrefix;
+        this.luaScriptManager = luaScriptManager;
+    }
+
+    @Override
+    public void execute(Message<JsonObject> event) {
+        String queueName = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+        Future<Integer> replay = luaScriptManager != null ? replayWithScript(queueName) : replay(queueName);
+        replay.onSuccess(replayed -> {
+            log.info("RedisQues Replayed {} dead letters of queue {}", replayed, queueName);
+            event.reply(createOkReply().put(VALUE, replayed));
+        }).onFailure(ex -> replyErrorMessageHandler(event).handle(ex));
+    }
+
+    private Future<Integer> replayWithScript(String queueName) {
+        List<String> keys = List.of(deadLettersPrefix + queueName, buildQueueKey(queueName), queuesKey);
+        List<String> arguments = List.of(queueName, String.valueOf(System.currentTimeMillis()));
+        return luaScriptManager.evalsha(LuaScript.REPLAY_DEAD_LETTERS, keys, arguments).map(response -> {
+            int replayed = response.toInteger();
+            if (replayed > 0) {
+                notifyConsumer(queueName);
+            }
+            return replayed;
+        });
+    }
+
+    private Future<Integer> replay(String queueName) {
+        String deadLettersKey = deadLettersPrefix + queueName;
+        return redisProvider.redis().compose(redisAPI -> redisAPI.lrange(deadLettersKey, "0", "-1").compose(deadLetters -> {
+            if (deadLetters.size() == 0) {
+                return Future.succeededFuture(0);
+            }
+            List<String> args = new ArrayList<>(deadLetters.size() + 1);
+            args.add(buildQueueKey(queueName));
+            for (Response deadLetter : deadLetters) {
+                args.add(new JsonObject(deadLetter.toString()).getString(PAYLOAD));
+            }
+            return redisAPI.rpush(args)
+                    .compose(pushed -> redisAPI.ltrim(deadLettersKey, String.valueOf(deadLetters.size()), "-1"))
+                    .compose(trimmed -> updateTimestamp(queueName))
+                    .map(updated -> {
+                        notifyConsumer(queueName);
+                        return deadLetters.size();
+                    });
+        }));
+    }
+}
@@ -12,6 +12,7 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.RecordParser;
 import io.vertx.ext.auth.authentication.AuthenticationProvider;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
@@ -48,8 +49,12 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
     private static final String TEXT_PLAIN = "text/plain";
     private static final String CONTENT_TYPE = "content-type";
     private static final String LOCKED_PARAM = "locked";
+    private static final String DELIVER_AT_PARAM = "deliverAt";
     private static final String UNLOCK_PARAM = "unlock";
     private static final String BULK_DELETE_PARAM = "bulkDelete";
+    private static final String BULK_PARAM = "bulk";
+    private static final String ENQUEUED = "enqueued";
+    private static final int BULK_ENQUEUE_CHUNK_SIZE = 1000;
     private static final String EMPTY_QUEUES_PARAM = "emptyQueues";
     private static final String DELETED = "deleted";
 
@@ -57,6 +62,7 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
     private final String userHeader;
     private final boolean enableQueueNameDecoding;
     private final int queueSpeedIntervalSec;
+    private final int maxLineSize;
 
     public static void init(Vertx vertx, RedisquesConfiguration modConfig) {
         log.info("Enable http request handler: " + modConfig.getHttpRequestHandlerEnabled());
@@ -98,6 +104,7 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
         this.userHeader = modConfig.getHttpRequestHandlerUserHeader();
         this.enableQueueNameDecoding = modConfig.getEnableQueueNameDecoding();
         this.queueSpeedIntervalSec = modConfig.getQueueSpeedIntervalSec();
+        this.maxLineSize = modConfig.getHttpRequestHandlerMaxLineSize();
 
         final String prefix = modConfig.getHttpRequestHandlerPrefix();
 
@@ -145,6 +152,11 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
          */
         router.putWithRegex(prefix + "/enqueue/([^/]+)/").handler(this::enqueueOrLockedEnqueue);
 
+        /*
+         * Bulk enqueue into many queues
+         */
+        router.post(prefix + "/enqueue").handler(ctx -> new BulkEnqueue(ctx.request(), null).start());
+
         /*
          * List queue items
          */
@@ -190,6 +202,21 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
          */
         router.postWithRegex(prefix + "/queues/([^/]+)/").handler(this::addQueueItem);
 
+        /*
+         * List dead letters
+         */
+        router.getWithRegex(prefix + "/deadletters/[^/]+").handler(this::listDeadLetters);
+
+        /*
+         * Replay dead letters
+         */
+        router.postWithRegex(prefix + "/deadletters/([^/]+)/replay").handler(this::replayDeadLetters);
+
+        /*
+         * Delete dead letters
+         */
+        router.deleteWithRegex(prefix + "/deadletters/[^/]+").handler(this::deleteDeadLetters);
+
         /*
          * Get all locks
          */
@@ -237,6 +264,7 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
         JsonArray items = new JsonArray();
         items.add("locks/");
         items.add("queues/");
+        items.add("deadletters/");
         items.add("monitor/");
         items.add("configuration/");
         result.put(lastPart(ctx.request().path()), items);
@@ -245,6 +273,11 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
     }
 
     private void enqueueOrLockedEnqueue(RoutingContext ctx) {
+        if (evaluateUrlParameterToBeEmptyOrTrue(BULK_PARAM, ctx.request())) {
+            decodedQueueNameOrRespondWithBadRequest(ctx, lastPart(ctx.request().path())).ifPresent(
+                    queue -> new BulkEnqueue(ctx.request(), queue).start());
+            return;
+        }
         decodedQueueNameOrRespondWithBadRequest(ctx, lastPart(ctx.request().path())).ifPresent(
                 queue -> ctx.request().bodyHandler(buffer -> {
                     try {
@@ -265,9 +298,143 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
                 }));
     }
 
+    /**
+     * Streams a newline delimited JSON (NDJSON) request body into bulk enqueue operations of
+     * {@link #BULK_ENQUEUE_CHUNK_SIZE} messages each. The request is paused while a chunk is enqueued, so the
+     * body is never buffered as a whole. A line longer than
+     * {@link RedisquesConfiguration#getHttpRequestHandlerMaxLineSize()} is rejected with status 413.
+     * <p>
+     * With a queue given, each line is a message in the format of a single enqueue. Otherwise each line is an object
+     * holding the queue name in the {@link RedisquesAPI#QUEUENAME} property and the message in the
+     * {@link RedisquesAPI#MESSAGE} property.
+     */
+    private class BulkEnqueue {
+        private final HttpServerRequest request;
+        private final String queue;
+        private final RecordParser parser;
+        private JsonObject chunk = new JsonObject();
+        private int chunkSize;
+        private long lineNumber;
+        private long enqueued;
+        private boolean failed;
+
+        private BulkEnqueue(HttpServerRequest request, String queue) {
+            this.request = request;
+            this.queue = queue;
+            this.parser = RecordParser.newDelimited("\n", request).maxRecordSize(maxLineSize);
+        }
+
+        private void start() {
+            parser.handler(this::handleLine);
+            parser.exceptionHandler(ex -> {
+                if (ex instanceof IllegalStateException) {
+                    fail(StatusCode.PAYLOAD_TOO_LARGE, "Line " + (lineNumber + 1) + " exceeds " + maxLineSize + " bytes");
+                } else {
+                    fail(StatusCode.BAD_REQUEST, ex.getMessage());
+                }
+            });
+            parser.endHandler(v -> sendChunk(true));
+        }
+
+        private void handleLine(Buffer line) {
+            lineNumber++;
+            String lineStr = line.toString().trim();
+            if (failed || lineStr.isEmpty()) {
+                return;
+            }
+            String queueName;
+            String message;
+            try {
+                if (queue != null) {
+                    queueName = queue;
+                    message = encodePayload(lineStr);
+                } else {
+                    JsonObject item = new JsonObject(lineStr);
+                    queueName = item.getString(QUEUENAME);
+                    JsonObject itemMessage = item.getJsonObject(MESSAGE);
+                    if (queueName == null || itemMessage == null) {
+                        fail(StatusCode.BAD_REQUEST, "Line " + lineNumber + " requires the properties '" + QUEUENAME
+                                + "' and '" + MESSAGE + "'");
+                        return;
+                    }
+                    message = encodePayload(itemMessage.encode());
+                }
+            } catch (Exception ex) {
+                fail(StatusCode.BAD_REQUEST, "Invalid line " + lineNumber + ": " + ex.getMessage());
+                return;
+            }
+            JsonArray messages = chunk.getJsonArray(queueName);
+            if (messages == null) {
+                messages = new JsonArray();
+                chunk.put(queueName, messages);
+            }
+            messages.add(message);
+            if (++chunkSize >= BULK_ENQUEUE_CHUNK_SIZE) {
+                sendChunk(false);
+            }
+        }
+
+        private void sendChunk(boolean last) {
+            if (failed) {
+                return;
+            }
+            if (chunkSize == 0) {
+                if (last) {
+                    jsonResponse(request.response(), new JsonObject().put(ENQUEUED, enqueued));
+                }
+                return;
+            }
+            JsonObject operation = buildBulkEnqueueOperation(chunk);
+            chunk = new JsonObject();
+            chunkSize = 0;
+            parser.pause();
+            eventBus.request(redisquesAddress, operation, (Handler<AsyncResult<Message<JsonObject>>>) reply -> {
+                if (reply.failed()) {
+                    log.warn("Received failed message for bulkEnqueueOperation", reply.cause());
+                    fail(StatusCode.INTERNAL_SERVER_ERROR, "Error bulk enqueueing");
+                    return;
+                }
+                JsonObject body = reply.result().body();
+                if (!OK.equals(body.getString(STATUS))) {
+                    if (MEMORY_FULL.equals(body.getString(MESSAGE))) {
+                        fail(StatusCode.INSUFFICIENT_STORAGE, StatusCode.INSUFFICIENT_STORAGE.getStatusMessage());
+                    } else if (BAD_INPUT.equalsIgnoreCase(body.getString(ERROR_TYPE))) {
+                        fail(StatusCode.BAD_REQUEST, body.getString(MESSAGE));
+                    } else {
+                        fail(StatusCode.INTERNAL_SERVER_ERROR, "Error bulk enqueueing");
+                    }
+                    return;
+                }
+                enqueued += body.getLong(VALUE);
+                if (last) {
+                    jsonResponse(request.response(), new JsonObject().put(ENQUEUED, enqueued));
+                } else {
+                    parser.resume();
+                }
+            });
+        }
+
+        private void fail(StatusCode statusCode, String message) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            // the messages of the previous chunks are enqueued anyway
+            respondWith(statusCode, message + ". Enqueued " + enqueued + " messages before", request);
+            if (!request.isEnded()) {
+                // drain the rest of the body without parsing, so an oversized line is not buffered any further
+                request.handler(buffer -> {
+                });
+                request.resume();
+            }
+        }
+    }
+
     private JsonObject buildEnqueueOrLockedEnqueueOperation(String queue, String message, HttpServerRequest request) {
         if (evaluateUrlParameterToBeEmptyOrTrue(LOCKED_PARAM, request)) {
             return buildLockedEnqueueOperation(queue, message, extractUser(request));
+        } else if (request.params().contains(DELIVER_AT_PARAM)) {
+            return buildEnqueueDelayedOperation(queue, message, Long.parseLong(request.getParam(DELIVER_AT_PARAM)));
         } else {
             return buildEnqueueOperation(queue, message);
         }
@@ -713,6 +880,48 @@ public class RedisquesHttpRequestHandler implements Handler<HttpServerRequest> {
         });
     }
 
+    private void listDeadLetters(RoutingContext ctx) {
+        decodedQueueNameOrRespondWithBadRequest(ctx, lastPart(ctx.request().path())).ifPresent(queue -> {
+            String limitParam = ctx.request().params().get(LIMIT);
+            eventBus.request(redisquesAddress, buildGetDeadLettersOperation(queue, limitParam), (Handler<AsyncResult<Message<JsonObject>>>) reply -> {
+                if (reply.failed() || !OK.equals(reply.result().body().getString(STATUS))) {
+                    log.warn("Received failed message for getDeadLettersOperation", reply.cause());
+                    respondWith(StatusCode.INTERNAL_SERVER_ERROR, "Error listing the dead letters of queue " + queue, ctx.request());
+                    return;
+                }
+                jsonResponse(ctx.response(), new JsonObject().put(queue, reply.result().body().getJsonArray(VALUE)));
+            });
+        });
+    }
+
+    private void replayDeadLetters(RoutingContext ctx) {
+        decodedQueueNameOrRespondWithBadRequest(ctx, part(ctx.request().path(), 2)).ifPresent(queue ->
+                eventBus.request(redisquesAddress, buildReplayDeadLettersOperation(queue), (Handler<AsyncResult<Message<JsonObject>>>) reply -> {
+                    if (reply.failed() || !OK.equals(reply.result().body().getString(STATUS))) {
+                        log.warn("Received failed message for replayDeadLettersOperation", reply.cause());
+                        respondWith(StatusCode.INTERNAL_SERVER_ERROR, "Error replaying the dead letters of queue " + queue, ctx.request());
+                        return;
+                    }
+                    jsonResponse(ctx.response(), new JsonObject().put(COUNT, reply.result().body().getInteger(VALUE)));
+                }));
+    }
+
+    private void deleteDeadLetters(RoutingContext ctx) {
+        decodedQueueNameOrRespondWithBadRequest(ctx, lastPart(ctx.request().path())).ifPresent(queue ->
+                eventBus.request(redisquesAddress, buildDeleteDeadLettersOperation(queue), (Handler<AsyncResult<Message<JsonObject>>>) reply -> {
+                    if (reply.failed() || !OK.equals(reply.result().body().getString(STATUS))) {
+                        log.warn("Received failed message for deleteDeadLettersOperation", reply.cause());
+                        respondWith(StatusCode.INTERNAL_SERVER_ERROR, "Error deleting the dead letters of queue " + queue, ctx.request());
+                        return;
+                    }
+                    if (reply.result().body().getLong(VALUE) == 0) {
+                        respondWith(StatusCode.NOT_FOUND, ctx.request());
+                    } else {
+                        respondWith(StatusCode.OK, ctx.request());
+                    }
+                }));
+    }
+
     private void bulkDeleteQueues(RoutingContext ctx) {
         final HttpServerRequest request = ctx.request();
         if (evaluateUrlParameterToBeEmptyOrTrue(BULK_DELETE_PARAM, request)) {
@@ -0,0 +1,31 @@
+package org.swisspush.redisques.lua;
+
+/**
+ * Lua scripts executed by redisques. The script files are located next to this class in the resources.
+ */
+public enum LuaScript {
+    CONSUME("consume.lua"),
+    REGISTER("register.lua"),
+    GET_CONSUMER("getConsumer.lua"),
+    REFRESH_REGISTRATIONS("refreshRegistrations.lua"),
+    CHECK_QUEUES("checkQueues.lua"),
+    CHECK_PARTITIONS("checkPartitions.lua"),
+    RELEASE_LEASE("releaseLease.lua"),
+    ENQUEUE("enqueue.lua"),
+    UNORDERED_TAKE("unorderedTake.lua"),
+    UNORDERED_RELEASE("unorderedRelease.lua"),
+    UNORDERED_RECOVER("unorderedRecover.lua"),
+    DEAD_LETTER("deadLetter.lua"),
+    REPLAY_DEAD_LETTERS("replayDeadLetters.lua"),
+    MOVE_DELAYED("moveDelayed.lua");
+
+    private final String file;
+
+    LuaScript(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,85 @@
+package org.swisspush.redisques.lua;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.redis.client.RedisAPI;
+import io.vertx.redis.client.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.redisques.util.RedisProvider;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes the {@link LuaScript}s with EVALSHA. When redis does not know a script (e.g. after a restart
+ * or a SCRIPT FLUSH), the script is loaded again and the execution is retried once.
+ */
+public class LuaScriptManager {
+
+    private static final Logger log = LoggerFactory.getLogger(LuaScriptManager.class);
+    private static final String NOSCRIPT_ERROR = "NOSCRIPT";
+
+    private final RedisProvider redisProvider;
+    private final Map<LuaScript, LuaScriptState> scripts = new EnumMap<>(LuaScript.class);
+
+    public LuaScriptManager(RedisProvider redisProvider) {
+        this.redisProvider = redisProvider;
+        for (LuaScript luaScript : LuaScript.values()) {
+            scripts.put(luaScript, new LuaScriptState(luaScript));
+        }
+    }
+
+    /**
+     * Loads all scripts into the script cache of redis.
+     *
+     * @return A {@link Future} which completes when all scripts are loaded
+     */
+    public Future<Void> loadScripts() {
+        return redisProvider.redis().compose(redisAPI -> {
+            List<Future> futures = new ArrayList<>(scripts.size());
+            for (LuaScriptState state : scripts.values()) {
+                futures.add(loadScript(redisAPI, state));
+            }
+            return CompositeFuture.all(futures).mapEmpty();
+        });
+    }
+
+    /**
+     * Executes the given script with EVALSHA.
+     *
+     * @param luaScript the script to execute
+     * @param keys      the keys accessed by the script
+     * @param arguments the additional arguments of the script
+     * @return A {@link Future} holding the reply of the script
+     */
+    public Future<Response> evalsha(LuaScript luaScript, List<String> keys, List<String> arguments) {
+        LuaScriptState state = scripts.get(luaScript);
+        return redisProvider.redis().compose(redisAPI -> redisAPI.evalsha(state.evalshaArguments(keys, arguments))
+                .recover(throwable -> {
+                    if (!isNoScriptError(throwable)) {
+                        return Future.failedFuture(throwable);
+                    }
+                    log.info("Lua script '{}' is not known by redis. Load it and try again", luaScript.getFile());
+                    return loadScript(redisAPI, state)
+                            .compose(loaded -> redisAPI.evalsha(state.evalshaArguments(keys, arguments)));
+                }));
+    }
+
+    private Future<Void> loadScript(RedisAPI redisAPI, LuaScriptState state) {
+        return redisAPI.script(List.of("LOAD", state.getContent())).compose(response -> {
+            String sha = response != null ? response.toString() : null;
+            if (!state.getSha().equals(sha)) {
+                log.warn("Lua script '{}' loaded with unexpected sha {}. Expected {}",
+                        state.getLuaScript().getFile(), sha, state.getSha());
+            }
+            return Future.succeededFuture();
+        });
+    }
+
+    private boolean isNoScriptError(Throwable throwable) {
+        return throwable != null && throwable.getMessage() != null && throwable.getMessage().startsWith(NOSCRIPT_ERROR);
+    }
+}
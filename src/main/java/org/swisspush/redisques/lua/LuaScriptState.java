@@ -0,0 +1,61 @@
+package org.swisspush.redisques.lua;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the content and the sha1 digest of a {@link LuaScript}. The digest is calculated locally, so the
+ * script can be executed with EVALSHA without loading it into redis first.
+ */
+class LuaScriptState {
+
+    private final LuaScript luaScript;
+    private final String content;
+    private final String sha;
+
+    LuaScriptState(LuaScript luaScript) {
+        this.luaScript = luaScript;
+        this.content = readScript(luaScript);
+        this.sha = DigestUtils.sha1Hex(content);
+    }
+
+    LuaScript getLuaScript() {
+        return luaScript;
+    }
+
+    String getContent() {
+        return content;
+    }
+
+    String getSha() {
+        return sha;
+    }
+
+    /**
+     * Builds the arguments for the EVALSHA command in the form <code>sha numkeys key [key ...] arg [arg ...]</code>
+     */
+    List<String> evalshaArguments(List<String> keys, List<String> arguments) {
+        List<String> args = new ArrayList<>(2 + keys.size() + arguments.size());
+        args.add(sha);
+        args.add(String.valueOf(keys.size()));
+        args.addAll(keys);
+        args.addAll(arguments);
+        return args;
+    }
+
+    private static String readScript(LuaScript luaScript) {
+        try (InputStream is = LuaScriptState.class.getResourceAsStream(luaScript.getFile())) {
+            if (is == null) {
+                throw new IllegalStateException("Lua script '" + luaScript.getFile() + "' not found");
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read lua script '" + luaScript.getFile() + "'", e);
+        }
+    }
+}
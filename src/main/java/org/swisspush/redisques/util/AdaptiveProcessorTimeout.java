@@ -0,0 +1,76 @@
+package org.swisspush.redisques.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Derives the timeout to wait for the processor from the observed processing latencies of the queues of a queue
+ * configuration with {@link QueueConfiguration#getAdaptiveTimeoutPercentile()}. The timeout is twice the latency
+ * percentile, bounded by the minimum and maximum timeout of the queue configuration. So a hung processor is
+ * detected after a few times the usual latency, while queues which are slow as usual keep a long timeout.
+ * <p>
+ * Until enough latencies are observed, the maximum timeout is used. Deliveries which time out are not observed as
+ * latencies, since they would drive the percentile and with it the timeout up to the maximum. Instead, each
+ * consecutive timeout doubles the timeout, so it grows again when the processor becomes slower. The next reply
+ * in time resets the timeout to the one derived from the latencies.
+ * <p>
+ * Not thread safe. The timeouts must only be used from the context of the verticle.
+ */
+public class AdaptiveProcessorTimeout {
+
+    static final int MIN_SAMPLES = 20;
+    private static final int TIMEOUT_FACTOR = 2;
+    private static final long WINDOW = 1000;
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final Map<String, LatencyHistogram> histograms = new HashMap<>();
+    private final Map<String, Integer> consecutiveTimeouts = new HashMap<>();
+
+    /**
+     * @param processorTimeout the timeout [ms] of the queues without adaptive timeout and the default maximum
+     *                         timeout
+     * @return the timeout [ms] to wait for the processor to process a message of a queue with the given
+     * configuration
+     */
+    public long timeout(QueueConfiguration queueConfiguration, long processorTimeout) {
+        if (!isAdaptive(queueConfiguration)) {
+            return processorTimeout;
+        }
+        long maxTimeout = queueConfiguration.getAdaptiveTimeoutMaxMillis() > 0
+                ? queueConfiguration.getAdaptiveTimeoutMaxMillis() : processorTimeout;
+        LatencyHistogram histogram = histograms.get(queueConfiguration.getPattern());
+        if (histogram == null || histogram.count() < MIN_SAMPLES) {
+            return maxTimeout;
+        }
+        long timeout = Math.max(queueConfiguration.getAdaptiveTimeoutMinMillis(),
+                TIMEOUT_FACTOR * histogram.percentile(queueConfiguration.getAdaptiveTimeoutPercentile()));
+        int timeouts = consecutiveTimeouts.getOrDefault(queueConfiguration.getPattern(), 0);
+        // doubling more often than this exceeds any sensible maximum anyway
+        timeout <<= Math.min(timeouts, MAX_DOUBLINGS);
+        return Math.min(maxTimeout, timeout);
+    }
+
+    /**
+     * Observes the time [ms] the processor took to reply to a message of a queue with the given configuration.
+     */
+    public void observe(QueueConfiguration queueConfiguration, long latencyMs) {
+        if (isAdaptive(queueConfiguration)) {
+            histograms.computeIfAbsent(queueConfiguration.getPattern(), pattern -> new LatencyHistogram(WINDOW))
+                    .record(latencyMs);
+            consecutiveTimeouts.remove(queueConfiguration.getPattern());
+        }
+    }
+
+    /**
+     * Observes that the processor did not reply in time to a message of a queue with the given configuration.
+     */
+    public void observeTimeout(QueueConfiguration queueConfiguration) {
+        if (isAdaptive(queueConfiguration)) {
+            consecutiveTimeouts.merge(queueConfiguration.getPattern(), 1, Integer::sum);
+        }
+    }
+
+    private static boolean isAdaptive(QueueConfiguration queueConfiguration) {
+        return queueConfiguration != null && queueConfiguration.getAdaptiveTimeoutPercentile() > 0;
+    }
+}
@@ -0,0 +1,97 @@
+package org.swisspush.redisques.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Circuit breakers of the queue configurations with {@link QueueConfiguration#getCircuitBreakerThreshold()}. The
+ * queues matching the pattern of such a queue configuration share one circuit breaker. It opens when the given number
+ * of its queues are failing, so the other queues do not wait for the processor timeout one after the other to
+ * find out that the processor is down.
+ * <p>
+ * While open, no queue is allowed to be sent to the processor. After
+ * {@link QueueConfiguration#getCircuitBreakerOpenSeconds()}, a single queue is allowed and the next one only after
+ * the same time again. The first success of a queue closes the circuit breaker.
+ * <p>
+ * Not thread safe. The circuit breakers must only be used from the context of the verticle.
+ */
+public class CircuitBreakers {
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new HashMap<>();
+
+    /**
+     * @return <code>0</code> when the queue may be sent to the processor, otherwise the time [ms] until the circuit
+     * breaker of its queue configuration allows the next queue
+     */
+    public long blockedFor(QueueConfiguration queueConfiguration, long now) {
+        CircuitBreaker circuitBreaker = circuitBreaker(queueConfiguration);
+        if (circuitBreaker == null || !circuitBreaker.open) {
+            return 0;
+        }
+        if (now < circuitBreaker.nextAttempt) {
+            return circuitBreaker.nextAttempt - now;
+        }
+        // half-open, this queue probes the processor
+        circuitBreaker.nextAttempt = now + queueConfiguration.getCircuitBreakerOpenSeconds() * 1000L;
+        return 0;
+    }
+
+    public void success(QueueConfiguration queueConfiguration, String queueName) {
+        CircuitBreaker circuitBreaker = circuitBreaker(queueConfiguration);
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (circuitBreaker.open) {
+            circuitBreaker.open = false;
+            circuitBreaker.failingQueues.clear();
+        } else {
+            circuitBreaker.failingQueues.remove(queueName);
+        }
+    }
+
+    public void failure(QueueConfiguration queueConfiguration, String queueName, long now) {
+        CircuitBreaker circuitBreaker = circuitBreaker(queueConfiguration);
+        if (circuitBreaker == null) {
+            return;
+        }
+        circuitBreaker.failingQueues.add(queueName);
+        if (!circuitBreaker.open && circuitBreaker.failingQueues.size() >= queueConfiguration.getCircuitBreakerThreshold()) {
+            circuitBreaker.open = true;
+            circuitBreaker.nextAttempt = now + queueConfiguration.getCircuitBreakerOpenSeconds() * 1000L;
+        }
+    }
+
+    /**
+     * Forgets a queue which is no longer consumed by this instance, e.g. because it was deleted, found empty or taken
+     * over by another instance. Otherwise it would count as failing queue forever.
+     */
+    public void forget(QueueConfiguration queueConfiguration, String queueName) {
+        CircuitBreaker circuitBreaker = circuitBreaker(queueConfiguration);
+        if (circuitBreaker != null) {
+            circuitBreaker.failingQueues.remove(queueName);
+        }
+    }
+
+    /**
+     * @return <code>true</code> when the circuit breaker of the queue configuration is open
+     */
+    public boolean isOpen(QueueConfiguration queueConfiguration) {
+        CircuitBreaker circuitBreaker = circuitBreaker(queueConfiguration);
+        return circuitBreaker != null && circuitBreaker.open;
+    }
+
+    private CircuitBreaker circuitBreaker(QueueConfiguration queueConfiguration) {
+        if (queueConfiguration == null || queueConfiguration.getCircuitBreakerThreshold() <= 0) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(queueConfiguration.getPattern(), pattern -> new CircuitBreaker());
+    }
+
+    private static class CircuitBreaker {
+        private final Set<String> failingQueues = new HashSet<>();
+        private boolean open;
+        private long nextAttempt;
+    }
+}
@@ -0,0 +1,72 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Future;
+import io.vertx.redis.client.Response;
+import org.swisspush.redisques.lua.LuaScript;
+import org.swisspush.redisques.lua.LuaScriptManager;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Registration of consumers based on a heartbeat key per consumer instance. The consumer keys of the queues
+ * do not expire but are only valid as long as the heartbeat key of the registered consumer exists. This way
+ * a consumer keeps all its registrations alive with a single command per refresh period, regardless of the
+ * number of queues it consumes.
+ * <p>
+ * Not available in redis cluster mode, since the scripts access the consumer and the heartbeat keys which
+ * belong to different hash slots.
+ */
+public class ConsumerHeartbeat {
+
+    private final RedisProvider redisProvider;
+    private final LuaScriptManager luaScriptManager;
+    private final String heartbeatsPrefix;
+    private final String consumersPrefix;
+
+    public ConsumerHeartbeat(RedisProvider redisProvider, LuaScriptManager luaScriptManager,
+                             String heartbeatsPrefix, String consumersPrefix) {
+        this.redisProvider = redisProvider;
+        this.luaScriptManager = luaScriptManager;
+        this.heartbeatsPrefix = heartbeatsPrefix;
+        this.consumersPrefix = consumersPrefix;
+    }
+
+    public String getHeartbeatsPrefix() {
+        return heartbeatsPrefix;
+    }
+
+    /**
+     * Sets the heartbeat key of the given consumer. All registrations of the consumer expire when the heartbeat
+     * is not refreshed within the given time.
+     */
+    public Future<Void> beat(String consumer, int expireSeconds) {
+        return redisProvider.redis().compose(redisAPI -> redisAPI.set(List.of(heartbeatsPrefix + consumer,
+                String.valueOf(System.currentTimeMillis()), "EX", String.valueOf(expireSeconds)))).mapEmpty();
+    }
+
+    /**
+     * Removes the heartbeat key of the given consumer, which releases all its registrations at once.
+     */
+    public Future<Void> remove(String consumer) {
+        return redisProvider.redis().compose(redisAPI -> redisAPI.del(List.of(heartbeatsPrefix + consumer))).mapEmpty();
+    }
+
+    /**
+     * @return the registered consumer of the queue or <code>null</code> when no living consumer is registered
+     */
+    public Future<String> getConsumer(String queueName) {
+        return luaScriptManager.evalsha(LuaScript.GET_CONSUMER, List.of(consumersPrefix + queueName),
+                List.of(heartbeatsPrefix)).map(response -> Objects.toString(response, null));
+    }
+
+    /**
+     * Registers the given consumer for the queue, unless a living consumer is already registered.
+     *
+     * @return the registered consumer of the queue, which is the given consumer when the registration succeeded
+     */
+    public Future<String> register(String queueName, String consumer) {
+        return luaScriptManager.evalsha(LuaScript.REGISTER, List.of(consumersPrefix + queueName),
+                List.of(consumer, heartbeatsPrefix)).map(Response::toString);
+    }
+}
@@ -0,0 +1,77 @@
+package org.swisspush.redisques.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded local cache of the registered consumer per queue, so notifications can be routed without looking up the
+ * consumer key in redis. The least recently used entries are evicted when the cache is full, and each entry
+ * expires after the given time to live.
+ * <p>
+ * Only registered consumers are cached. A queue without consumer always goes to redis, since a peer may just
+ * have registered for it. An entry may be stale for at most its time to live. A notification sent to a former
+ * consumer is not lost, since the former consumer finds out that it is not the owner anymore and notifies the
+ * current one.
+ * <p>
+ * Not thread safe. The cache must only be used from the context of the verticle.
+ */
+public class ConsumerLocationCache {
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public ConsumerLocationCache(int maxSize, long ttlMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached consumer of the queue or <code>null</code> when there is no valid entry
+     */
+    public String get(String queueName) {
+        Entry entry = entries.get(queueName);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.created > ttlNanos) {
+            entries.remove(queueName);
+            return null;
+        }
+        return entry.consumer;
+    }
+
+    /**
+     * Caches the consumer of the queue. A <code>null</code> consumer invalidates the entry of the queue.
+     */
+    public void put(String queueName, String consumer) {
+        if (consumer == null) {
+            entries.remove(queueName);
+        } else {
+            entries.put(queueName, new Entry(consumer, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(String queueName) {
+        entries.remove(queueName);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final String consumer;
+        private final long created;
+
+        private Entry(String consumer, long created) {
+            this.consumer = consumer;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Suppresses redundant notifications of the consumer of a queue. A notification is sent as request, and while it
+ * is not acknowledged by the consumer, further notifications of the same consumer for the same queue are suppressed.
+ * When the acknowledgement arrives and notifications have been suppressed in the meantime, a single follow-up
+ * notification is sent. So at most one notification per queue is in flight and none gets lost.
+ * <p>
+ * All consumers must acknowledge the notifications, otherwise the follow-up notifications are delayed until the
+ * acknowledgement times out.
+ * <p>
+ * Not thread safe. The notifier must only be used from the context of the verticle.
+ */
+public class ConsumerNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerNotifier.class);
+
+    private final Vertx vertx;
+    private final DeliveryOptions options;
+    private final QueueStatisticsCollector queueStatisticsCollector;
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+
+    /**
+     * @param ackTimeoutMs the time [ms] to wait for the acknowledgement of a notification
+     */
+    public ConsumerNotifier(Vertx vertx, long ackTimeoutMs, QueueStatisticsCollector queueStatisticsCollector) {
+        this.vertx = vertx;
+        this.options = new DeliveryOptions().setSendTimeout(ackTimeoutMs);
+        this.queueStatisticsCollector = queueStatisticsCollector;
+    }
+
+    /**
+     * Notifies the consumer to consume the queue unless a notification of the same consumer for the queue is
+     * already in flight.
+     */
+    public void notify(String queueName, String consumer) {
+        InFlight current = inFlight.get(queueName);
+        if (current != null && current.consumer.equals(consumer)) {
+            log.trace("RedisQues Notification of consumer {} for queue {} suppressed", consumer, queueName);
+            current.suppressed = true;
+            queueStatisticsCollector.notificationSuppressed();
+            return;
+        }
+        InFlight notification = new InFlight(consumer);
+        inFlight.put(queueName, notification);
+        queueStatisticsCollector.notificationSent();
+        vertx.eventBus().request(consumer, queueName, options, reply -> {
+            if (inFlight.get(queueName) == notification) {
+                inFlight.remove(queueName);
+            }
+            if (!notification.suppressed) {
+                return;
+            }
+            if (reply.succeeded()) {
+                notify(queueName, consumer);
+            } else {
+                // the consumer may be gone, so do not wait for an acknowledgement again
+                log.debug("RedisQues Notification of consumer {} for queue {} not acknowledged", consumer, queueName,
+                        reply.cause());
+                vertx.eventBus().send(consumer, queueName);
+            }
+        });
+    }
+
+    /**
+     * @return the number of notifications waiting for their acknowledgement
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static class InFlight {
+        private final String consumer;
+        private boolean suppressed;
+
+        private InFlight(String consumer) {
+            this.consumer = consumer;
+        }
+    }
+}
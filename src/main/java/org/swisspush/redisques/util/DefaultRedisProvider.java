@@ -6,7 +6,6 @@ import io.vertx.core.Vertx;
 import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.RedisAPI;
 import io.vertx.redis.client.RedisClientType;
-import io.vertx.redis.client.RedisConnection;
 import io.vertx.redis.client.RedisOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,18 +17,22 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Default implementation for a Provider for {@link RedisAPI}
+ * <p>
+ * Thread safe, so a provider can be shared by the instances of a deployment running on different event loops. A
+ * client replaced by a reconnect is closed after {@link #CLOSE_DELAY_MS}, so commands of other instances still
+ * using it are not failed.
  *
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
 public class DefaultRedisProvider implements RedisProvider {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultRedisProvider.class);
+    static final long CLOSE_DELAY_MS = 30_000;
     private final Vertx vertx;
     private RedisquesConfigurationProvider configurationProvider;
-    private RedisAPI redisAPI;
-    private Redis redis;
+    private volatile RedisAPI redisAPI;
+    private volatile Redis redis;
     private final AtomicBoolean connecting = new AtomicBoolean();
-    private RedisConnection client;
 
     private final AtomicReference<Promise<RedisAPI>> connectPromiseRef = new AtomicReference<>();
 
@@ -83,38 +86,18 @@ public class DefaultRedisProvider implements RedisProvider {
 
     private Future<RedisAPI> connectToRedis() {
         RedisquesConfiguration config = configurationProvider.configuration();
-        String redisAuth = config.getRedisAuth();
-        int redisMaxPoolSize = config.getMaxPoolSize();
-        int redisMaxPoolWaitingSize = config.getMaxPoolWaitSize();
-        int redisMaxPipelineWaitingSize = config.getMaxPipelineWaitSize();
-        int redisPoolRecycleTimeoutMs = config.getRedisPoolRecycleTimeoutMs();
 
         Promise<RedisAPI> promise = Promise.promise();
 
-        // make sure to invalidate old connection if present
-        if (redis != null) {
-            redis.close();
-        }
-
         if (connecting.compareAndSet(false, true)) {
-            RedisOptions redisOptions = new RedisOptions()
-                    .setPassword((redisAuth == null ? "" : redisAuth))
-                    .setMaxPoolSize(redisMaxPoolSize)
-                    .setMaxPoolWaiting(redisMaxPoolWaitingSize)
-                    .setPoolRecycleTimeout(redisPoolRecycleTimeoutMs)
-                    .setMaxWaitingHandlers(redisMaxPipelineWaitingSize)
-                    .setType(config.getRedisClientType());
+            Redis previous = redis;
+            Redis created = Redis.createClient(vertx, createRedisOptions(config));
 
-            createConnectStrings().forEach(redisOptions::addConnectionString);
-
-            redis = Redis.createClient(vertx, redisOptions);
-
-            redis.connect().onSuccess(conn -> {
+            created.connect().onSuccess(conn -> {
                 log.info("Successfully connected to redis");
-                client = conn;
 
                 if (config.getRedisClientType() == RedisClientType.STANDALONE) {
-                    client.close();
+                    conn.close();
                 }
 
                 // make sure the client is reconnected on error
@@ -135,10 +118,14 @@ public class DefaultRedisProvider implements RedisProvider {
                 }
 
                 // allow further processing
-                redisAPI = RedisAPI.api(conn);
-                promise.complete(redisAPI);
+                RedisAPI api = RedisAPI.api(conn);
+                redis = created;
+                redisAPI = api;
+                closeLater(previous);
+                promise.complete(api);
                 connecting.set(false);
             }).onFailure(t -> {
+                created.close();
                 promise.fail(t);
                 connecting.set(false);
             });
@@ -149,8 +136,34 @@ public class DefaultRedisProvider implements RedisProvider {
         return promise.future();
     }
 
-    private List<String> createConnectStrings() {
-        RedisquesConfiguration config = configurationProvider.configuration();
+    /**
+     * Closes the replaced client once the commands sent by other instances before the replacement are done.
+     */
+    private void closeLater(Redis previous) {
+        if (previous != null) {
+            vertx.setTimer(CLOSE_DELAY_MS, timer -> previous.close());
+        }
+    }
+
+    /**
+     * Creates the {@link RedisOptions} for the given configuration. Also used for clients needing a dedicated
+     * connection like the wakeup channel subscriber.
+     */
+    static RedisOptions createRedisOptions(RedisquesConfiguration config) {
+        String redisAuth = config.getRedisAuth();
+        RedisOptions redisOptions = new RedisOptions()
+                .setPassword((redisAuth == null ? "" : redisAuth))
+                .setMaxPoolSize(config.getMaxPoolSize())
+                .setMaxPoolWaiting(config.getMaxPoolWaitSize())
+                .setPoolRecycleTimeout(config.getRedisPoolRecycleTimeoutMs())
+                .setMaxWaitingHandlers(config.getMaxPipelineWaitSize())
+                .setType(config.getRedisClientType());
+
+        createConnectStrings(config).forEach(redisOptions::addConnectionString);
+        return redisOptions;
+    }
+
+    private static List<String> createConnectStrings(RedisquesConfiguration config) {
         String redisPassword = config.getRedisPassword();
         String redisUser = config.getRedisUser();
         StringBuilder connectionStringPrefixBuilder = new StringBuilder();
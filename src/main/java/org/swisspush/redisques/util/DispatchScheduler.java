@@ -0,0 +1,113 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Handler;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Limits the number of messages being processed at the same time. When the limit is reached, the queues wait for a
+ * free slot. The waiting queues of the highest priority are served first. Queues of the same priority get the slots
+ * in weighted round-robin order: a queue with weight n is dispatched up to n times in a row before the next waiting
+ * queue gets its turn. So a few busy queues cannot starve the others of their priority.
+ * <p>
+ * Not thread safe. The scheduler must only be used from the context of the verticle.
+ */
+public class DispatchScheduler {
+
+    private final int maxInFlight;
+    // the waiting queues per priority, highest priority first
+    private final TreeMap<Integer, Deque<Waiting>> waiting = new TreeMap<>(Comparator.reverseOrder());
+    // the dispatches left in the current turn of queues with a weight greater than 1
+    private final Map<String, Integer> credits = new HashMap<>();
+    private int inFlight;
+    private int waitingCount;
+
+    public DispatchScheduler(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Calls the handler as soon as the queue may dispatch a message. The dispatch must be ended with
+     * {@link #release()}.
+     *
+     * @param priority the queues with a higher priority are dispatched first
+     * @param weight the number of dispatches of the queue per turn
+     */
+    public void dispatch(String queueName, int priority, int weight, Handler<Void> handler) {
+        Waiting queue = new Waiting(queueName, weight, handler);
+        if (inFlight < maxInFlight && waitingCount == 0) {
+            start(queue);
+            return;
+        }
+        Deque<Waiting> queues = waiting.computeIfAbsent(priority, p -> new ArrayDeque<>());
+        if (credits.containsKey(queueName)) {
+            // continue its turn
+            queues.addFirst(queue);
+        } else {
+            queues.addLast(queue);
+        }
+        waitingCount++;
+    }
+
+    /**
+     * Ends a dispatch and starts the next waiting one.
+     */
+    public void release() {
+        inFlight--;
+        while (inFlight < maxInFlight && waitingCount > 0) {
+            Map.Entry<Integer, Deque<Waiting>> highest = waiting.firstEntry();
+            Waiting queue = highest.getValue().pollFirst();
+            if (highest.getValue().isEmpty()) {
+                waiting.remove(highest.getKey());
+            }
+            waitingCount--;
+            start(queue);
+        }
+        if (waitingCount == 0) {
+            // the turns only matter while queues are waiting
+            credits.clear();
+        }
+    }
+
+    /**
+     * @return the number of messages being processed
+     */
+    public int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of queues waiting for a free slot
+     */
+    public int waiting() {
+        return waitingCount;
+    }
+
+    private void start(Waiting queue) {
+        inFlight++;
+        int credit = credits.getOrDefault(queue.queueName, queue.weight) - 1;
+        if (credit > 0) {
+            credits.put(queue.queueName, credit);
+        } else {
+            credits.remove(queue.queueName);
+        }
+        queue.handler.handle(null);
+    }
+
+    private static class Waiting {
+        private final String queueName;
+        private final int weight;
+        private final Handler<Void> handler;
+
+        private Waiting(String queueName, int weight, Handler<Void> handler) {
+            this.queueName = queueName;
+            this.weight = weight;
+            this.handler = handler;
+        }
+    }
+}
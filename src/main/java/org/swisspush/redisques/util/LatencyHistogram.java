@@ -0,0 +1,82 @@
+package org.swisspush.redisques.util;
+
+/**
+ * Histogram of latencies [ms] with exponentially growing buckets, each about 19% wider than the previous one.
+ * So the percentiles are estimated with an error of at most one bucket width, whatever the magnitude of the
+ * latencies.
+ * <p>
+ * The counts are halved whenever the histogram holds the given number of samples, so the recent latencies
+ * dominate the percentiles.
+ * <p>
+ * Not thread safe.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int BUCKETS = 32 * BUCKETS_PER_DOUBLING;
+    private static final long[] UPPER_BOUNDS = new long[BUCKETS];
+
+    static {
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER_BOUNDS[i] = (long) Math.ceil(Math.pow(2, (double) i / BUCKETS_PER_DOUBLING));
+        }
+    }
+
+    private final long[] counts = new long[BUCKETS];
+    private final long window;
+    private long count;
+
+    /**
+     * @param window the number of samples after which the counts are halved
+     */
+    public LatencyHistogram(long window) {
+        this.window = window;
+    }
+
+    public void record(long latencyMs) {
+        counts[bucket(latencyMs)]++;
+        count++;
+        if (count >= window) {
+            count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] /= 2;
+                count += counts[i];
+            }
+        }
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound [ms] of the bucket containing the percentile or 0 when there are no samples
+     */
+    public long percentile(double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen > 0 && seen >= rank) {
+                return UPPER_BOUNDS[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of samples
+     */
+    public long count() {
+        return count;
+    }
+
+    private static int bucket(long latencyMs) {
+        if (latencyMs <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(latencyMs) / Math.log(2) * BUCKETS_PER_DOUBLING);
+        // the rounded bound may be just below the latency
+        while (bucket < BUCKETS - 1 && UPPER_BOUNDS[bucket] < latencyMs) {
+            bucket++;
+        }
+        return Math.min(bucket, BUCKETS - 1);
+    }
+}
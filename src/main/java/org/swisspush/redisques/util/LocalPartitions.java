@@ -0,0 +1,92 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Partitions the queues among the instances of a RedisQues deployment within one vertx instance (deployed with
+ * {@link io.vertx.core.DeploymentOptions#setInstances(int)}). Each instance runs on its own event loop, claims a
+ * partition when started and only registers for the queues of its partition. The instances share the redis
+ * provider, the statistics and the memory usage provider.
+ * <p>
+ * The partitions are kept in a local map of vertx per deployment and removed when the last instance is released.
+ */
+public class LocalPartitions implements Shareable {
+
+    private static final String MAP_NAME = "redisques.partitions";
+
+    private final int partitions;
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger released = new AtomicInteger();
+    private RedisProvider redisProvider;
+    private QueueStatisticsCollector queueStatisticsCollector;
+    private MemoryUsageProvider memoryUsageProvider;
+
+    private LocalPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * @return the partitions of the given deployment, created for the given number of instances on first access
+     */
+    public static LocalPartitions of(Vertx vertx, String deploymentId, int instances) {
+        LocalMap<String, LocalPartitions> map = vertx.sharedData().getLocalMap(MAP_NAME);
+        LocalPartitions partitions = new LocalPartitions(instances);
+        LocalPartitions existing = map.putIfAbsent(deploymentId, partitions);
+        return existing != null ? existing : partitions;
+    }
+
+    /**
+     * @return the partition of the queue
+     */
+    public static int partitionOf(String queueName, int partitions) {
+        return Math.floorMod(queueName.hashCode(), partitions);
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return the partition of the calling instance
+     */
+    public int claim() {
+        return claimed.getAndIncrement() % partitions;
+    }
+
+    /**
+     * Releases the partition of the calling instance. The partitions of the deployment are removed once all
+     * instances are released.
+     */
+    public void release(Vertx vertx, String deploymentId) {
+        if (released.incrementAndGet() == partitions) {
+            LocalMap<String, LocalPartitions> map = vertx.sharedData().getLocalMap(MAP_NAME);
+            map.remove(deploymentId, this);
+        }
+    }
+
+    public synchronized RedisProvider redisProvider(Supplier<RedisProvider> factory) {
+        if (redisProvider == null) {
+            redisProvider = factory.get();
+        }
+        return redisProvider;
+    }
+
+    public synchronized QueueStatisticsCollector queueStatisticsCollector(Supplier<QueueStatisticsCollector> factory) {
+        if (queueStatisticsCollector == null) {
+            queueStatisticsCollector = factory.get();
+        }
+        return queueStatisticsCollector;
+    }
+
+    public synchronized MemoryUsageProvider memoryUsageProvider(Supplier<MemoryUsageProvider> factory) {
+        if (memoryUsageProvider == null) {
+            memoryUsageProvider = factory.get();
+        }
+        return memoryUsageProvider;
+    }
+}
@@ -0,0 +1,96 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * The reply of the processor to one or more messages of a queue. Besides the number of successfully processed
+ * leading messages, the processor may tell how the first failed message is to be retried:
+ * <ul>
+ *     <li>{@link RedisquesAPI#RETRY_AFTER} the number of seconds to wait before the message is retried, overriding
+ *     the retry intervals of the queue configuration. Use 0 to retry immediately</li>
+ *     <li>{@link RedisquesAPI#PERMANENT_FAILURE} <code>true</code> when the message will never be processed
+ *     successfully. The message is moved to the dead letters and the queue continues with the next message</li>
+ * </ul>
+ * Immutable.
+ */
+public class ProcessorReply {
+
+    private final int processed;
+    private final Integer retryAfter;
+    private final boolean permanentFailure;
+    private final boolean attempted;
+
+    private ProcessorReply(int processed, Integer retryAfter, boolean permanentFailure, boolean attempted) {
+        this.processed = processed;
+        this.retryAfter = retryAfter;
+        this.permanentFailure = permanentFailure;
+        this.attempted = attempted;
+    }
+
+    /**
+     * @return a reply without hints for a processor which did not reply in time
+     */
+    public static ProcessorReply failed() {
+        return new ProcessorReply(0, null, false, true);
+    }
+
+    /**
+     * @return a reply for messages which were not sent to the processor and are to be retried after the given
+     * seconds
+     */
+    public static ProcessorReply notAttempted(int retryAfter) {
+        return new ProcessorReply(0, retryAfter, false, false);
+    }
+
+    /**
+     * @param body     the body of the reply of the processor
+     * @param messages the number of messages sent to the processor
+     */
+    public static ProcessorReply of(JsonObject body, int messages) {
+        int processed;
+        Object count = body.getValue(COUNT);
+        if (count instanceof Number) {
+            processed = Math.max(0, Math.min(((Number) count).intValue(), messages));
+        } else {
+            processed = OK.equals(body.getString(STATUS)) ? messages : 0;
+        }
+        Integer retryAfter = null;
+        Object retryAfterValue = body.getValue(RETRY_AFTER);
+        if (retryAfterValue instanceof Number && ((Number) retryAfterValue).intValue() >= 0) {
+            retryAfter = ((Number) retryAfterValue).intValue();
+        }
+        return new ProcessorReply(processed, retryAfter, Boolean.TRUE.equals(body.getValue(PERMANENT_FAILURE)), true);
+    }
+
+    /**
+     * @return the number of successfully processed leading messages
+     */
+    public int getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @return the seconds to wait before the first failed message is retried or <code>null</code> to use the retry
+     * intervals of the queue configuration
+     */
+    public Integer getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return <code>true</code> when the first failed message is to be removed from the queue instead of retried
+     */
+    public boolean isPermanentFailure() {
+        return permanentFailure;
+    }
+
+    /**
+     * @return <code>false</code> when the messages were not sent to the processor, so their failure does not count
+     * as attempt
+     */
+    public boolean isAttempted() {
+        return attempted;
+    }
+}
@@ -2,6 +2,7 @@ package org.swisspush.redisques.util;
 
 import io.vertx.core.Vertx;
 import org.slf4j.Logger;
+import org.swisspush.redisques.lua.LuaScriptManager;
 import org.swisspush.redisques.action.*;
 
 import java.util.List;
@@ -20,6 +21,17 @@ public class QueueActionFactory {
     private final QueueStatisticsCollector queueStatisticsCollector;
     private final int memoryUsageLimitPercent;
     private final MemoryUsageProvider memoryUsageProvider;
+    private final String wakeupChannel;
+    private final ConsumerHeartbeat consumerHeartbeat;
+    private final RedisQuesTimer timer;
+    private final LuaScriptManager luaScriptManager;
+    private final ConsumerLocationCache consumerLocationCache;
+    private final QueueTimestampCoalescer timestampCoalescer;
+    private final ConsumerNotifier consumerNotifier;
+    private final QueueConfigurationResolver queueConfigurationResolver;
+    private final String deadLettersPrefix;
+    private final String delayedPrefix;
+    private final int delayedShards;
 
     private final RedisquesConfigurationProvider configurationProvider;
 
@@ -27,6 +39,36 @@ public class QueueActionFactory {
                               String queuesKey, String queuesPrefix, String consumersPrefix,
                               String locksKey, QueueStatisticsCollector queueStatisticsCollector, MemoryUsageProvider memoryUsageProvider,
                               RedisquesConfigurationProvider configurationProvider) {
+        this(redisProvider, vertx, log, queuesKey, queuesPrefix, consumersPrefix, locksKey, queueStatisticsCollector,
+                memoryUsageProvider, configurationProvider, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @param wakeupChannel the redis pub/sub channel to publish the enqueued queue names to or <code>null</code>
+     *                      when the wakeup channel is disabled
+     * @param consumerHeartbeat used to look up the living consumer of a queue or <code>null</code> when the
+     *                          consumer registrations expire by themselves
+     * @param timer used to delay the replies of slowed down enqueues or <code>null</code> to use a vertx timer
+     *              per delayed reply
+     * @param luaScriptManager used to enqueue with a single script or <code>null</code> to enqueue with
+     *                         separate commands (e.g. in redis cluster mode)
+     * @param consumerLocationCache caches the consumers looked up to notify or <code>null</code> to look up the
+     *                              consumer in redis for each notification
+     * @param timestampCoalescer coalesces the timestamp updates of the queues or <code>null</code> to update the
+     *                           timestamp with each enqueue
+     * @param consumerNotifier suppresses redundant notifications of the consumers or <code>null</code> to send
+     *                         each notification
+     * @param queueConfigurationResolver caches the queue configuration per queue name or <code>null</code> to match
+     *                                   the patterns with each lookup
+     */
+    public QueueActionFactory(RedisProvider redisProvider, Vertx vertx, Logger log,
+                              String queuesKey, String queuesPrefix, String consumersPrefix,
+                              String locksKey, QueueStatisticsCollector queueStatisticsCollector, MemoryUsageProvider memoryUsageProvider,
+                              RedisquesConfigurationProvider configurationProvider, String wakeupChannel,
+                              ConsumerHeartbeat consumerHeartbeat, RedisQuesTimer timer,
+                              LuaScriptManager luaScriptManager, ConsumerLocationCache consumerLocationCache,
+                              QueueTimestampCoalescer timestampCoalescer, ConsumerNotifier consumerNotifier,
+                              QueueConfigurationResolver queueConfigurationResolver) {
         this.redisProvider = redisProvider;
         this.vertx = vertx;
         this.log = log;
@@ -37,10 +79,21 @@ public class QueueActionFactory {
         this.queueStatisticsCollector = queueStatisticsCollector;
         this.memoryUsageProvider = memoryUsageProvider;
         this.configurationProvider = configurationProvider;
+        this.wakeupChannel = wakeupChannel;
+        this.consumerHeartbeat = consumerHeartbeat;
+        this.timer = timer;
+        this.luaScriptManager = luaScriptManager;
+        this.consumerLocationCache = consumerLocationCache;
+        this.timestampCoalescer = timestampCoalescer;
+        this.consumerNotifier = consumerNotifier;
+        this.queueConfigurationResolver = queueConfigurationResolver;
 
         this.address = configurationProvider.configuration().getAddress();
         this.queueConfigurations = configurationProvider.configuration().getQueueConfigurations();
         this.memoryUsageLimitPercent = configurationProvider.configuration().getMemoryUsageLimitPercent();
+        this.deadLettersPrefix = configurationProvider.configuration().getRedisPrefix() + "deadletter:";
+        this.delayedPrefix = configurationProvider.configuration().getRedisPrefix() + "delayed:";
+        this.delayedShards = configurationProvider.configuration().getDelayedShards();
     }
 
     public QueueAction buildQueueAction(RedisquesAPI.QueueOperation queueOperation){
@@ -81,11 +134,24 @@ public class QueueActionFactory {
             case enqueue:
                 return new EnqueueAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, memoryUsageProvider,
-                        memoryUsageLimitPercent);
+                        memoryUsageLimitPercent, wakeupChannel, consumerHeartbeat, timer, luaScriptManager,
+                        consumerLocationCache, timestampCoalescer, consumerNotifier, queueConfigurationResolver);
             case lockedEnqueue:
                 return new LockedEnqueueAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, memoryUsageProvider,
-                        memoryUsageLimitPercent);
+                        memoryUsageLimitPercent, wakeupChannel, consumerHeartbeat, timer, luaScriptManager,
+                        consumerLocationCache, timestampCoalescer, consumerNotifier, queueConfigurationResolver);
+            case bulkEnqueue:
+                return new BulkEnqueueAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, memoryUsageProvider,
+                        memoryUsageLimitPercent, wakeupChannel, consumerHeartbeat, timer, luaScriptManager,
+                        consumerLocationCache, timestampCoalescer, consumerNotifier, queueConfigurationResolver);
+            case enqueueDelayed:
+                return new EnqueueDelayedAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, memoryUsageProvider,
+                        memoryUsageLimitPercent, wakeupChannel, consumerHeartbeat, timer, luaScriptManager,
+                        consumerLocationCache, timestampCoalescer, consumerNotifier, queueConfigurationResolver,
+                        delayedPrefix, delayedShards);
             case getLock:
                 return new GetLockAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
@@ -100,7 +166,8 @@ public class QueueActionFactory {
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
             case deleteLock:
                 return new DeleteLockAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
-                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, consumerHeartbeat,
+                        consumerLocationCache, consumerNotifier);
             case bulkDeleteLocks:
                 return new BulkDeleteLocksAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
@@ -113,6 +180,22 @@ public class QueueActionFactory {
             case getQueuesStatistics:
                 return new GetQueuesStatisticsAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
                         consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
+            case getNotificationStatistics:
+                return new GetNotificationStatisticsAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
+            case getDispatchStatistics:
+                return new GetDispatchStatisticsAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log);
+            case getDeadLetters:
+                return new GetDeadLettersAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, deadLettersPrefix);
+            case replayDeadLetters:
+                return new ReplayDeadLettersAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, consumerHeartbeat,
+                        consumerLocationCache, consumerNotifier, deadLettersPrefix, luaScriptManager);
+            case deleteDeadLetters:
+                return new DeleteDeadLettersAction(vertx, redisProvider, address, queuesKey, queuesPrefix,
+                        consumersPrefix, locksKey, queueConfigurations, queueStatisticsCollector, log, deadLettersPrefix);
             case setConfiguration:
                 return new SetConfigurationAction(configurationProvider, log);
             case getConfiguration:
@@ -37,6 +37,126 @@ public class QueueConfiguration {
      */
     private int enqueueMaxDelayMillis = 0;
 
+    /**
+     * DE-queuing can read multiple queue items from redis at once. The items are still sent to the processor one
+     * after the other, but the successfully processed items are removed from the queue together. For queues which
+     * are not {@link #ordered}, this is the number of items an instance sends to the processor at the same time.
+     *
+     * Only used when the consume step is executed as lua script (not in redis cluster mode). Requires Redis 6.2 or
+     * newer.
+     *
+     * default "1" means: no prefetching
+     */
+    private int prefetchCount = 1;
+
+    /**
+     * When set, the prefetched queue items ({@link #prefetchCount}) are sent to the processor in one request
+     * containing a "payloads" array instead of a single "payload". The processor replies with the "count" of
+     * successfully processed leading items. Those are removed from the queue and processing continues with the
+     * first failed item after the retry interval.
+     *
+     * default "false" means: every queue item is sent in its own request
+     */
+    private boolean batchProcessing = false;
+
+    /**
+     * When the number of messages processed at the same time is limited ({@link RedisquesConfiguration#getMaxInFlight()}),
+     * a queue is dispatched up to this number of times in a row when it is its turn.
+     *
+     * default "1" means: the waiting queues are dispatched in plain round-robin order
+     */
+    private int dispatchWeight = 1;
+
+    /**
+     * When the number of messages processed at the same time is limited ({@link RedisquesConfiguration#getMaxInFlight()}),
+     * the waiting queues with a higher priority are dispatched first.
+     *
+     * default "0" means: lowest priority
+     */
+    private int priority = 0;
+
+    /**
+     * The timeout to wait for the processor is derived from this percentile of the observed processing latencies
+     * of the queues. It is twice the percentile, bounded by {@link #adaptiveTimeoutMinMillis} and
+     * {@link #adaptiveTimeoutMaxMillis}.
+     *
+     * default "0" means: the processor timeout of the module configuration is used
+     */
+    private float adaptiveTimeoutPercentile = 0f;
+
+    /**
+     * The lower bound of the adaptive timeout ({@link #adaptiveTimeoutPercentile}).
+     */
+    private int adaptiveTimeoutMinMillis = 1000;
+
+    /**
+     * The upper bound of the adaptive timeout ({@link #adaptiveTimeoutPercentile}), also used until enough
+     * latencies are observed.
+     *
+     * default "0" means: the processor timeout of the module configuration
+     */
+    private int adaptiveTimeoutMaxMillis = 0;
+
+    /**
+     * When the {@link #retryIntervals} are exhausted, the last retry interval is doubled with each further failed
+     * de-queue up to this number of seconds.
+     *
+     * default "0" means: the last retry interval is repeated
+     */
+    private int retryBackoffMaxSeconds = 0;
+
+    /**
+     * The retry interval of a failed de-queue is shortened by a random part of up to this fraction of the interval.
+     * So the queues failing at the same time do not retry at the same time.
+     *
+     * default "0" means: the queues are retried exactly after the retry interval
+     */
+    private float retryJitter = 0f;
+
+    /**
+     * When this number of queues matching the pattern are failing, the circuit breaker of the pattern opens and
+     * its queues are not sent to the processor for {@link #circuitBreakerOpenSeconds}. Then a single queue is
+     * sent to the processor and its success closes the circuit breaker again.
+     *
+     * default "0" means: no circuit breaker
+     */
+    private int circuitBreakerThreshold = 0;
+
+    /**
+     * The seconds the circuit breaker ({@link #circuitBreakerThreshold}) stays open before the next queue is sent
+     * to the processor.
+     */
+    private int circuitBreakerOpenSeconds = 10;
+
+    /**
+     * A queue item which failed to be processed this number of times in a row is moved to the dead letters of its
+     * queue, so the following items of the queue are not blocked by it.
+     *
+     * default "0" means: the queue item is retried until it is processed
+     */
+    private int maxAttempts = 0;
+
+    /**
+     * When not set, the queue is consumed without registration by any number of instances at the same time. Each
+     * instance moves up to {@link #prefetchCount} items of the queue into its own processing list and sends them to
+     * the processor at the same time. The items of a processing list whose instance did not renew its lease within
+     * {@link #visibilityTimeoutSeconds} (e.g. because it crashed) are moved back to the queue.
+     *
+     * Only used when the consume step is executed as lua script (not in redis cluster mode). Requires Redis 6.2 or
+     * newer.
+     *
+     * default "true" means: one item after the other, by a single registered consumer
+     */
+    private boolean ordered = true;
+
+    /**
+     * The seconds the items of a queue which is not {@link #ordered} stay invisible to the other instances while
+     * being processed. Must be longer than the processor timeout, otherwise an item still being processed may be
+     * processed by another instance once more. The leases are renewed every refresh period, so it must be longer
+     * than the refresh period as well.
+     */
+    private int visibilityTimeoutSeconds = 300;
+
     public String getPattern() {
         return pattern.pattern();
     }
@@ -63,6 +183,62 @@ public class QueueConfiguration {
         return enqueueMaxDelayMillis;
     }
 
+    public int getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public boolean isBatchProcessing() {
+        return batchProcessing;
+    }
+
+    public int getDispatchWeight() {
+        return dispatchWeight;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public float getAdaptiveTimeoutPercentile() {
+        return adaptiveTimeoutPercentile;
+    }
+
+    public int getAdaptiveTimeoutMinMillis() {
+        return adaptiveTimeoutMinMillis;
+    }
+
+    public int getAdaptiveTimeoutMaxMillis() {
+        return adaptiveTimeoutMaxMillis;
+    }
+
+    public int getRetryBackoffMaxSeconds() {
+        return retryBackoffMaxSeconds;
+    }
+
+    public float getRetryJitter() {
+        return retryJitter;
+    }
+
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    public int getCircuitBreakerOpenSeconds() {
+        return circuitBreakerOpenSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public int getVisibilityTimeoutSeconds() {
+        return visibilityTimeoutSeconds;
+    }
+
     public JsonObject asJsonObject() {
         return JsonObject.mapFrom(this);
     }
@@ -102,4 +278,110 @@ public class QueueConfiguration {
         this.enqueueMaxDelayMillis = enqueueMaxDelayMillis;
         return this;
     }
+
+    public QueueConfiguration withPrefetchCount(int prefetchCount) {
+        if (prefetchCount < 1) {
+            throw new IllegalArgumentException("prefetchCount must be >=1 but is " + prefetchCount);
+        }
+        this.prefetchCount = prefetchCount;
+        return this;
+    }
+
+    public QueueConfiguration withBatchProcessing(boolean batchProcessing) {
+        this.batchProcessing = batchProcessing;
+        return this;
+    }
+
+    public QueueConfiguration withDispatchWeight(int dispatchWeight) {
+        if (dispatchWeight < 1) {
+            throw new IllegalArgumentException("dispatchWeight must be >=1 but is " + dispatchWeight);
+        }
+        this.dispatchWeight = dispatchWeight;
+        return this;
+    }
+
+    public QueueConfiguration withPriority(int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("priority must be >=0 but is " + priority);
+        }
+        this.priority = priority;
+        return this;
+    }
+
+    public QueueConfiguration withAdaptiveTimeoutPercentile(float adaptiveTimeoutPercentile) {
+        if (adaptiveTimeoutPercentile <= 0f || adaptiveTimeoutPercentile > 100f) {
+            throw new IllegalArgumentException("adaptiveTimeoutPercentile must be >0 and <=100 but is " + adaptiveTimeoutPercentile);
+        }
+        this.adaptiveTimeoutPercentile = adaptiveTimeoutPercentile;
+        return this;
+    }
+
+    public QueueConfiguration withAdaptiveTimeoutMinMillis(int adaptiveTimeoutMinMillis) {
+        if (adaptiveTimeoutMinMillis < 1) {
+            throw new IllegalArgumentException("adaptiveTimeoutMinMillis must be >=1 but is " + adaptiveTimeoutMinMillis);
+        }
+        this.adaptiveTimeoutMinMillis = adaptiveTimeoutMinMillis;
+        return this;
+    }
+
+    public QueueConfiguration withAdaptiveTimeoutMaxMillis(int adaptiveTimeoutMaxMillis) {
+        if (adaptiveTimeoutMaxMillis < 0) {
+            throw new IllegalArgumentException("adaptiveTimeoutMaxMillis must be >=0 but is " + adaptiveTimeoutMaxMillis);
+        }
+        this.adaptiveTimeoutMaxMillis = adaptiveTimeoutMaxMillis;
+        return this;
+    }
+
+    public QueueConfiguration withRetryBackoffMaxSeconds(int retryBackoffMaxSeconds) {
+        if (retryBackoffMaxSeconds < 0) {
+            throw new IllegalArgumentException("retryBackoffMaxSeconds must be >=0 but is " + retryBackoffMaxSeconds);
+        }
+        this.retryBackoffMaxSeconds = retryBackoffMaxSeconds;
+        return this;
+    }
+
+    public QueueConfiguration withRetryJitter(float retryJitter) {
+        if (retryJitter < 0f || retryJitter > 1f) {
+            throw new IllegalArgumentException("retryJitter must be >=0 and <=1 but is " + retryJitter);
+        }
+        this.retryJitter = retryJitter;
+        return this;
+    }
+
+    public QueueConfiguration withCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        if (circuitBreakerThreshold < 0) {
+            throw new IllegalArgumentException("circuitBreakerThreshold must be >=0 but is " + circuitBreakerThreshold);
+        }
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+        return this;
+    }
+
+    public QueueConfiguration withCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+        if (circuitBreakerOpenSeconds < 1) {
+            throw new IllegalArgumentException("circuitBreakerOpenSeconds must be >=1 but is " + circuitBreakerOpenSeconds);
+        }
+        this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+        return this;
+    }
+
+    public QueueConfiguration withMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 0) {
+            throw new IllegalArgumentException("maxAttempts must be >=0 but is " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public QueueConfiguration withOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    public QueueConfiguration withVisibilityTimeoutSeconds(int visibilityTimeoutSeconds) {
+        if (visibilityTimeoutSeconds < 1) {
+            throw new IllegalArgumentException("visibilityTimeoutSeconds must be >=1 but is " + visibilityTimeoutSeconds);
+        }
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        return this;
+    }
 }
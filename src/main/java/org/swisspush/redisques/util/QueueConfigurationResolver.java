@@ -0,0 +1,90 @@
+package org.swisspush.redisques.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves the {@link QueueConfiguration} of a queue and caches the result per queue name, including the queues
+ * without matching configuration. So the patterns are matched once per queue name instead of with each lookup.
+ * <p>
+ * The cache belongs to the list of queue configurations it was resolved from. When the configuration is replaced,
+ * the next lookup swaps in an empty cache for the new list, so no stale resolution survives a configuration change.
+ * The cache is cleared when it reaches its maximum size.
+ * <p>
+ * Thread safe. The resolver may be shared by the verticle and the queue actions.
+ */
+public class QueueConfigurationResolver {
+
+    private final RedisquesConfigurationProvider configurationProvider;
+    private final int maxSize;
+    private final AtomicReference<Resolutions> resolutions = new AtomicReference<>(new Resolutions(List.of()));
+
+    /**
+     * @param maxSize the maximum number of cached queue names. Use 0 to match the patterns with each lookup
+     */
+    public QueueConfigurationResolver(RedisquesConfigurationProvider configurationProvider, int maxSize) {
+        this.configurationProvider = configurationProvider;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the first queue configuration whose pattern matches the queue name or <code>null</code> when none
+     * matches
+     */
+    public QueueConfiguration resolve(String queueName) {
+        List<QueueConfiguration> queueConfigurations = configurationProvider.configuration().getQueueConfigurations();
+        if (maxSize <= 0 || queueConfigurations.isEmpty()) {
+            return match(queueConfigurations, queueName);
+        }
+        Resolutions current = resolutions.get();
+        if (current.queueConfigurations != queueConfigurations) {
+            Resolutions fresh = new Resolutions(queueConfigurations);
+            current = resolutions.compareAndSet(current, fresh) ? fresh : resolutions.get();
+            if (current.queueConfigurations != queueConfigurations) {
+                // the configuration changed once more in the meantime
+                return match(queueConfigurations, queueName);
+            }
+        }
+        Optional<QueueConfiguration> resolved = current.cache.get(queueName);
+        if (resolved == null) {
+            resolved = Optional.ofNullable(match(queueConfigurations, queueName));
+            if (current.cache.size() >= maxSize) {
+                current.cache.clear();
+            }
+            current.cache.put(queueName, resolved);
+        }
+        return resolved.orElse(null);
+    }
+
+    /**
+     * @return the number of cached queue names
+     */
+    public int size() {
+        return resolutions.get().cache.size();
+    }
+
+    /**
+     * @return the first queue configuration whose pattern matches the queue name or <code>null</code> when none
+     * matches
+     */
+    public static QueueConfiguration match(List<QueueConfiguration> queueConfigurations, String queueName) {
+        for (QueueConfiguration queueConfiguration : queueConfigurations) {
+            if (queueConfiguration.compiledPattern().matcher(queueName).matches()) {
+                return queueConfiguration;
+            }
+        }
+        return null;
+    }
+
+    private static class Resolutions {
+        private final List<QueueConfiguration> queueConfigurations;
+        private final Map<String, Optional<QueueConfiguration>> cache = new ConcurrentHashMap<>();
+
+        private Resolutions(List<QueueConfiguration> queueConfigurations) {
+            this.queueConfigurations = queueConfigurations;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import static org.swisspush.redisques.util.RedisquesAPI.ERROR;
@@ -30,10 +31,19 @@ import static org.swisspush.redisques.util.RedisquesAPI.MONITOR_QUEUE_NAME;
 import static org.swisspush.redisques.util.RedisquesAPI.MONITOR_QUEUE_SIZE;
 import static org.swisspush.redisques.util.RedisquesAPI.OK;
 import static org.swisspush.redisques.util.RedisquesAPI.QUEUENAME;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_DISPATCHED;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_NOTIFICATIONS_DEDUPLICATED;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_NOTIFICATIONS_SENT;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_NOTIFICATIONS_SUPPRESSED;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_PRIORITIES;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_PRIORITY;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_PROCESS_TIME_AVG;
 import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_QUEUE_BACKPRESSURE;
 import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_QUEUE_FAILURES;
 import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_QUEUE_SLOWDOWN;
 import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_QUEUE_SPEED;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_WAIT_TIME_AVG;
+import static org.swisspush.redisques.util.RedisquesAPI.STATISTIC_WAIT_TIME_MAX;
 import static org.swisspush.redisques.util.RedisquesAPI.STATUS;
 
 /**
@@ -60,11 +70,15 @@ public class QueueStatisticsCollector {
     private final static String QUEUE_BACKPRESSURE = "backpressureTime";
     private final static String QUEUE_SLOWDOWNTIME = "slowdownTime";
 
-    private final Map<String, AtomicLong> queueFailureCount = new HashMap<>();
-    private final Map<String, Long> queueBackpressureTime = new HashMap<>();
-    private final Map<String, Long> queueSlowDownTime = new HashMap<>();
+    private final Map<String, AtomicLong> queueFailureCount = new ConcurrentHashMap<>();
+    private final Map<String, Long> queueBackpressureTime = new ConcurrentHashMap<>();
+    private final Map<String, Long> queueSlowDownTime = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, AtomicLong> queueMessageSpeedCtr = new ConcurrentHashMap<>();
     private volatile Map<String, Long> queueMessageSpeed = new HashMap<>();
+    private final AtomicLong notificationsSent = new AtomicLong();
+    private final AtomicLong notificationsSuppressed = new AtomicLong();
+    private final AtomicLong notificationsDeduplicated = new AtomicLong();
+    private final ConcurrentMap<Integer, DispatchLatency> dispatchLatencies = new ConcurrentHashMap<>();
     private final RedisProvider redisProvider;
     private final String queuePrefix;
     private final Vertx vertx;
@@ -168,10 +182,21 @@ public class QueueStatisticsCollector {
      * @param queueName The name of the queue for which success must be processed.
      */
     public void queueMessageSuccess(String queueName) {
+        queueMessageSuccess(queueName, 1);
+    }
+
+    /**
+     * Signals the successful distribution of several messages on the given queue at once, e.g. of a batch.
+     * Note: Increments the message counter for the given queue by the number of messages.
+     *
+     * @param queueName The name of the queue for which success must be processed.
+     * @param messages  The number of successfully distributed messages.
+     */
+    public void queueMessageSuccess(String queueName, long messages) {
         // count the number of messages per queue for interval speed evaluation.
-        AtomicLong messageCtr = queueMessageSpeedCtr.putIfAbsent(queueName, new AtomicLong(1));
+        AtomicLong messageCtr = queueMessageSpeedCtr.putIfAbsent(queueName, new AtomicLong(messages));
         if (messageCtr != null) {
-            messageCtr.incrementAndGet();
+            messageCtr.addAndGet(messages);
         }
         // whenever there is a message successfully sent, our failure statistics could be reset as well
         resetQueueFailureStatistics(queueName);
@@ -567,6 +592,89 @@ public class QueueStatisticsCollector {
         event.reply(new JsonObject().put(STATUS, OK).put(STATISTIC_QUEUE_SPEED, speed));
     }
 
+    /**
+     * Signals a notification sent to the consumer of a queue.
+     */
+    public void notificationSent() {
+        notificationsSent.incrementAndGet();
+    }
+
+    /**
+     * Signals a notification not sent to the consumer of a queue, because a notification of the consumer for
+     * the same queue was still in flight.
+     */
+    public void notificationSuppressed() {
+        notificationsSuppressed.incrementAndGet();
+    }
+
+    /**
+     * Signals a notification received for a queue already being consumed, which became the pending notification
+     * of the queue. Further notifications while it is pending are merged into it and not counted.
+     */
+    public void notificationDeduplicated() {
+        notificationsDeduplicated.incrementAndGet();
+    }
+
+    /**
+     * Retrieve the counters of the consumer notifications since the start.
+     * <p>
+     * Note: The counters are held in memory of the current redisques instance only.
+     *
+     * @param event The event on which we will answer finally
+     */
+    public void getNotificationStatistics(Message<JsonObject> event) {
+        event.reply(new JsonObject().put(STATUS, OK)
+                .put(STATISTIC_NOTIFICATIONS_SENT, notificationsSent.get())
+                .put(STATISTIC_NOTIFICATIONS_SUPPRESSED, notificationsSuppressed.get())
+                .put(STATISTIC_NOTIFICATIONS_DEDUPLICATED, notificationsDeduplicated.get()));
+    }
+
+    /**
+     * Signals a message processed by the processor.
+     *
+     * @param priority      The priority of the queue
+     * @param waitTimeMs    The time [ms] the queue waited for a free dispatch slot
+     * @param processTimeMs The time [ms] until the processor replied
+     */
+    public void dispatched(int priority, long waitTimeMs, long processTimeMs) {
+        DispatchLatency latency = dispatchLatencies.computeIfAbsent(priority, p -> new DispatchLatency());
+        latency.dispatched.increment();
+        latency.waitTime.add(waitTimeMs);
+        latency.waitTimeMax.accumulateAndGet(waitTimeMs, Math::max);
+        latency.processTime.add(processTimeMs);
+    }
+
+    /**
+     * Retrieve the dispatch latencies per queue priority since the start, highest priority first.
+     * <p>
+     * Note: The latencies are held in memory of the current redisques instance only.
+     *
+     * @param event The event on which we will answer finally
+     */
+    public void getDispatchStatistics(Message<JsonObject> event) {
+        JsonArray priorities = new JsonArray();
+        dispatchLatencies.entrySet().stream()
+                .sorted(Map.Entry.<Integer, DispatchLatency>comparingByKey().reversed())
+                .forEach(entry -> {
+                    DispatchLatency latency = entry.getValue();
+                    long dispatched = latency.dispatched.sum();
+                    priorities.add(new JsonObject()
+                            .put(STATISTIC_PRIORITY, entry.getKey())
+                            .put(STATISTIC_DISPATCHED, dispatched)
+                            .put(STATISTIC_WAIT_TIME_AVG, dispatched > 0 ? latency.waitTime.sum() / dispatched : 0)
+                            .put(STATISTIC_WAIT_TIME_MAX, latency.waitTimeMax.get())
+                            .put(STATISTIC_PROCESS_TIME_AVG, dispatched > 0 ? latency.processTime.sum() / dispatched : 0));
+                });
+        event.reply(new JsonObject().put(STATUS, OK).put(STATISTIC_PRIORITIES, priorities));
+    }
+
+    private static class DispatchLatency {
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder waitTime = new LongAdder();
+        private final AtomicLong waitTimeMax = new AtomicLong();
+        private final LongAdder processTime = new LongAdder();
+    }
+
     /** <p>Holds intermediate state related to a {@link #getQueueStatistics(Message, List)}
      * request.</p> */
     private static class RequestCtx {
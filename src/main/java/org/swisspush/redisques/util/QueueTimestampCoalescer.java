@@ -0,0 +1,139 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.redis.client.Command;
+import io.vertx.redis.client.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces the updates of the queue timestamps in the sorted set of queues. The timestamps are only used to find
+ * the queues not refreshed for three refresh periods, so a timestamp is only written again when the last write of
+ * this instance is older than the given interval.
+ * <p>
+ * Due updates are either written by the caller itself (see {@link #markIfDue(String)}) or collected and flushed
+ * after a short delay as pipelined ZADDs of up to {@value #FLUSH_CHUNK_SIZE} queues each (see {@link #update(String)}).
+ * <p>
+ * Not thread safe. The coalescer must only be used from the context of the verticle.
+ */
+public class QueueTimestampCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueTimestampCoalescer.class);
+
+    static final long FLUSH_DELAY_MS = 50;
+    static final int FLUSH_CHUNK_SIZE = 1000;
+
+    private final Vertx vertx;
+    private final RedisProvider redisProvider;
+    private final String queuesKey;
+    private final long intervalMs;
+    private final Map<String, Long> lastWritten = new HashMap<>();
+    private final Map<String, Long> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    /**
+     * @param intervalMs the minimal interval [ms] between two timestamp updates of the same queue
+     */
+    public QueueTimestampCoalescer(Vertx vertx, RedisProvider redisProvider, String queuesKey, long intervalMs) {
+        this.vertx = vertx;
+        this.redisProvider = redisProvider;
+        this.queuesKey = queuesKey;
+        this.intervalMs = intervalMs;
+        // forget the queues which are due anyway, so only the recently written queues are kept
+        vertx.setPeriodic(intervalMs, id -> lastWritten.values().removeIf(ts -> isDue(ts, System.currentTimeMillis())));
+    }
+
+    /**
+     * Marks the timestamp of the queue as written when it is due. The caller is responsible to write the timestamp
+     * when <code>true</code> is returned.
+     *
+     * @return <code>true</code> when the timestamp of the queue is due and must be written
+     */
+    public boolean markIfDue(String queueName) {
+        long now = System.currentTimeMillis();
+        Long last = lastWritten.get(queueName);
+        if (last != null && !isDue(last, now)) {
+            return false;
+        }
+        lastWritten.put(queueName, now);
+        return true;
+    }
+
+    /**
+     * Marks the timestamps of the queues as written by the caller.
+     */
+    public void markWritten(Collection<String> queueNames, long ts) {
+        for (String queueName : queueNames) {
+            lastWritten.put(queueName, ts);
+        }
+    }
+
+    /**
+     * Forgets the last write of the queue, e.g. when the caller failed to write the timestamp.
+     */
+    public void forget(String queueName) {
+        lastWritten.remove(queueName);
+    }
+
+    /**
+     * Updates the timestamp of the queue with the next flush when it is due.
+     */
+    public void update(String queueName) {
+        if (!markIfDue(queueName)) {
+            return;
+        }
+        pending.put(queueName, lastWritten.get(queueName));
+        if (!flushScheduled) {
+            flushScheduled = true;
+            vertx.setTimer(FLUSH_DELAY_MS, id -> flush());
+        }
+    }
+
+    /**
+     * @return the number of timestamp updates waiting for the next flush
+     */
+    public int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending timestamp updates.
+     */
+    public Future<Void> flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        List<Request> requests = new ArrayList<>(pending.size() / FLUSH_CHUNK_SIZE + 1);
+        Request zadd = null;
+        int count = 0;
+        for (Map.Entry<String, Long> entry : pending.entrySet()) {
+            if (count % FLUSH_CHUNK_SIZE == 0) {
+                zadd = Request.cmd(Command.ZADD).arg(queuesKey);
+                requests.add(zadd);
+            }
+            zadd.arg(entry.getValue()).arg(entry.getKey());
+            count++;
+        }
+        List<String> queueNames = new ArrayList<>(pending.keySet());
+        pending.clear();
+        log.trace("RedisQues flush timestamps of {} queues", queueNames.size());
+        return redisProvider.connection().compose(redis -> redis.batch(requests)).<Void>mapEmpty().onFailure(throwable -> {
+            log.warn("Redis: Failed to update the timestamps of {} queues", queueNames.size(), throwable);
+            // write them with the next update again
+            queueNames.forEach(this::forget);
+        });
+    }
+
+    private boolean isDue(long last, long now) {
+        return now - last >= intervalMs;
+    }
+}
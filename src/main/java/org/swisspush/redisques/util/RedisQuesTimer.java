@@ -1,6 +1,8 @@
 package org.swisspush.redisques.util;
 
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import org.slf4j.Logger;
@@ -10,20 +12,57 @@ import java.util.Random;
 
 /**
  * Utility class for the vertx timer functionalities.
+ * <p>
+ * All delays are driven by a single {@link TimingWheel} running on the context the timer has been created on,
+ * instead of one vertx timer per delay. Callers on other threads are dispatched to this context.
  *
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
 public class RedisQuesTimer {
+    static final long TICK_MS = 10;
+    static final int WHEEL_SIZE = 512;
+
     private final Vertx vertx;
+    private final Context context;
+    private final TimingWheel wheel;
     private final Random random;
 
     private final Logger log = LoggerFactory.getLogger(RedisQuesTimer.class);
 
     public RedisQuesTimer(Vertx vertx) {
         this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.wheel = new TimingWheel(vertx, TICK_MS, WHEEL_SIZE);
         this.random = new Random();
     }
 
+    /**
+     * Delay an operation by the given delay in milliseconds. The {@link Future} completes on the context of the
+     * timer, with the precision of one tick of the timing wheel.
+     *
+     * @param delayMs the delay in milliseconds
+     * @return A {@link Future} which completes after the delay
+     */
+    public Future<Void> executeDelayed(long delayMs) {
+        Promise<Void> promise = Promise.promise();
+        schedule(delayMs, delayed -> promise.complete());
+        return promise.future();
+    }
+
+    /**
+     * Schedules the handler to be executed on the context of the timer after the given delay.
+     *
+     * @return the {@link TimingWheel.Timeout} to cancel the execution, or <code>null</code> when called from
+     * another context, in which case the scheduling happens asynchronously
+     */
+    public TimingWheel.Timeout schedule(long delayMs, Handler<Void> handler) {
+        if (Vertx.currentContext() == context) {
+            return wheel.schedule(delayMs, handler);
+        }
+        context.runOnContext(v -> wheel.schedule(delayMs, handler));
+        return null;
+    }
+
     /**
      * Delay an operation by providing a delay in milliseconds. This method completes the {@link Future} any time
      * between immediately and the delay. When 0 provided as delay, the {@link Future} is resolved immediately.
@@ -37,7 +76,7 @@ public class RedisQuesTimer {
         if (delayMs > 0) {
             int delay = random.nextInt((int) (delayMs + 1)) + 1;
             log.debug("starting timer with a delay of " + delay + "ms");
-            vertx.setTimer(delay, delayed -> promise.complete());
+            schedule(delay, delayed -> promise.complete());
         } else {
             vertx.runOnContext(aVoid -> promise.complete());
         }
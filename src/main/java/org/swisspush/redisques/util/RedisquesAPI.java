@@ -25,9 +25,17 @@ public class RedisquesAPI {
 
     public static final String MEMORY_FULL = "memory usage limit reached";
     public static final String PAYLOAD = "payload";
+    public static final String PAYLOADS = "payloads";
     public static final String QUEUENAME = "queuename";
+    public static final String CONSUMER = "consumer";
     public static final String FILTER = "filter";
     public static final String COUNT = "count";
+    public static final String RETRY_AFTER = "retryAfter";
+    public static final String PERMANENT_FAILURE = "permanentFailure";
+    public static final String MAX_ATTEMPTS = "maxAttempts";
+    public static final String ATTEMPTS = "attempts";
+    public static final String REASON = "reason";
+    public static final String DELIVER_AT = "deliverAt";
     public static final String LOCKS = "locks";
     public static final String QUEUES = "queues";
     public static final String UNLOCK = "unlock";
@@ -46,12 +54,23 @@ public class RedisquesAPI {
     public static final String STATISTIC_QUEUE_SLOWDOWN = "slowdownTime";
     public static final String STATISTIC_QUEUE_SPEED = "speed";
     public static final String STATISTIC_QUEUE_SPEED_INTERVAL_UNIT= "unitSec";
+    public static final String STATISTIC_NOTIFICATIONS_SENT = "notificationsSent";
+    public static final String STATISTIC_NOTIFICATIONS_SUPPRESSED = "notificationsSuppressed";
+    public static final String STATISTIC_NOTIFICATIONS_DEDUPLICATED = "notificationsDeduplicated";
+    public static final String STATISTIC_PRIORITIES = "priorities";
+    public static final String STATISTIC_PRIORITY = "priority";
+    public static final String STATISTIC_DISPATCHED = "dispatched";
+    public static final String STATISTIC_WAIT_TIME_AVG = "waitTimeAvg";
+    public static final String STATISTIC_WAIT_TIME_MAX = "waitTimeMax";
+    public static final String STATISTIC_PROCESS_TIME_AVG = "processTimeAvg";
 
     private static final Logger log = LoggerFactory.getLogger(RedisquesAPI.class);
 
     public enum QueueOperation {
         enqueue(null),
         lockedEnqueue(null),
+        bulkEnqueue(null),
+        enqueueDelayed(null),
         getConfiguration(null),
         setConfiguration(null),
         check(null),
@@ -76,7 +95,12 @@ public class RedisquesAPI {
         getQueueItemsCount(null),
         getQueuesItemsCount(null),
         getQueuesStatistics(null),
-        getQueuesSpeed(null);
+        getQueuesSpeed(null),
+        getNotificationStatistics(null),
+        getDispatchStatistics(null),
+        getDeadLetters(null),
+        replayDeadLetters(null),
+        deleteDeadLetters(null);
 
         private final String legacyName;
 
@@ -135,6 +159,26 @@ public class RedisquesAPI {
         return operation;
     }
 
+    /**
+     * @param deliverAt the timestamp [ms] when the message is due to be enqueued into its queue
+     */
+    public static JsonObject buildEnqueueDelayedOperation(String queueName, String message, long deliverAt){
+        JsonObject operation = buildOperation(QueueOperation.enqueueDelayed, new JsonObject().put(QUEUENAME, queueName).put(DELIVER_AT, deliverAt));
+        operation.put(MESSAGE, message);
+        return operation;
+    }
+
+    public static JsonObject buildBulkEnqueueOperation(String queueName, JsonArray messages){
+        return buildBulkEnqueueOperation(new JsonObject().put(queueName, messages));
+    }
+
+    /**
+     * @param messagesPerQueue the messages to enqueue as {@link JsonArray} per queue name
+     */
+    public static JsonObject buildBulkEnqueueOperation(JsonObject messagesPerQueue){
+        return buildOperation(QueueOperation.bulkEnqueue, new JsonObject().put(QUEUES, messagesPerQueue));
+    }
+
     public static JsonObject buildGetQueueItemsOperation(String queueName, String limit){
         return buildOperation(QueueOperation.getQueueItems, new JsonObject().put(QUEUENAME, queueName).put(LIMIT, limit));
     }
@@ -163,6 +207,18 @@ public class RedisquesAPI {
         return buildOperation(QueueOperation.deleteAllQueueItems, new JsonObject().put(QUEUENAME, queueName).put(UNLOCK, unlock));
     }
 
+    public static JsonObject buildGetDeadLettersOperation(String queueName, String limit){
+        return buildOperation(QueueOperation.getDeadLetters, new JsonObject().put(QUEUENAME, queueName).put(LIMIT, limit));
+    }
+
+    public static JsonObject buildReplayDeadLettersOperation(String queueName){
+        return buildOperation(QueueOperation.replayDeadLetters, new JsonObject().put(QUEUENAME, queueName));
+    }
+
+    public static JsonObject buildDeleteDeadLettersOperation(String queueName){
+        return buildOperation(QueueOperation.deleteDeadLetters, new JsonObject().put(QUEUENAME, queueName));
+    }
+
     public static JsonObject buildBulkDeleteQueuesOperation(JsonArray queuesToDelete){
         return buildOperation(QueueOperation.bulkDeleteQueues, new JsonObject().put(QUEUES, queuesToDelete));
     }
@@ -296,5 +352,19 @@ public class RedisquesAPI {
         return buildGetQueuesSpeedOperation();
     }
 
+    /**
+     * Retrieve the counters of the consumer notifications of the redisques instance handling the request
+     */
+    public static JsonObject buildGetNotificationStatisticsOperation() {
+        return buildOperation(QueueOperation.getNotificationStatistics);
+    }
+
+    /**
+     * Retrieve the dispatch latencies per queue priority of the redisques instance handling the request
+     */
+    public static JsonObject buildGetDispatchStatisticsOperation() {
+        return buildOperation(QueueOperation.getDispatchStatistics);
+    }
+
 
 }
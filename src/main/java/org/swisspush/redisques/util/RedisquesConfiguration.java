@@ -50,6 +50,18 @@ public class RedisquesConfiguration {
     private final int redisReconnectAttempts;
     private final int redisReconnectDelaySec;
     private final int redisPoolRecycleTimeoutMs;
+    private final boolean wakeupChannelEnabled;
+    private final boolean consumerHeartbeatEnabled;
+    private final int checkQueuesPerSec;
+    private final int checkPartitions;
+    private final int consumerLocationCacheSize;
+    private final int timestampCoalescingPercent;
+    private final boolean notificationDedupEnabled;
+    private final int maxInFlight;
+    private final int queueConfigurationCacheSize;
+    private final int delayedMoveIntervalMs;
+    private final int delayedShards;
+    private final int httpRequestHandlerMaxLineSize;
 
     private static final int DEFAULT_CHECK_INTERVAL_S = 60; // 60s
     private static final int DEFAULT_PROCESSOR_TIMEOUT_MS = 240000; // 240s
@@ -69,6 +81,18 @@ public class RedisquesConfiguration {
     private static final int DEFAULT_QUEUE_SPEED_INTERVAL_SEC = 60;
     private static final int DEFAULT_MEMORY_USAGE_LIMIT_PCT = 100;
     private static final int DEFAULT_MEMORY_USAGE_CHECK_INTERVAL_SEC = 60;
+    private static final boolean DEFAULT_WAKEUP_CHANNEL_ENABLED = false;
+    private static final boolean DEFAULT_CONSUMER_HEARTBEAT_ENABLED = false;
+    private static final int DEFAULT_CHECK_QUEUES_PER_SEC = 10000;
+    private static final int DEFAULT_CHECK_PARTITIONS = 1;
+    private static final int DEFAULT_CONSUMER_LOCATION_CACHE_SIZE = 0;
+    private static final int DEFAULT_TIMESTAMP_COALESCING_PCT = 0;
+    private static final boolean DEFAULT_NOTIFICATION_DEDUP_ENABLED = false;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 0;
+    private static final int DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE = 10000;
+    private static final int DEFAULT_DELAYED_MOVE_INTERVAL_MS = 1000;
+    private static final int DEFAULT_DELAYED_SHARDS = 1;
+    private static final int DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE = 10 * 1024 * 1024; // 10MiB
 
     public static final String PROP_ADDRESS = "address";
     public static final String PROP_CONFIGURATION_UPDATED_ADDRESS = "configuration-updated-address";
@@ -109,6 +133,18 @@ public class RedisquesConfiguration {
     public static final String PROP_QUEUE_SPEED_INTERVAL_SEC = "queueSpeedIntervalSec";
     public static final String PROP_MEMORY_USAGE_LIMIT_PCT = "memoryUsageLimitPercent";
     public static final String PROP_MEMORY_USAGE_CHECK_INTERVAL_SEC = "memoryUsageCheckIntervalSec";
+    public static final String PROP_WAKEUP_CHANNEL_ENABLED = "wakeupChannelEnabled";
+    public static final String PROP_CONSUMER_HEARTBEAT_ENABLED = "consumerHeartbeatEnabled";
+    public static final String PROP_CHECK_QUEUES_PER_SEC = "checkQueuesPerSec";
+    public static final String PROP_CHECK_PARTITIONS = "checkPartitions";
+    public static final String PROP_CONSUMER_LOCATION_CACHE_SIZE = "consumerLocationCacheSize";
+    public static final String PROP_TIMESTAMP_COALESCING_PCT = "timestampCoalescingPercent";
+    public static final String PROP_NOTIFICATION_DEDUP_ENABLED = "notificationDedupEnabled";
+    public static final String PROP_MAX_IN_FLIGHT = "maxInFlight";
+    public static final String PROP_QUEUE_CONFIGURATION_CACHE_SIZE = "queueConfigurationCacheSize";
+    public static final String PROP_DELAYED_MOVE_INTERVAL_MS = "delayedMoveIntervalMs";
+    public static final String PROP_DELAYED_SHARDS = "delayedShards";
+    public static final String PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE = "httpRequestHandlerMaxLineSize";
 
     /**
      * Constructor with default values. Use the {@link RedisquesConfigurationBuilder} class
@@ -138,7 +174,19 @@ public class RedisquesConfiguration {
                 enableQueueNameDecoding, DEFAULT_REDIS_MAX_POOL_SIZE, DEFAULT_REDIS_MAX_POOL_WAIT_SIZE,
                 DEFAULT_REDIS_MAX_PIPELINE_WAIT_SIZE, DEFAULT_QUEUE_SPEED_INTERVAL_SEC, DEFAULT_MEMORY_USAGE_LIMIT_PCT,
                 DEFAULT_MEMORY_USAGE_CHECK_INTERVAL_SEC, DEFAULT_REDIS_RECONNECT_ATTEMPTS, DEFAULT_REDIS_RECONNECT_DELAY_SEC,
-                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS);
+                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS,
+                DEFAULT_WAKEUP_CHANNEL_ENABLED,
+                DEFAULT_CONSUMER_HEARTBEAT_ENABLED,
+                DEFAULT_CHECK_QUEUES_PER_SEC,
+                DEFAULT_CHECK_PARTITIONS,
+                DEFAULT_CONSUMER_LOCATION_CACHE_SIZE,
+                DEFAULT_TIMESTAMP_COALESCING_PCT,
+                DEFAULT_NOTIFICATION_DEDUP_ENABLED,
+                DEFAULT_MAX_IN_FLIGHT,
+                DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE,
+                DEFAULT_DELAYED_MOVE_INTERVAL_MS,
+                DEFAULT_DELAYED_SHARDS,
+                DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE);
     }
 
     /**
@@ -159,7 +207,19 @@ public class RedisquesConfiguration {
                 enableQueueNameDecoding, DEFAULT_REDIS_MAX_POOL_SIZE, DEFAULT_REDIS_MAX_POOL_WAIT_SIZE,
                 DEFAULT_REDIS_MAX_PIPELINE_WAIT_SIZE, DEFAULT_QUEUE_SPEED_INTERVAL_SEC, DEFAULT_MEMORY_USAGE_LIMIT_PCT,
                 DEFAULT_MEMORY_USAGE_CHECK_INTERVAL_SEC, DEFAULT_REDIS_RECONNECT_ATTEMPTS, DEFAULT_REDIS_RECONNECT_DELAY_SEC,
-                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS);
+                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS,
+                DEFAULT_WAKEUP_CHANNEL_ENABLED,
+                DEFAULT_CONSUMER_HEARTBEAT_ENABLED,
+                DEFAULT_CHECK_QUEUES_PER_SEC,
+                DEFAULT_CHECK_PARTITIONS,
+                DEFAULT_CONSUMER_LOCATION_CACHE_SIZE,
+                DEFAULT_TIMESTAMP_COALESCING_PCT,
+                DEFAULT_NOTIFICATION_DEDUP_ENABLED,
+                DEFAULT_MAX_IN_FLIGHT,
+                DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE,
+                DEFAULT_DELAYED_MOVE_INTERVAL_MS,
+                DEFAULT_DELAYED_SHARDS,
+                DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE);
     }
 
     /**
@@ -179,7 +239,19 @@ public class RedisquesConfiguration {
                 enableQueueNameDecoding, DEFAULT_REDIS_MAX_POOL_SIZE, DEFAULT_REDIS_MAX_POOL_WAIT_SIZE,
                 DEFAULT_REDIS_MAX_PIPELINE_WAIT_SIZE, DEFAULT_QUEUE_SPEED_INTERVAL_SEC, DEFAULT_MEMORY_USAGE_LIMIT_PCT,
                 DEFAULT_MEMORY_USAGE_CHECK_INTERVAL_SEC, DEFAULT_REDIS_RECONNECT_ATTEMPTS, DEFAULT_REDIS_RECONNECT_DELAY_SEC,
-                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS);
+                DEFAULT_REDIS_POOL_RECYCLE_TIMEOUT_MS,
+                DEFAULT_WAKEUP_CHANNEL_ENABLED,
+                DEFAULT_CONSUMER_HEARTBEAT_ENABLED,
+                DEFAULT_CHECK_QUEUES_PER_SEC,
+                DEFAULT_CHECK_PARTITIONS,
+                DEFAULT_CONSUMER_LOCATION_CACHE_SIZE,
+                DEFAULT_TIMESTAMP_COALESCING_PCT,
+                DEFAULT_NOTIFICATION_DEDUP_ENABLED,
+                DEFAULT_MAX_IN_FLIGHT,
+                DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE,
+                DEFAULT_DELAYED_MOVE_INTERVAL_MS,
+                DEFAULT_DELAYED_SHARDS,
+                DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE);
     }
 
     private RedisquesConfiguration(String address, String configurationUpdatedAddress, String redisPrefix, String processorAddress, int refreshPeriod,
@@ -191,7 +263,19 @@ public class RedisquesConfiguration {
                                    List<QueueConfiguration> queueConfigurations, boolean enableQueueNameDecoding,
                                    int maxPoolSize, int maxPoolWaitSize, int maxPipelineWaitSize,
                                    int queueSpeedIntervalSec, int memoryUsageLimitPercent, int memoryUsageCheckIntervalSec,
-                                   int redisReconnectAttempts, int redisReconnectDelaySec, int redisPoolRecycleTimeoutMs) {
+                                   int redisReconnectAttempts, int redisReconnectDelaySec, int redisPoolRecycleTimeoutMs,
+                                   boolean wakeupChannelEnabled,
+                                   boolean consumerHeartbeatEnabled,
+                                   int checkQueuesPerSec,
+                                   int checkPartitions,
+                                   int consumerLocationCacheSize,
+                                   int timestampCoalescingPercent,
+                                   boolean notificationDedupEnabled,
+                                   int maxInFlight,
+                                   int queueConfigurationCacheSize,
+                                   int delayedMoveIntervalMs,
+                                   int delayedShards,
+                                   int httpRequestHandlerMaxLineSize) {
         this.address = address;
         this.configurationUpdatedAddress = configurationUpdatedAddress;
         this.redisPrefix = redisPrefix;
@@ -241,6 +325,23 @@ public class RedisquesConfiguration {
         this.httpRequestHandlerPort = httpRequestHandlerPort;
         this.httpRequestHandlerUserHeader = httpRequestHandlerUserHeader;
         this.queueConfigurations = queueConfigurations;
+        if (queueConfigurations != null) {
+            for (QueueConfiguration queueConfiguration : queueConfigurations) {
+                if (queueConfiguration.isOrdered()) {
+                    continue;
+                }
+                long maxProcessorTimeout = queueConfiguration.getAdaptiveTimeoutPercentile() > 0
+                        && queueConfiguration.getAdaptiveTimeoutMaxMillis() > 0
+                        ? queueConfiguration.getAdaptiveTimeoutMaxMillis() : this.processorTimeout;
+                long visibilityTimeoutMs = queueConfiguration.getVisibilityTimeoutSeconds() * 1000L;
+                if (visibilityTimeoutMs <= maxProcessorTimeout || visibilityTimeoutMs <= refreshPeriod * 1000L) {
+                    log.warn("The visibilityTimeoutSeconds of {}s of the queues {} is not longer than the processor timeout of {}ms " +
+                                    "and the refreshPeriod of {}s. Items still being processed may be processed by another instance once more.",
+                            queueConfiguration.getVisibilityTimeoutSeconds(), queueConfiguration.getPattern(),
+                            maxProcessorTimeout, refreshPeriod);
+                }
+            }
+        }
         this.enableQueueNameDecoding = enableQueueNameDecoding;
         this.queueSpeedIntervalSec = queueSpeedIntervalSec;
 
@@ -268,6 +369,75 @@ public class RedisquesConfiguration {
         }
 
         this.redisPoolRecycleTimeoutMs = redisPoolRecycleTimeoutMs;
+
+        this.wakeupChannelEnabled = wakeupChannelEnabled;
+
+        this.consumerHeartbeatEnabled = consumerHeartbeatEnabled;
+
+        if (checkQueuesPerSec >= 0) {
+            this.checkQueuesPerSec = checkQueuesPerSec;
+        } else {
+            log.warn("Overridden checkQueuesPerSec of {} is not valid. Using default value of {} instead.", checkQueuesPerSec, DEFAULT_CHECK_QUEUES_PER_SEC);
+            this.checkQueuesPerSec = DEFAULT_CHECK_QUEUES_PER_SEC;
+        }
+
+        if (checkPartitions > 0) {
+            this.checkPartitions = checkPartitions;
+        } else {
+            log.warn("Overridden checkPartitions of {} is not valid. Using default value of {} instead.", checkPartitions, DEFAULT_CHECK_PARTITIONS);
+            this.checkPartitions = DEFAULT_CHECK_PARTITIONS;
+        }
+
+        if (consumerLocationCacheSize >= 0) {
+            this.consumerLocationCacheSize = consumerLocationCacheSize;
+        } else {
+            log.warn("Overridden consumerLocationCacheSize of {} is not valid. Using default value of {} instead.", consumerLocationCacheSize, DEFAULT_CONSUMER_LOCATION_CACHE_SIZE);
+            this.consumerLocationCacheSize = DEFAULT_CONSUMER_LOCATION_CACHE_SIZE;
+        }
+
+        if (0 <= timestampCoalescingPercent && timestampCoalescingPercent <= 100) {
+            this.timestampCoalescingPercent = timestampCoalescingPercent;
+        } else {
+            log.warn("Overridden timestampCoalescingPercent of {} is not valid. Using default value of {} instead.", timestampCoalescingPercent, DEFAULT_TIMESTAMP_COALESCING_PCT);
+            this.timestampCoalescingPercent = DEFAULT_TIMESTAMP_COALESCING_PCT;
+        }
+
+        this.notificationDedupEnabled = notificationDedupEnabled;
+
+        if (maxInFlight >= 0) {
+            this.maxInFlight = maxInFlight;
+        } else {
+            log.warn("Overridden maxInFlight of {} is not valid. Using default value of {} instead.", maxInFlight, DEFAULT_MAX_IN_FLIGHT);
+            this.maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        }
+
+        if (queueConfigurationCacheSize >= 0) {
+            this.queueConfigurationCacheSize = queueConfigurationCacheSize;
+        } else {
+            log.warn("Overridden queueConfigurationCacheSize of {} is not valid. Using default value of {} instead.", queueConfigurationCacheSize, DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE);
+            this.queueConfigurationCacheSize = DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE;
+        }
+
+        if (delayedMoveIntervalMs > 0) {
+            this.delayedMoveIntervalMs = delayedMoveIntervalMs;
+        } else {
+            log.warn("Overridden delayedMoveIntervalMs of {} is not valid. Using default value of {} instead.", delayedMoveIntervalMs, DEFAULT_DELAYED_MOVE_INTERVAL_MS);
+            this.delayedMoveIntervalMs = DEFAULT_DELAYED_MOVE_INTERVAL_MS;
+        }
+
+        if (delayedShards >= 1) {
+            this.delayedShards = delayedShards;
+        } else {
+            log.warn("Overridden delayedShards of {} is not valid. Using default value of {} instead.", delayedShards, DEFAULT_DELAYED_SHARDS);
+            this.delayedShards = DEFAULT_DELAYED_SHARDS;
+        }
+
+        if (httpRequestHandlerMaxLineSize > 0) {
+            this.httpRequestHandlerMaxLineSize = httpRequestHandlerMaxLineSize;
+        } else {
+            log.warn("Overridden httpRequestHandlerMaxLineSize of {} is not valid. Using default value of {} instead.", httpRequestHandlerMaxLineSize, DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE);
+            this.httpRequestHandlerMaxLineSize = DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE;
+        }
     }
 
     public static RedisquesConfigurationBuilder with() {
@@ -289,7 +459,19 @@ public class RedisquesConfiguration {
                 builder.memoryUsageCheckIntervalSec,
                 builder.redisReconnectAttempts,
                 builder.redisReconnectDelaySec,
-                builder.redisPoolRecycleTimeoutMs);
+                builder.redisPoolRecycleTimeoutMs,
+                builder.wakeupChannelEnabled,
+                builder.consumerHeartbeatEnabled,
+                builder.checkQueuesPerSec,
+                builder.checkPartitions,
+                builder.consumerLocationCacheSize,
+                builder.timestampCoalescingPercent,
+                builder.notificationDedupEnabled,
+                builder.maxInFlight,
+                builder.queueConfigurationCacheSize,
+                builder.delayedMoveIntervalMs,
+                builder.delayedShards,
+                builder.httpRequestHandlerMaxLineSize);
     }
 
     public JsonObject asJsonObject() {
@@ -329,6 +511,18 @@ public class RedisquesConfiguration {
         obj.put(PROP_QUEUE_SPEED_INTERVAL_SEC, getQueueSpeedIntervalSec());
         obj.put(PROP_MEMORY_USAGE_LIMIT_PCT, getMemoryUsageLimitPercent());
         obj.put(PROP_MEMORY_USAGE_CHECK_INTERVAL_SEC, getMemoryUsageCheckIntervalSec());
+        obj.put(PROP_WAKEUP_CHANNEL_ENABLED, getWakeupChannelEnabled());
+        obj.put(PROP_CONSUMER_HEARTBEAT_ENABLED, getConsumerHeartbeatEnabled());
+        obj.put(PROP_CHECK_QUEUES_PER_SEC, getCheckQueuesPerSec());
+        obj.put(PROP_CHECK_PARTITIONS, getCheckPartitions());
+        obj.put(PROP_CONSUMER_LOCATION_CACHE_SIZE, getConsumerLocationCacheSize());
+        obj.put(PROP_TIMESTAMP_COALESCING_PCT, getTimestampCoalescingPercent());
+        obj.put(PROP_NOTIFICATION_DEDUP_ENABLED, getNotificationDedupEnabled());
+        obj.put(PROP_MAX_IN_FLIGHT, getMaxInFlight());
+        obj.put(PROP_QUEUE_CONFIGURATION_CACHE_SIZE, getQueueConfigurationCacheSize());
+        obj.put(PROP_DELAYED_MOVE_INTERVAL_MS, getDelayedMoveIntervalMs());
+        obj.put(PROP_DELAYED_SHARDS, getDelayedShards());
+        obj.put(PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE, getHttpRequestHandlerMaxLineSize());
         return obj;
     }
 
@@ -442,6 +636,42 @@ public class RedisquesConfiguration {
         if (json.containsKey(PROP_MEMORY_USAGE_CHECK_INTERVAL_SEC)) {
             builder.memoryUsageCheckIntervalSec(json.getInteger(PROP_MEMORY_USAGE_CHECK_INTERVAL_SEC));
         }
+        if (json.containsKey(PROP_WAKEUP_CHANNEL_ENABLED)) {
+            builder.wakeupChannelEnabled(json.getBoolean(PROP_WAKEUP_CHANNEL_ENABLED));
+        }
+        if (json.containsKey(PROP_CONSUMER_HEARTBEAT_ENABLED)) {
+            builder.consumerHeartbeatEnabled(json.getBoolean(PROP_CONSUMER_HEARTBEAT_ENABLED));
+        }
+        if (json.containsKey(PROP_CHECK_QUEUES_PER_SEC)) {
+            builder.checkQueuesPerSec(json.getInteger(PROP_CHECK_QUEUES_PER_SEC));
+        }
+        if (json.containsKey(PROP_CHECK_PARTITIONS)) {
+            builder.checkPartitions(json.getInteger(PROP_CHECK_PARTITIONS));
+        }
+        if (json.containsKey(PROP_CONSUMER_LOCATION_CACHE_SIZE)) {
+            builder.consumerLocationCacheSize(json.getInteger(PROP_CONSUMER_LOCATION_CACHE_SIZE));
+        }
+        if (json.containsKey(PROP_TIMESTAMP_COALESCING_PCT)) {
+            builder.timestampCoalescingPercent(json.getInteger(PROP_TIMESTAMP_COALESCING_PCT));
+        }
+        if (json.containsKey(PROP_NOTIFICATION_DEDUP_ENABLED)) {
+            builder.notificationDedupEnabled(json.getBoolean(PROP_NOTIFICATION_DEDUP_ENABLED));
+        }
+        if (json.containsKey(PROP_MAX_IN_FLIGHT)) {
+            builder.maxInFlight(json.getInteger(PROP_MAX_IN_FLIGHT));
+        }
+        if (json.containsKey(PROP_QUEUE_CONFIGURATION_CACHE_SIZE)) {
+            builder.queueConfigurationCacheSize(json.getInteger(PROP_QUEUE_CONFIGURATION_CACHE_SIZE));
+        }
+        if (json.containsKey(PROP_DELAYED_MOVE_INTERVAL_MS)) {
+            builder.delayedMoveIntervalMs(json.getInteger(PROP_DELAYED_MOVE_INTERVAL_MS));
+        }
+        if (json.containsKey(PROP_DELAYED_SHARDS)) {
+            builder.delayedShards(json.getInteger(PROP_DELAYED_SHARDS));
+        }
+        if (json.containsKey(PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE)) {
+            builder.httpRequestHandlerMaxLineSize(json.getInteger(PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE));
+        }
         return builder.build();
     }
 
@@ -608,6 +838,54 @@ public class RedisquesConfiguration {
         return memoryUsageCheckIntervalSec;
     }
 
+    public boolean getWakeupChannelEnabled() {
+        return wakeupChannelEnabled;
+    }
+
+    public boolean getConsumerHeartbeatEnabled() {
+        return consumerHeartbeatEnabled;
+    }
+
+    public int getCheckQueuesPerSec() {
+        return checkQueuesPerSec;
+    }
+
+    public int getCheckPartitions() {
+        return checkPartitions;
+    }
+
+    public int getConsumerLocationCacheSize() {
+        return consumerLocationCacheSize;
+    }
+
+    public int getTimestampCoalescingPercent() {
+        return timestampCoalescingPercent;
+    }
+
+    public boolean getNotificationDedupEnabled() {
+        return notificationDedupEnabled;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getQueueConfigurationCacheSize() {
+        return queueConfigurationCacheSize;
+    }
+
+    public int getDelayedMoveIntervalMs() {
+        return delayedMoveIntervalMs;
+    }
+
+    public int getDelayedShards() {
+        return delayedShards;
+    }
+
+    public int getHttpRequestHandlerMaxLineSize() {
+        return httpRequestHandlerMaxLineSize;
+    }
+
     @Override
     public String toString() {
         return asJsonObject().toString();
@@ -659,6 +937,18 @@ public class RedisquesConfiguration {
 
         private int memoryUsageLimitPercent;
         private int memoryUsageCheckIntervalSec;
+        private boolean wakeupChannelEnabled;
+        private boolean consumerHeartbeatEnabled;
+        private int checkQueuesPerSec;
+        private int checkPartitions;
+        private int consumerLocationCacheSize;
+        private int timestampCoalescingPercent;
+        private boolean notificationDedupEnabled;
+        private int maxInFlight;
+        private int queueConfigurationCacheSize;
+        private int delayedMoveIntervalMs;
+        private int delayedShards;
+        private int httpRequestHandlerMaxLineSize;
 
         public RedisquesConfigurationBuilder() {
             this.address = "redisques";
@@ -691,6 +981,18 @@ public class RedisquesConfiguration {
             this.queueSpeedIntervalSec = DEFAULT_QUEUE_SPEED_INTERVAL_SEC;
             this.memoryUsageLimitPercent = DEFAULT_MEMORY_USAGE_LIMIT_PCT;
             this.memoryUsageCheckIntervalSec = DEFAULT_MEMORY_USAGE_CHECK_INTERVAL_SEC;
+            this.wakeupChannelEnabled = DEFAULT_WAKEUP_CHANNEL_ENABLED;
+            this.consumerHeartbeatEnabled = DEFAULT_CONSUMER_HEARTBEAT_ENABLED;
+            this.checkQueuesPerSec = DEFAULT_CHECK_QUEUES_PER_SEC;
+            this.checkPartitions = DEFAULT_CHECK_PARTITIONS;
+            this.consumerLocationCacheSize = DEFAULT_CONSUMER_LOCATION_CACHE_SIZE;
+            this.timestampCoalescingPercent = DEFAULT_TIMESTAMP_COALESCING_PCT;
+            this.notificationDedupEnabled = DEFAULT_NOTIFICATION_DEDUP_ENABLED;
+            this.maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+            this.queueConfigurationCacheSize = DEFAULT_QUEUE_CONFIGURATION_CACHE_SIZE;
+            this.delayedMoveIntervalMs = DEFAULT_DELAYED_MOVE_INTERVAL_MS;
+            this.delayedShards = DEFAULT_DELAYED_SHARDS;
+            this.httpRequestHandlerMaxLineSize = DEFAULT_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE;
         }
 
         public RedisquesConfigurationBuilder address(String address) {
@@ -868,6 +1170,66 @@ public class RedisquesConfiguration {
             return this;
         }
 
+        public RedisquesConfigurationBuilder wakeupChannelEnabled(boolean wakeupChannelEnabled) {
+            this.wakeupChannelEnabled = wakeupChannelEnabled;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder consumerHeartbeatEnabled(boolean consumerHeartbeatEnabled) {
+            this.consumerHeartbeatEnabled = consumerHeartbeatEnabled;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder checkQueuesPerSec(int checkQueuesPerSec) {
+            this.checkQueuesPerSec = checkQueuesPerSec;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder checkPartitions(int checkPartitions) {
+            this.checkPartitions = checkPartitions;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder consumerLocationCacheSize(int consumerLocationCacheSize) {
+            this.consumerLocationCacheSize = consumerLocationCacheSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder timestampCoalescingPercent(int timestampCoalescingPercent) {
+            this.timestampCoalescingPercent = timestampCoalescingPercent;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder notificationDedupEnabled(boolean notificationDedupEnabled) {
+            this.notificationDedupEnabled = notificationDedupEnabled;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder queueConfigurationCacheSize(int queueConfigurationCacheSize) {
+            this.queueConfigurationCacheSize = queueConfigurationCacheSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder delayedMoveIntervalMs(int delayedMoveIntervalMs) {
+            this.delayedMoveIntervalMs = delayedMoveIntervalMs;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder delayedShards(int delayedShards) {
+            this.delayedShards = delayedShards;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder httpRequestHandlerMaxLineSize(int httpRequestHandlerMaxLineSize) {
+            this.httpRequestHandlerMaxLineSize = httpRequestHandlerMaxLineSize;
+            return this;
+        }
+
         public RedisquesConfiguration build() {
             return new RedisquesConfiguration(this);
         }
@@ -0,0 +1,51 @@
+package org.swisspush.redisques.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes the delay before a failed queue is retried from its {@link QueueConfiguration}. The retry intervals are
+ * used one after the other, then the last interval is doubled with each further failure up to
+ * {@link QueueConfiguration#getRetryBackoffMaxSeconds()}. The jitter shortens the delay by a random part, so the
+ * queues of a failing processor do not all retry at the same moment.
+ * <p>
+ * Thread safe.
+ */
+public class RetryBackoff {
+
+    private RetryBackoff() {
+    }
+
+    /**
+     * @param failureCount the number of consecutive failures of the queue, at least 1
+     * @return the retry interval [s] after the given number of failures or <code>null</code> when the queue
+     * configuration has no retry intervals
+     */
+    public static Integer retryInterval(QueueConfiguration queueConfiguration, long failureCount) {
+        int[] retryIntervals = queueConfiguration.getRetryIntervals();
+        if (retryIntervals == null || retryIntervals.length == 0) {
+            return null;
+        }
+        if (failureCount <= retryIntervals.length) {
+            return retryIntervals[(int) Math.max(0, failureCount - 1)];
+        }
+        int lastInterval = retryIntervals[retryIntervals.length - 1];
+        int maxInterval = queueConfiguration.getRetryBackoffMaxSeconds();
+        if (maxInterval <= lastInterval) {
+            return lastInterval;
+        }
+        // avoid an overflow of the shift with long failure streaks
+        long doublings = Math.min(failureCount - retryIntervals.length, 31);
+        return (int) Math.min(maxInterval, (long) lastInterval << doublings);
+    }
+
+    /**
+     * @return the given delay [ms] shortened by a random part of up to the retry jitter of the queue configuration
+     */
+    public static long jitter(QueueConfiguration queueConfiguration, long delayMs) {
+        if (queueConfiguration == null || queueConfiguration.getRetryJitter() <= 0f || delayMs <= 0) {
+            return delayMs;
+        }
+        long maxJitter = (long) (delayMs * queueConfiguration.getRetryJitter());
+        return delayMs - ThreadLocalRandom.current().nextLong(maxJitter + 1);
+    }
+}
@@ -0,0 +1,184 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel driving any number of timeouts from a single vertx periodic timer.
+ * <p>
+ * Each slot of the wheel holds a doubly linked list of the timeouts expiring in the ticks mapped to this slot,
+ * so scheduling and cancelling a timeout is O(1). The periodic timer only runs while timeouts are pending.
+ * Timeouts expire with the precision of one tick, never earlier than their delay.
+ * <p>
+ * Not thread safe. The wheel must only be used from the vertx context it has been created on (e.g. the context
+ * of the verticle), where the handlers of the timeouts are executed as well.
+ */
+public class TimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final Vertx vertx;
+    private final long tickMs;
+    private final long tickNanos;
+    private final Slot[] wheel;
+    private final int mask;
+
+    private long startNanos;
+    // the next tick to process
+    private long tick;
+    private long periodicId = -1;
+    private int pending;
+
+    /**
+     * @param tickMs    the duration of a tick in milliseconds
+     * @param wheelSize the number of slots of the wheel, rounded up to the next power of two. Timeouts longer
+     *                  than one turn of the wheel stay in their slot for multiple turns.
+     */
+    public TimingWheel(Vertx vertx, long tickMs, int wheelSize) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be greater than 0");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30");
+        }
+        this.vertx = vertx;
+        this.tickMs = tickMs;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheel = new Slot[wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = wheel.length - 1;
+    }
+
+    /**
+     * Schedules the handler to be executed after the given delay.
+     *
+     * @return the {@link Timeout}, which can be cancelled
+     */
+    public Timeout schedule(long delayMs, Handler<Void> handler) {
+        long now = System.nanoTime();
+        if (periodicId == -1) {
+            startNanos = now;
+            tick = 0;
+            periodicId = vertx.setPeriodic(tickMs, id -> advance());
+        }
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        // round up, so the timeout never expires before its delay
+        long deadline = (now - startNanos + delayNanos + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(handler, Math.max(deadline, tick));
+        timeout.slot = wheel[(int) (timeout.deadline & mask)];
+        timeout.slot.add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * @return the number of scheduled timeouts which are neither expired nor cancelled
+     */
+    public int pending() {
+        return pending;
+    }
+
+    private void advance() {
+        long target = (System.nanoTime() - startNanos) / tickNanos;
+        while (tick <= target && pending > 0) {
+            Slot slot = wheel[(int) (tick & mask)];
+            List<Timeout> expired = new ArrayList<>();
+            Timeout timeout = slot.head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.deadline <= tick) {
+                    slot.remove(timeout);
+                    pending--;
+                    expired.add(timeout);
+                }
+                timeout = next;
+            }
+            // handlers scheduling new timeouts must not end up in the processed tick
+            tick++;
+            for (Timeout expiredTimeout : expired) {
+                expiredTimeout.expire();
+            }
+        }
+        if (pending == 0) {
+            vertx.cancelTimer(periodicId);
+            periodicId = -1;
+        }
+    }
+
+    /**
+     * A scheduled handler of the {@link TimingWheel}.
+     */
+    public class Timeout {
+        private final Handler<Void> handler;
+        private final long deadline;
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Handler<Void> handler, long deadline) {
+            this.handler = handler;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout. Has no effect when the timeout is already expired or cancelled.
+         *
+         * @return <code>true</code> when the timeout has been cancelled by this call
+         */
+        public boolean cancel() {
+            if (slot == null) {
+                return false;
+            }
+            slot.remove(this);
+            pending--;
+            return true;
+        }
+
+        private void expire() {
+            try {
+                handler.handle(null);
+            } catch (RuntimeException ex) {
+                log.error("Handler of timeout failed", ex);
+            }
+        }
+    }
+
+    private static class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisAPI;
+import io.vertx.redis.client.RedisConnection;
+import io.vertx.redis.client.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Subscribes to the redis pub/sub wakeup channel with a dedicated connection and passes the received
+ * messages to the given handler. The subscription is re-established when the connection is lost.
+ * <p>
+ * A connection in subscribed state cannot execute other commands. Therefore, it is not taken from the pool
+ * of the {@link RedisProvider} but from a separate client.
+ */
+public class WakeupChannelSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(WakeupChannelSubscriber.class);
+
+    private final Vertx vertx;
+    private final RedisquesConfigurationProvider configurationProvider;
+    private final String channel;
+    private final long resubscribeDelayMs;
+    private final Handler<String> messageHandler;
+    private Redis redis;
+    private RedisConnection connection;
+    private boolean stopped;
+
+    public WakeupChannelSubscriber(Vertx vertx, RedisquesConfigurationProvider configurationProvider, String channel,
+                                   long resubscribeDelayMs, Handler<String> messageHandler) {
+        this.vertx = vertx;
+        this.configurationProvider = configurationProvider;
+        this.channel = channel;
+        this.resubscribeDelayMs = resubscribeDelayMs;
+        this.messageHandler = messageHandler;
+    }
+
+    public Future<Void> subscribe() {
+        if (redis == null) {
+            redis = Redis.createClient(vertx, DefaultRedisProvider.createRedisOptions(configurationProvider.configuration())
+                    .setMaxPoolSize(1));
+        }
+        return redis.connect()
+                .compose(conn -> {
+                    if (stopped) {
+                        conn.close();
+                        return Future.succeededFuture();
+                    }
+                    connection = conn;
+                    conn.handler(this::handleResponse);
+                    conn.exceptionHandler(ex -> {
+                        log.warn("Wakeup channel connection broken", ex);
+                        resubscribe(conn);
+                    });
+                    conn.endHandler(v -> resubscribe(conn));
+                    return RedisAPI.api(conn).subscribe(List.of(channel)).<Void>mapEmpty();
+                })
+                .onSuccess(v -> log.info("Subscribed to wakeup channel {}", channel))
+                .onFailure(ex -> {
+                    log.warn("Unable to subscribe to wakeup channel {}. Retry in {}ms", channel, resubscribeDelayMs, ex);
+                    resubscribe(connection);
+                });
+    }
+
+    public void close() {
+        stopped = true;
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        if (redis != null) {
+            redis.close();
+            redis = null;
+        }
+    }
+
+    private void resubscribe(RedisConnection brokenConnection) {
+        if (stopped || connection != brokenConnection) {
+            // stopped or already resubscribing
+            return;
+        }
+        connection = null;
+        if (brokenConnection != null) {
+            brokenConnection.close();
+        }
+        vertx.setTimer(resubscribeDelayMs, timerId -> subscribe());
+    }
+
+    private void handleResponse(Response response) {
+        // pub/sub messages are pushed as ["message", channel, payload]
+        if (response.size() == 3 && "message".equals(response.get(0).toString())) {
+            messageHandler.handle(response.get(2).toString());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- Splits the queues which look inactive (not updated since the given limit) into partitions of about the
+-- same size, so the check of the partitions can be distributed over multiple instances.
+--
+-- KEYS[1] the queues key (sorted set of the queue names scored by the last update timestamp)
+-- KEYS[2] the key of the list holding the partition bounds
+-- ARGV[1] the limit timestamp, queues with a lower or equal score are inactive
+-- ARGV[2] the number of partitions
+-- ARGV[3] the expiry of the partition bounds in seconds
+--
+-- Returns the bounds of the partitions, which are stored in KEYS[2]. Partition p contains the scores
+-- greater than bound p (the first one '-inf' inclusive) and lower or equal than bound p + 1. Returns
+-- nothing when there are no inactive queues.
+
+redis.call('DEL', KEYS[2])
+local count = redis.call('ZCOUNT', KEYS[1], '-inf', ARGV[1])
+if count == 0 then
+    return {}
+end
+
+local partitions = tonumber(ARGV[2])
+local bounds = {'-inf'}
+for p = 1, partitions - 1 do
+    local first = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', math.floor(p * count / partitions), 1)
+    table.insert(bounds, first[2])
+end
+table.insert(bounds, ARGV[1])
+
+redis.call('RPUSH', KEYS[2], unpack(bounds))
+redis.call('EXPIRE', KEYS[2], ARGV[3])
+return bounds
@@ -0,0 +1,41 @@
+-- Checks a chunk of the queues which look inactive (not updated since the given limit). With a lower bound,
+-- only the queues of a partition of the inactive queues are checked.
+--
+-- Not empty queues get the current timestamp and their registration is refreshed. Empty queues are removed
+-- from the queues sorted set. This way each checked queue leaves the range of inactive queues, so the range
+-- itself is the cursor of the check: calling the script again continues with the next chunk.
+--
+-- KEYS[1] the queues key (sorted set of the queue names scored by the last update timestamp)
+-- ARGV[1] the limit timestamp, queues with a lower or equal score are inactive
+-- ARGV[2] the max number of queues to check
+-- ARGV[3] the current timestamp
+-- ARGV[4] the prefix of the queue keys
+-- ARGV[5] the prefix of the consumer keys
+-- ARGV[6] the consumer lock time in seconds, 0 when the registration is kept by the instance heartbeat
+-- ARGV[7] the prefix of the heartbeat keys, only used with lock time 0
+-- ARGV[8] the lower bound of the scores in the syntax of ZRANGEBYSCORE (e.g. '-inf' or '(1700000000000')
+--
+-- Returns {queues, consumers, removed} where queues are the not empty queues to notify, consumers their
+-- registered consumers ('' when there is none) and removed the empty queues
+
+local queues = {}
+local consumers = {}
+local removed = {}
+for _, queueName in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[8], ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))) do
+    if redis.call('EXISTS', ARGV[4] .. queueName) == 1 then
+        redis.call('ZADD', KEYS[1], ARGV[3], queueName)
+        local consumerKey = ARGV[5] .. queueName
+        local consumer = redis.call('GET', consumerKey)
+        if consumer and ARGV[6] ~= '0' then
+            redis.call('EXPIRE', consumerKey, ARGV[6])
+        elseif consumer and redis.call('EXISTS', ARGV[7] .. consumer) == 0 then
+            consumer = false
+        end
+        table.insert(queues, queueName)
+        table.insert(consumers, consumer or '')
+    else
+        redis.call('ZREM', KEYS[1], queueName)
+        table.insert(removed, queueName)
+    end
+end
+return {queues, consumers, removed}
@@ -0,0 +1,58 @@
+-- Single roundtrip consume step of a queue.
+--
+-- Removes the given number of already processed items from the head of the queue and forgets the failed
+-- attempts of the first one, which is the only one that may have failed before. Then checks that the
+-- calling consumer is still the registered consumer of the queue, refreshes its registration, checks
+-- whether the queue is locked and peeks the given number of items from the head of the queue.
+--
+-- When the registration is kept alive by the heartbeat of the consumer instance (lock time 0), the
+-- registration has no expiry and is released as soon as the queue is empty.
+--
+-- KEYS[1] the consumer key of the queue
+-- KEYS[2] the locks key
+-- KEYS[3] the queue key
+-- KEYS[4] the attempts of the messages of the queue
+-- ARGV[1] the uid of the calling consumer
+-- ARGV[2] the consumer lock time in seconds, 0 when the registration is kept by the instance heartbeat
+-- ARGV[3] the name of the queue
+-- ARGV[4] the number of processed items to remove from the head of the queue first
+-- ARGV[5] the number of items to peek from the head of the queue
+-- ARGV[6] the id of the first processed item in the attempts, empty when its attempts are not counted
+--
+-- Returns {status, consumer, length, items...} where length is the queue length after the removal and
+-- status is one of
+--   'notOwner' the queue is registered to another (or no) consumer which is returned as consumer
+--   'released' the queue is empty and the registration has been released (lock time 0 only)
+--   'locked'   the queue is locked
+--   'ok'       items are the peeked items, none when the queue is empty
+
+local processed = tonumber(ARGV[4])
+if processed > 0 then
+    redis.call('LTRIM', KEYS[3], processed, -1)
+    if ARGV[6] ~= '' then
+        redis.call('HDEL', KEYS[4], ARGV[6])
+    end
+end
+local length = redis.call('LLEN', KEYS[3])
+
+local consumer = redis.call('GET', KEYS[1])
+if consumer ~= ARGV[1] then
+    return {'notOwner', consumer, length}
+end
+
+if ARGV[2] ~= '0' then
+    redis.call('EXPIRE', KEYS[1], ARGV[2])
+elseif length == 0 then
+    redis.call('DEL', KEYS[1])
+    return {'released', consumer, length}
+end
+
+if redis.call('HEXISTS', KEYS[2], ARGV[3]) == 1 then
+    return {'locked', consumer, length}
+end
+
+local result = {'ok', consumer, length}
+for _, item in ipairs(redis.call('LRANGE', KEYS[3], 0, tonumber(ARGV[5]) - 1)) do
+    table.insert(result, item)
+end
+return result
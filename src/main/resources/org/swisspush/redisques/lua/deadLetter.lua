@@ -0,0 +1,31 @@
+-- Moves a failed message to the dead letters of its queue and removes it from the list holding it in one step, so
+-- the message is neither lost nor processed again.
+--
+-- Nothing is moved when the message is no longer at the expected place, e.g. because the queue was deleted or the
+-- lease of the processing list has expired and its items have already been moved back.
+--
+-- KEYS[1] the queue key or the processing list of the calling instance for the queue
+-- KEYS[2] the dead letters of the queue
+-- KEYS[3] the attempts of the messages of the queue
+-- ARGV[1] the message
+-- ARGV[2] the dead letter
+-- ARGV[3] the id of the message in the attempts
+-- ARGV[4] the number of processed items in front of the message which are removed from the queue together with it,
+--         or -1 to remove the message from a processing list
+--
+-- Returns 1 when the message was moved, otherwise 0
+
+local index = tonumber(ARGV[4])
+if index < 0 then
+    if redis.call('LREM', KEYS[1], 1, ARGV[1]) == 0 then
+        return 0
+    end
+else
+    if redis.call('LINDEX', KEYS[1], index) ~= ARGV[1] then
+        return 0
+    end
+    redis.call('LTRIM', KEYS[1], index + 1, -1)
+end
+redis.call('RPUSH', KEYS[2], ARGV[2])
+redis.call('HDEL', KEYS[3], ARGV[3])
+return 1
@@ -0,0 +1,31 @@
+-- Single roundtrip enqueue of an item.
+--
+-- Optionally locks the queue first, updates the timestamp of the queue when given, appends the item to the queue
+-- and looks up the registered consumer of the queue.
+--
+-- KEYS[1] the queues key
+-- KEYS[2] the queue key
+-- KEYS[3] the consumer key of the queue
+-- KEYS[4] the locks key (only used when a lock info is given)
+-- ARGV[1] the name of the queue
+-- ARGV[2] the timestamp of the queue or '' to leave the timestamp unchanged
+-- ARGV[3] the item to enqueue
+-- ARGV[4] the prefix of the heartbeat keys or '' when the registrations expire by themselves
+-- ARGV[5] the lock info to lock the queue with, optional
+--
+-- Returns {length, consumer} where length is the queue length after the enqueue and consumer is the
+-- registered consumer of the queue, false (nil reply) when no living consumer is registered
+
+if ARGV[5] then
+    redis.call('HSET', KEYS[4], ARGV[1], ARGV[5])
+end
+if ARGV[2] ~= '' then
+    redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+end
+local length = redis.call('RPUSH', KEYS[2], ARGV[3])
+
+local consumer = redis.call('GET', KEYS[3])
+if consumer and ARGV[4] ~= '' and redis.call('EXISTS', ARGV[4] .. consumer) == 0 then
+    consumer = false
+end
+return {length, consumer}
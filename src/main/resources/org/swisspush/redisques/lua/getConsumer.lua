@@ -0,0 +1,13 @@
+-- Gets the registered consumer of a queue, when it is still alive. A consumer is alive as long as
+-- the heartbeat key of its instance exists.
+--
+-- KEYS[1] the consumer key of the queue
+-- ARGV[1] the prefix of the heartbeat keys
+--
+-- Returns the registered consumer or nil when no living consumer is registered
+
+local consumer = redis.call('GET', KEYS[1])
+if consumer and redis.call('EXISTS', ARGV[1] .. consumer) == 1 then
+    return consumer
+end
+return nil
@@ -0,0 +1,30 @@
+-- Moves a chunk of the due delayed messages of a shard into their queues.
+--
+-- Each delayed message is a JSON object holding the queue name and the message. The message is appended to its
+-- queue, the queue gets the current timestamp and the delayed message is removed from the shard, all in one
+-- atomic step. So a message is moved exactly once, even when several instances move the same shard.
+--
+-- KEYS[1] the sorted set of the delayed messages of the shard, scored by their due timestamp
+-- KEYS[2] the queues key (sorted set of the queue names scored by the last update timestamp)
+-- ARGV[1] the current timestamp, messages with a lower or equal score are due
+-- ARGV[2] the max number of messages to move
+-- ARGV[3] the prefix of the queue keys
+--
+-- Returns {moved, queues} where moved is the number of moved messages and queues are the names of the queues
+-- which got messages
+
+local moved = 0
+local queues = {}
+local seen = {}
+for _, member in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))) do
+    local delayed = cjson.decode(member)
+    redis.call('RPUSH', ARGV[3] .. delayed['queuename'], delayed['message'])
+    redis.call('ZREM', KEYS[1], member)
+    moved = moved + 1
+    if not seen[delayed['queuename']] then
+        seen[delayed['queuename']] = true
+        redis.call('ZADD', KEYS[2], ARGV[1], delayed['queuename'])
+        table.insert(queues, delayed['queuename'])
+    end
+end
+return {moved, queues}
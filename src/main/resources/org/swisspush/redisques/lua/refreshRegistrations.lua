@@ -0,0 +1,25 @@
+-- Refreshes the registrations of a chunk of queues consumed by the calling consumer.
+--
+-- For each queue still registered to the calling consumer, the registration is refreshed and the
+-- timestamp of the queue is updated. Queues registered to another (or no) consumer are returned.
+--
+-- KEYS[1]    the queues key (sorted set of the queue names scored by the last update timestamp)
+-- KEYS[2..n] the consumer keys of the queues
+-- ARGV[1]    the uid of the calling consumer
+-- ARGV[2]    the consumer lock time in seconds
+-- ARGV[3]    the timestamp to set
+-- ARGV[4..n] the names of the queues, in the same order as the consumer keys
+--
+-- Returns the names of the queues which are not registered to the calling consumer anymore
+
+local notOwned = {}
+for i = 2, #KEYS do
+    local queueName = ARGV[i + 2]
+    if redis.call('GET', KEYS[i]) == ARGV[1] then
+        redis.call('EXPIRE', KEYS[i], ARGV[2])
+        redis.call('ZADD', KEYS[1], ARGV[3], queueName)
+    else
+        table.insert(notOwned, queueName)
+    end
+end
+return notOwned
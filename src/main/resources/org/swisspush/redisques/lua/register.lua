@@ -0,0 +1,16 @@
+-- Registers the calling consumer for a queue, unless the queue is registered to another consumer
+-- which is still alive. A consumer is alive as long as the heartbeat key of its instance exists.
+--
+-- KEYS[1] the consumer key of the queue
+-- ARGV[1] the uid of the calling consumer
+-- ARGV[2] the prefix of the heartbeat keys
+--
+-- Returns the registered consumer of the queue, which is the calling consumer when the registration succeeded
+
+local consumer = redis.call('GET', KEYS[1])
+if consumer and consumer ~= ARGV[1] and redis.call('EXISTS', ARGV[2] .. consumer) == 1 then
+    return consumer
+end
+
+redis.call('SET', KEYS[1], ARGV[1])
+return ARGV[1]
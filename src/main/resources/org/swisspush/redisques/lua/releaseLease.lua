@@ -0,0 +1,12 @@
+-- Releases a lease, but only when it is still held by the calling instance. A lease which has expired in between
+-- may already be held by another instance and is kept.
+--
+-- KEYS[1] the lease key
+-- ARGV[1] the uid of the calling instance
+--
+-- Returns 1 when the lease was released, otherwise 0
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
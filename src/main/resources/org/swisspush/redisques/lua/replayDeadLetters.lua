@@ -0,0 +1,21 @@
+-- Appends the dead letters of a queue to the queue again and removes them from the dead letters in one step, so
+-- concurrent replays neither duplicate nor drop dead letters.
+--
+-- KEYS[1] the dead letters of the queue
+-- KEYS[2] the queue key
+-- KEYS[3] the queues key
+-- ARGV[1] the name of the queue
+-- ARGV[2] the timestamp of the queue
+--
+-- Returns the number of replayed dead letters
+
+local deadLetters = redis.call('LRANGE', KEYS[1], 0, -1)
+if #deadLetters == 0 then
+    return 0
+end
+for _, deadLetter in ipairs(deadLetters) do
+    redis.call('RPUSH', KEYS[2], cjson.decode(deadLetter)['payload'])
+end
+redis.call('DEL', KEYS[1])
+redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1])
+return #deadLetters
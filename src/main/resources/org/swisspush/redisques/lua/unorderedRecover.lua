@@ -0,0 +1,29 @@
+-- Recovers the items of the processing lists with an expired lease, e.g. of a crashed instance.
+--
+-- The items are moved back to the head of their queue, keeping their order, and the queue gets the current
+-- timestamp. The leases are removed.
+--
+-- KEYS[1] the leases key (sorted set of the processing lists scored by the deadline of their lease)
+-- KEYS[2] the queues key (sorted set of the queue names scored by the last update timestamp)
+-- ARGV[1] the current timestamp, leases with a lower or equal deadline are expired
+-- ARGV[2] the max number of leases to recover
+-- ARGV[3] the prefix of the processing list keys
+-- ARGV[4] the prefix of the queue keys
+--
+-- Returns the names of the queues which got items back
+
+local queues = {}
+for _, lease in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))) do
+    -- the lease is '<uid>:<queue name>' where the uid contains no colon
+    local queueName = string.sub(lease, string.find(lease, ':', 1, true) + 1)
+    local moved = 0
+    while redis.call('LMOVE', ARGV[3] .. lease, ARGV[4] .. queueName, 'RIGHT', 'LEFT') do
+        moved = moved + 1
+    end
+    redis.call('ZREM', KEYS[1], lease)
+    if moved > 0 then
+        redis.call('ZADD', KEYS[2], ARGV[1], queueName)
+        table.insert(queues, queueName)
+    end
+end
+return queues
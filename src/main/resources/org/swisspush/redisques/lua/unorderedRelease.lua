@@ -0,0 +1,16 @@
+-- Moves a failed item of a queue which is not ordered from the processing list back to the head of the queue.
+--
+-- Nothing is moved when the item is no longer in the processing list, e.g. because the lease of the processing
+-- list has expired and its items have already been moved back.
+--
+-- KEYS[1] the processing list of the calling instance for the queue
+-- KEYS[2] the queue key
+-- ARGV[1] the item
+--
+-- Returns 1 when the item was moved back, otherwise 0
+
+if redis.call('LREM', KEYS[1], 1, ARGV[1]) == 0 then
+    return 0
+end
+redis.call('LPUSH', KEYS[2], ARGV[1])
+return 1
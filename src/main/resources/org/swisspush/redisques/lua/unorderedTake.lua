@@ -0,0 +1,33 @@
+-- Takes items of a queue which is not ordered into the processing list of the calling instance.
+--
+-- Moves up to the given number of items from the head of the queue to the processing list with LMOVE, so an
+-- item is either in the queue or in exactly one processing list. The lease of the processing list is renewed
+-- with the given deadline. Its items are moved back to the queue when the lease expires (see unorderedRecover.lua).
+--
+-- KEYS[1] the locks key
+-- KEYS[2] the queue key
+-- KEYS[3] the processing list of the calling instance for the queue
+-- KEYS[4] the leases key (sorted set of the processing lists scored by the deadline of their lease)
+-- ARGV[1] the name of the queue
+-- ARGV[2] the max number of items to take
+-- ARGV[3] the lease of the processing list (the processing list key without prefix)
+-- ARGV[4] the deadline timestamp of the lease
+--
+-- Returns the taken items, none when the queue is empty or locked
+
+if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then
+    return {}
+end
+
+local items = {}
+for i = 1, tonumber(ARGV[2]) do
+    local item = redis.call('LMOVE', KEYS[2], KEYS[3], 'LEFT', 'RIGHT')
+    if not item then
+        break
+    end
+    table.insert(items, item)
+end
+if #items > 0 then
+    redis.call('ZADD', KEYS[4], ARGV[4], ARGV[3])
+end
+return items
@@ -0,0 +1,255 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisAPI;
+import io.vertx.redis.client.Response;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.DefaultRedisProvider;
+import org.swisspush.redisques.util.DefaultRedisquesConfigurationProvider;
+import org.swisspush.redisques.util.RedisProvider;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import org.swisspush.redisques.util.RedisquesConfigurationProvider;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the consumer registration enabled with {@link RedisquesConfiguration#getConsumerHeartbeatEnabled()}.
+ */
+public class RedisQuesConsumerHeartbeatTest extends AbstractTestCase {
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .consumerHeartbeatEnabled(true)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    private String getHeartbeatsRedisKeyPrefix() {
+        return getRedisPrefix() + "heartbeats:";
+    }
+
+    @Test
+    public void registrationShouldBeKeptByHeartbeat(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "heartbeatQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            if (processed.size() == 1) {
+                // keep the queue consuming, so the registration is not released
+                vertx.setTimer(5000, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        eventBusSend(buildEnqueueOperation(queue, "world"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+
+        String consumer = jedis.get(getConsumersRedisKeyPrefix() + queue);
+        context.assertNotNull(consumer);
+        context.assertEquals(-1L, jedis.ttl(getConsumersRedisKeyPrefix() + queue));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(
+                () -> jedis.ttl(getHeartbeatsRedisKeyPrefix() + consumer) > 0, equalTo(true));
+
+        // released when the queue is empty
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(2));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(
+                () -> jedis.exists(getConsumersRedisKeyPrefix() + queue), equalTo(false));
+        context.assertEquals(List.of("hello", "world"), processed);
+        async.complete();
+    }
+
+    @Test
+    public void registrationOfConsumerWithoutHeartbeatShouldBeTakenOver(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "heartbeatQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        jedis.set(getConsumersRedisKeyPrefix() + queue, "deadConsumer");
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+        context.assertEquals("hello", processed.get(0));
+        async.complete();
+    }
+
+    @Test
+    public void registrationOfConsumerWithHeartbeatShouldBeRespected(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "heartbeatQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        jedis.set(getConsumersRedisKeyPrefix() + queue, "otherConsumer");
+        jedis.set(getHeartbeatsRedisKeyPrefix() + "otherConsumer", "1");
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().pollDelay(Duration.ofSeconds(1)).atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(0));
+        context.assertEquals("otherConsumer", jedis.get(getConsumersRedisKeyPrefix() + queue));
+
+        // the other consumer died
+        jedis.del(getHeartbeatsRedisKeyPrefix() + "otherConsumer");
+        eventBusSend(buildEnqueueOperation(queue, "world"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(2));
+        context.assertEquals(List.of("hello", "world"), processed);
+        async.complete();
+    }
+
+    @Test
+    public void heartbeatShouldBeKeptWhileTheRefreshIsSlow(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        // redeploy with a refresh which takes longer than the expiry of the heartbeat
+        Async redeployed = context.async();
+        vertx.undeploy(deploymentId, context.asyncAssertSuccess(v -> {
+            JsonObject config = RedisquesConfiguration.with()
+                    .processorAddress(PROCESSOR_ADDRESS)
+                    .refreshPeriod(1)
+                    .consumerHeartbeatEnabled(true)
+                    .build()
+                    .asJsonObject();
+            RedisquesConfigurationProvider configurationProvider = new DefaultRedisquesConfigurationProvider(vertx, config);
+            RedisQues redisQues = RedisQues.builder()
+                    .withRedisquesRedisquesConfigurationProvider(configurationProvider)
+                    .withRedisProvider(new SlowTimestampsRedisProvider(new DefaultRedisProvider(vertx, configurationProvider), 6000))
+                    .build();
+            vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+                deploymentId = event;
+                redeployed.complete();
+            }));
+        }));
+        redeployed.awaitSuccess();
+
+        String queue = "heartbeatQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        // never replies, so the queue keeps consuming and its timestamp is refreshed
+        queueProcessor.handler(message -> processed.add(message.body().getString(PAYLOAD)));
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+        String consumer = jedis.get(getConsumersRedisKeyPrefix() + queue);
+        context.assertNotNull(consumer);
+
+        // the heartbeat expires after 2 periods, while the first refresh of the timestamps takes 6 periods
+        for (int i = 0; i < 5; i++) {
+            delay(1000);
+            context.assertTrue(jedis.exists(getHeartbeatsRedisKeyPrefix() + consumer), "heartbeat expired");
+        }
+        async.complete();
+    }
+
+    /**
+     * Delays the refresh of the queue timestamps.
+     */
+    private class SlowTimestampsRedisProvider implements RedisProvider {
+
+        private final RedisProvider redisProvider;
+        private final long delayMs;
+        private RedisAPI slowRedisAPI;
+
+        SlowTimestampsRedisProvider(RedisProvider redisProvider, long delayMs) {
+            this.redisProvider = redisProvider;
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public synchronized Future<RedisAPI> redis() {
+            if (slowRedisAPI != null) {
+                return Future.succeededFuture(slowRedisAPI);
+            }
+            return redisProvider.redis().map(redisAPI -> {
+                synchronized (this) {
+                    if (slowRedisAPI == null) {
+                        slowRedisAPI = mock(RedisAPI.class, delegatesTo(redisAPI));
+                        doAnswer(invocation -> {
+                            @SuppressWarnings("unchecked")
+                            List<String> args = (List<String>) invocation.getArguments()[0];
+                            if (!args.get(0).equals(getRedisPrefix() + "queues")) {
+                                return redisAPI.zadd(args);
+                            }
+                            Promise<Response> promise = Promise.promise();
+                            vertx.setTimer(delayMs, timerId -> redisAPI.zadd(args).onComplete(promise));
+                            return promise.future();
+                        }).when(slowRedisAPI).zadd(anyListOf(String.class));
+                    }
+                    return slowRedisAPI;
+                }
+            });
+        }
+
+        @Override
+        public Future<Redis> connection() {
+            return redisProvider.connection();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the limit of messages processed at the same time ({@link RedisquesConfiguration#getMaxInFlight()})
+ * and the priorities of the queues ({@link QueueConfiguration#getPriority()}).
+ */
+public class RedisQuesDispatchLimitTest extends AbstractTestCase {
+
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .maxInFlight(MAX_IN_FLIGHT)
+                .queueConfigurations(List.of(new QueueConfiguration().withPattern("high-.*").withPriority(5)))
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void processedMessagesShouldNotExceedTheLimit(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        queueProcessor.handler(message -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            vertx.setTimer(20, timerId -> {
+                inFlight.decrementAndGet();
+                processed.incrementAndGet();
+                message.reply(new JsonObject().put(STATUS, OK));
+            });
+        });
+
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 3; j++) {
+                eventBusSend(buildEnqueueOperation("limitedQueue" + i, "message" + j), reply ->
+                        context.assertEquals(OK, reply.result().body().getString(STATUS)));
+            }
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::get, equalTo(30));
+        context.assertEquals(MAX_IN_FLIGHT, maxInFlight.get());
+        async.complete();
+    }
+
+    @Test
+    public void queuesWithHigherPriorityShouldBeDispatchedFirst(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            String queue = message.body().getString("queue");
+            processed.add(queue);
+            // occupy all slots until the other queues are waiting
+            long delay = queue.startsWith("blocker-") ? 500 : 1;
+            vertx.setTimer(delay, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+        });
+
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            eventBusSend(buildEnqueueOperation("blocker-" + i, "blocker"), reply -> {});
+        }
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(MAX_IN_FLIGHT));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            eventBusSend(buildEnqueueOperation("low-" + i, "message"), reply -> {});
+        }
+        for (int i = 0; i < 3; i++) {
+            expected.add("high-" + i);
+            eventBusSend(buildEnqueueOperation("high-" + i, "message"), reply -> {});
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(MAX_IN_FLIGHT + 6));
+        context.assertEquals(new HashSet<>(expected), new HashSet<>(processed.subList(MAX_IN_FLIGHT, MAX_IN_FLIGHT + 3)));
+
+        eventBusSend(buildGetDispatchStatisticsOperation(), reply -> {
+            JsonArray priorities = reply.result().body().getJsonArray(STATISTIC_PRIORITIES);
+            context.assertEquals(2, priorities.size());
+            JsonObject high = priorities.getJsonObject(0);
+            context.assertEquals(5, high.getInteger(STATISTIC_PRIORITY));
+            context.assertEquals(3L, high.getLong(STATISTIC_DISPATCHED));
+            context.assertTrue(high.getLong(STATISTIC_WAIT_TIME_MAX) > 0);
+            JsonObject low = priorities.getJsonObject(1);
+            context.assertEquals(0, low.getInteger(STATISTIC_PRIORITY));
+            context.assertEquals(6L, low.getLong(STATISTIC_DISPATCHED));
+            async.complete();
+        });
+    }
+}
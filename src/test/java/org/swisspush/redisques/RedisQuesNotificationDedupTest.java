@@ -0,0 +1,134 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the notification deduplication enabled with {@link RedisquesConfiguration#getNotificationDedupEnabled()}.
+ */
+public class RedisQuesNotificationDedupTest extends AbstractTestCase {
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .notificationDedupEnabled(true)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void notificationsOfConsumingQueueShouldBeDeduplicated(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "dedupQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            if (processed.size() == 1) {
+                // keep the queue consuming while the other messages are enqueued
+                vertx.setTimer(500, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        List<String> expected = new ArrayList<>();
+        expected.add("message0");
+        eventBusSend(buildEnqueueOperation(queue, "message0"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+
+        // the queue is being consumed by the registered consumer now
+        for (int i = 1; i < 20; i++) {
+            expected.add("message" + i);
+            eventBusSend(buildEnqueueOperation(queue, "message" + i), reply ->
+                    context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(20));
+        context.assertEquals(expected, processed);
+
+        eventBusSend(buildGetNotificationStatisticsOperation(), reply -> {
+            JsonObject body = reply.result().body();
+            context.assertEquals(OK, body.getString(STATUS));
+            context.assertTrue(body.getLong(STATISTIC_NOTIFICATIONS_SENT) > 0);
+            long saved = body.getLong(STATISTIC_NOTIFICATIONS_SUPPRESSED)
+                    + body.getLong(STATISTIC_NOTIFICATIONS_DEDUPLICATED);
+            context.assertTrue(saved > 0, "suppressed or deduplicated notifications expected but got " + body);
+            async.complete();
+        });
+    }
+
+    @Test
+    public void messagesEnqueuedDuringLastConsumeStepShouldBeProcessed(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "dedupQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            processed.add(payload);
+            if ("first".equals(payload)) {
+                // enqueued right before the queue is found empty
+                eventBusSend(buildEnqueueOperation(queue, "second"), reply ->
+                        message.reply(new JsonObject().put(STATUS, OK)));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "first"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(2));
+        context.assertEquals(List.of("first", "second"), processed);
+        async.complete();
+    }
+}
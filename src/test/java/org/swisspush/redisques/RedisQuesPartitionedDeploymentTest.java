@@ -0,0 +1,109 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.LocalPartitions;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for a RedisQues deployment with multiple instances partitioning the queues.
+ */
+public class RedisQuesPartitionedDeploymentTest extends AbstractTestCase {
+
+    private static final int INSTANCES = 4;
+    private static final int QUEUES = 40;
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .build()
+                .asJsonObject();
+
+        vertx.deployVerticle(RedisQues.class.getName(), new DeploymentOptions().setConfig(config)
+                .setInstances(INSTANCES), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + INSTANCES + " instances of RedisQues were successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void queuesShouldBeConsumedByTheInstanceOfTheirPartition(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        Map<String, Integer> processed = new ConcurrentHashMap<>();
+        queueProcessor.handler(message -> {
+            processed.merge(message.body().getString("queue"), 1, Integer::sum);
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        for (int i = 0; i < QUEUES; i++) {
+            String queue = "partitionQueue" + i;
+            for (int j = 0; j < 3; j++) {
+                eventBusSend(buildEnqueueOperation(queue, "message" + j), reply ->
+                        context.assertEquals(OK, reply.result().body().getString(STATUS)));
+            }
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(() ->
+                processed.values().stream().mapToInt(Integer::intValue).sum(), equalTo(QUEUES * 3));
+        context.assertEquals(QUEUES, processed.size());
+
+        // the queues of a partition share their consumer and the consumers of the partitions differ
+        Map<Integer, Set<String>> consumersByPartition = new HashMap<>();
+        for (int i = 0; i < QUEUES; i++) {
+            String queue = "partitionQueue" + i;
+            String consumer = jedis.get(getConsumersRedisKeyPrefix() + queue);
+            context.assertNotNull(consumer, "no consumer registered for " + queue);
+            consumersByPartition.computeIfAbsent(LocalPartitions.partitionOf(queue, INSTANCES),
+                    partition -> new HashSet<>()).add(consumer);
+        }
+        Set<String> consumers = new HashSet<>();
+        consumersByPartition.values().forEach(partitionConsumers -> {
+            context.assertEquals(1, partitionConsumers.size());
+            consumers.addAll(partitionConsumers);
+        });
+        context.assertEquals(consumersByPartition.size(), consumers.size());
+        async.complete();
+    }
+}
@@ -0,0 +1,229 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.QueueConfiguration;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the prefetching of queue items configured with {@link QueueConfiguration#withPrefetchCount(int)},
+ * {@link QueueConfiguration#withBatchProcessing(boolean)} and {@link QueueConfiguration#withOrdered(boolean)}.
+ */
+public class RedisQuesPrefetchTest extends AbstractTestCase {
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .queueConfigurations(List.of(
+                        new QueueConfiguration().withPattern("prefetch-.*").withPrefetchCount(3),
+                        new QueueConfiguration().withPattern("batch-.*").withPrefetchCount(3).withBatchProcessing(true),
+                        new QueueConfiguration().withPattern("unordered-.*").withPrefetchCount(3).withOrdered(false)
+                                .withRetryIntervals(1)))
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void prefetchedItemsShouldBeProcessedInOrder(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "prefetch-queue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            processed.add(payload);
+            if ("m3".equals(payload) && processed.size() == 4) {
+                // fail the first attempt of the 4th message
+                message.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "m0", "m1", "m2", "m3", "m4", "m5");
+        eventBusSend(buildEnqueueOperation(queue, "m6"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(8));
+        context.assertEquals(List.of("m0", "m1", "m2", "m3", "m3", "m4", "m5", "m6"), processed);
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.llen(getQueuesRedisKeyPrefix() + queue), equalTo(0L));
+        async.complete();
+    }
+
+    @Test
+    public void batchShouldBeRetriedFromFirstFailedItem(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "batch-queue";
+        List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            context.assertNull(message.body().getString(PAYLOAD));
+            batches.add(message.body().getJsonArray(PAYLOADS).getList());
+            if (batches.size() == 1) {
+                // only the first two items of the first batch are processed
+                message.reply(new JsonObject().put(STATUS, ERROR).put(COUNT, 2));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "m0", "m1", "m2", "m3");
+        eventBusSend(buildEnqueueOperation(queue, "m4"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(batches::size, equalTo(2));
+        context.assertEquals(List.of("m0", "m1", "m2"), batches.get(0));
+        context.assertEquals(List.of("m2", "m3", "m4"), batches.get(1));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.llen(getQueuesRedisKeyPrefix() + queue), equalTo(0L));
+        async.complete();
+    }
+
+    @Test
+    public void permanentlyFailedBatchItemShouldBeMovedToDeadLetters(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "batch-queue";
+        List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            batches.add(message.body().getJsonArray(PAYLOADS).getList());
+            if (batches.size() == 1) {
+                // the second item of the first batch can never be processed
+                message.reply(new JsonObject().put(STATUS, ERROR).put(COUNT, 1).put(PERMANENT_FAILURE, true));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "m0", "m1", "m2", "m3");
+        eventBusSend(buildEnqueueOperation(queue, "m4"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(batches::size, greaterThanOrEqualTo(1));
+        // the remaining items are processed without waiting for the refresh period
+        Awaitility.await().atMost(Duration.ofMillis(1500)).until(batches::size, equalTo(2));
+        context.assertEquals(List.of("m0", "m1", "m2"), batches.get(0));
+        context.assertEquals(List.of("m2", "m3", "m4"), batches.get(1));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.llen(getQueuesRedisKeyPrefix() + queue), equalTo(0L));
+        context.assertEquals(1L, jedis.llen(getRedisPrefix() + "deadletter:" + queue));
+        async.complete();
+    }
+
+    @Test
+    public void unorderedQueueShouldBeProcessedInParallel(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "unordered-queue";
+        List<Message<JsonObject>> inFlight = new CopyOnWriteArrayList<>();
+        List<Object> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            if (processed.isEmpty()) {
+                // hold the first messages to see how many are in flight at the same time
+                inFlight.add(message);
+                return;
+            }
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        for (int i = 0; i < 5; i++) {
+            eventBusSend(buildEnqueueOperation(queue, "m" + i), reply ->
+                    context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(inFlight::size, equalTo(3));
+        // no more than the prefetch count is in flight
+        Awaitility.await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1)).until(inFlight::size, equalTo(3));
+        context.assertEquals(2L, jedis.llen(getQueuesRedisKeyPrefix() + queue));
+        context.assertFalse(jedis.exists(getRedisPrefix() + "consumers:" + queue));
+        String lease = jedis.zrange(getRedisPrefix() + "processing", 0, -1).iterator().next();
+        context.assertEquals(3L, jedis.llen(getRedisPrefix() + "processing:" + lease));
+
+        for (Message<JsonObject> message : inFlight) {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        }
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(5));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.exists(getRedisPrefix() + "processing:" + lease), equalTo(false));
+        context.assertEquals(0L, jedis.llen(getQueuesRedisKeyPrefix() + queue));
+        async.complete();
+    }
+
+    @Test
+    public void failedItemOfUnorderedQueueShouldBeMovedBackToTheQueue(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "unordered-queue";
+        List<Object> processed = new CopyOnWriteArrayList<>();
+        List<Object> failed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            if ("m0".equals(payload) && failed.isEmpty()) {
+                failed.add(payload);
+                message.reply(new JsonObject().put(STATUS, ERROR));
+                return;
+            }
+            processed.add(payload);
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "m0", "m1");
+        eventBusSend(buildEnqueueOperation(queue, "m2"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(3));
+        context.assertEquals(List.of("m1", "m2", "m0"), processed);
+        context.assertEquals(0L, jedis.llen(getQueuesRedisKeyPrefix() + queue));
+        context.assertTrue(jedis.keys(getRedisPrefix() + "processing:*").isEmpty());
+        async.complete();
+    }
+}
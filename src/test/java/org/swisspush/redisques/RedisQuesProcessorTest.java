@@ -7,11 +7,13 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import org.junit.*;
+import org.swisspush.redisques.util.QueueConfiguration;
 import org.swisspush.redisques.util.RedisquesConfiguration;
 import redis.clients.jedis.Jedis;
 
@@ -20,8 +22,10 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -72,6 +76,13 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
                 .processorAddress("processor-address")
                 .refreshPeriod(2)
                 .processorTimeout(10)
+                .queueConfigurations(List.of(new QueueConfiguration().withPattern("adaptive-.*")
+                        .withRetryIntervals(1).withAdaptiveTimeoutPercentile(99)
+                        .withAdaptiveTimeoutMinMillis(200).withAdaptiveTimeoutMaxMillis(60000),
+                        new QueueConfiguration().withPattern("backoff-.*").withRetryIntervals(60),
+                        new QueueConfiguration().withPattern("breaker-.*").withRetryIntervals(1)
+                                .withCircuitBreakerThreshold(2).withCircuitBreakerOpenSeconds(60),
+                        new QueueConfiguration().withPattern("poisoned-.*").withRetryIntervals(1).withMaxAttempts(3)))
                 .build()
                 .asJsonObject();
 
@@ -397,4 +408,187 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
             throw new IllegalStateException("can not handle interrups on sleeps");
         }
     }
+
+    @Test
+    public void hungProcessorShouldBeDetectedWithAdaptiveTimeout(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final String queue = "adaptive-queue";
+        final AtomicInteger hangDeliveries = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+
+        queueProcessor.handler(message -> {
+            if ("hang".equals(message.body().getString(PAYLOAD)) && hangDeliveries.incrementAndGet() == 1) {
+                // the processor hangs and never replies
+                return;
+            }
+            processed.incrementAndGet();
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        for (int i = 0; i < 25; i++) {
+            eventBusSend(buildEnqueueOperation(queue, "message" + i), reply -> {});
+        }
+        eventBusSend(buildEnqueueOperation(queue, "hang"), reply -> {});
+
+        // without adaptive timeout the redelivery would take the maximum timeout of 60s
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::get, equalTo(26));
+        context.assertEquals(2, hangDeliveries.get());
+        async.complete();
+    }
+
+    @Test
+    public void retryAfterOfProcessorShouldOverrideRetryIntervals(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final String queue = "backoff-queue";
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        queueProcessor.handler(message -> {
+            if (deliveries.incrementAndGet() == 1) {
+                // the retry interval of the queue configuration would be 60s
+                message.reply(new JsonObject().put(STATUS, ERROR).put(RETRY_AFTER, 0));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply -> {});
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(deliveries::get, equalTo(2));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.llen(getQueuesRedisKeyPrefix() + queue), equalTo(0L));
+        async.complete();
+    }
+
+    @Test
+    public void permanentlyFailedMessageShouldBeMovedToDeadLetters(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final String queue = "backoff-queue";
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            delivered.add(payload);
+            if ("poison".equals(payload)) {
+                message.reply(new JsonObject().put(STATUS, ERROR).put(PERMANENT_FAILURE, true));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "poison"), reply -> {});
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply -> {});
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(delivered::size, equalTo(2));
+        context.assertEquals(List.of("poison", "hello"), delivered);
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.llen(getQueuesRedisKeyPrefix() + queue), equalTo(0L));
+        eventBusSend(buildGetDeadLettersOperation(queue, null), reply -> {
+            JsonArray deadLetters = reply.result().body().getJsonArray(VALUE);
+            context.assertEquals(1, deadLetters.size());
+            context.assertEquals("poison", deadLetters.getJsonObject(0).getString(PAYLOAD));
+            context.assertEquals(PERMANENT_FAILURE, deadLetters.getJsonObject(0).getString(REASON));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void attemptsShouldBeForgottenWhenTheMessageIsProcessed(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final String queue = "poisoned-queue";
+        final AtomicInteger failures = new AtomicInteger(2);
+        final List<String> processed = new CopyOnWriteArrayList<>();
+
+        queueProcessor.handler(message -> {
+            if (failures.getAndDecrement() > 0) {
+                message.reply(new JsonObject().put(STATUS, ERROR));
+                return;
+            }
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // fails 2 of the 3 max attempts, then succeeds
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply -> {});
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(1));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.exists(getRedisPrefix() + "attempts:" + queue), equalTo(false));
+
+        // an identical message has all its attempts again
+        failures.set(2);
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply -> {});
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(2));
+        context.assertFalse(jedis.exists(getRedisPrefix() + "deadletter:" + queue));
+        async.complete();
+    }
+
+    @Test
+    public void openCircuitBreakerShouldPauseTheOtherQueues(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        queueProcessor.handler(message -> {
+            delivered.add(message.body().getString("queue"));
+            message.reply(new JsonObject().put(STATUS, ERROR));
+        });
+
+        eventBusSend(buildEnqueueOperation("breaker-1", "hello"), reply -> {});
+        eventBusSend(buildEnqueueOperation("breaker-2", "hello"), reply -> {});
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(delivered::size, equalTo(2));
+
+        // the circuit breaker is open, neither the new queue nor the retries reach the processor
+        eventBusSend(buildEnqueueOperation("breaker-3", "hello"), reply -> {});
+        sleep(3000);
+        context.assertEquals(2, delivered.size());
+        context.assertEquals(3L, jedis.llen(getQueuesRedisKeyPrefix() + "breaker-1")
+                + jedis.llen(getQueuesRedisKeyPrefix() + "breaker-2") + jedis.llen(getQueuesRedisKeyPrefix() + "breaker-3"));
+        async.complete();
+    }
+
+    @Test
+    public void messageShouldBeMovedToDeadLettersAfterMaxAttempts(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final String queue = "poisoned-queue";
+        final AtomicBoolean healed = new AtomicBoolean();
+        final List<String> processed = new CopyOnWriteArrayList<>();
+        final AtomicInteger poisonDeliveries = new AtomicInteger();
+
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            if ("poison".equals(payload) && !healed.get()) {
+                poisonDeliveries.incrementAndGet();
+                message.reply(new JsonObject().put(STATUS, ERROR));
+                return;
+            }
+            processed.add(payload);
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "poison"), reply -> {});
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply -> {});
+
+        // the poisoned message does not block the queue forever
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(1));
+        context.assertEquals(3, poisonDeliveries.get());
+        context.assertEquals(List.of("hello"), processed);
+
+        List<String> deadLetters = jedis.lrange(getRedisPrefix() + "deadletter:" + queue, 0, -1);
+        context.assertEquals(1, deadLetters.size());
+        JsonObject deadLetter = new JsonObject(deadLetters.get(0));
+        context.assertEquals("poison", deadLetter.getString(PAYLOAD));
+        context.assertEquals(3L, deadLetter.getLong(ATTEMPTS));
+        context.assertEquals(MAX_ATTEMPTS, deadLetter.getString(REASON));
+        // the attempts of the dead letter are forgotten
+        context.assertFalse(jedis.exists(getRedisPrefix() + "attempts:" + queue));
+
+        healed.set(true);
+        eventBusSend(buildReplayDeadLettersOperation(queue), reply ->
+                context.assertEquals(1, reply.result().body().getInteger(VALUE)));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(processed::size, equalTo(2));
+        context.assertEquals(List.of("hello", "poison"), processed);
+        context.assertFalse(jedis.exists(getRedisPrefix() + "deadletter:" + queue));
+        async.complete();
+    }
 }
@@ -0,0 +1,138 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the chunked check of the inactive queues.
+ */
+public class RedisQuesQueueCheckTest extends AbstractTestCase {
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .checkQueuesPerSec(500)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void inactiveQueuesShouldBeCheckedInChunks(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString("queue"));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // inactive queues, e.g. enqueued before a restart of all instances
+        for (int i = 0; i < 230; i++) {
+            String queue = "queue" + i;
+            jedis.zadd(getRedisPrefix() + "queues", i, queue);
+            if (i % 2 == 0) {
+                jedis.rpush(getQueuesRedisKeyPrefix() + queue, "item");
+            }
+        }
+
+        vertx.eventBus().send(getRedisquesAddress(), buildCheckOperation());
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(115));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.zcard(getRedisPrefix() + "queues"), equalTo(115L));
+        context.assertTrue(processed.contains("queue228"));
+        context.assertFalse(processed.contains("queue229"));
+        async.complete();
+    }
+
+    @Test
+    public void inactiveQueuesShouldBeCheckedInPartitions(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString("queue"));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // replace the deployed instance by two instances sharing the partitions
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .checkQueuesPerSec(500)
+                .checkPartitions(3)
+                .build()
+                .asJsonObject();
+        Async deployed = context.async(2);
+        vertx.undeploy(deploymentId, context.asyncAssertSuccess(undeployed -> {
+            for (int i = 0; i < 2; i++) {
+                vertx.deployVerticle(new RedisQues(), new DeploymentOptions().setConfig(config),
+                        context.asyncAssertSuccess(id -> deployed.countDown()));
+            }
+        }));
+        deployed.awaitSuccess();
+
+        // inactive queues, e.g. enqueued before a restart of all instances
+        for (int i = 0; i < 230; i++) {
+            String queue = "queue" + i;
+            jedis.zadd(getRedisPrefix() + "queues", i, queue);
+            if (i % 2 == 0) {
+                jedis.rpush(getQueuesRedisKeyPrefix() + queue, "item");
+            }
+        }
+
+        vertx.eventBus().send(getRedisquesAddress(), buildCheckOperation());
+
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(processed::size, equalTo(115));
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.zcard(getRedisPrefix() + "queues"), equalTo(115L));
+        context.assertEquals(4L, jedis.llen(getRedisPrefix() + "check:partitions"));
+        // the leases are released when the partitions are checked, so the next check is not skipped
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> jedis.keys(getRedisPrefix() + "check:lease:*").size(), equalTo(0));
+        async.complete();
+    }
+}
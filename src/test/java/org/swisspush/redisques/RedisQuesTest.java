@@ -7,6 +7,7 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -17,6 +18,7 @@ import org.swisspush.redisques.util.TestMemoryUsageProvider;
 import redis.clients.jedis.Jedis;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.swisspush.redisques.util.RedisquesAPI.*;
@@ -62,6 +64,12 @@ public class RedisQuesTest extends AbstractTestCase {
         }));
     }
 
+    @After
+    public void tearDown(TestContext context) {
+        // stop the consumers of the previous test, so they do not consume the queues of the next test
+        vertx.close(context.asyncAssertSuccess());
+    }
+
     @Test
     public void testUnsupportedOperation(TestContext context) {
         Async async = context.async();
@@ -175,6 +183,103 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void bulkEnqueue(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        assertKeyCount(context, getQueuesRedisKeyPrefix(), 0);
+        JsonObject messagesPerQueue = new JsonObject()
+                .put("queueBulk1", new JsonArray().add("hello1").add("hello2"))
+                .put("queueBulk2", new JsonArray().add("hello3"));
+        eventBusSend(buildBulkEnqueueOperation(messagesPerQueue), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(3L, message.result().body().getLong(VALUE));
+            context.assertEquals(List.of("hello1", "hello2"), jedis.lrange(getQueuesRedisKeyPrefix() + "queueBulk1", 0, -1));
+            context.assertEquals(List.of("hello3"), jedis.lrange(getQueuesRedisKeyPrefix() + "queueBulk2", 0, -1));
+            context.assertNotNull(jedis.zscore(getRedisPrefix() + "queues", "queueBulk1"));
+            context.assertNotNull(jedis.zscore(getRedisPrefix() + "queues", "queueBulk2"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void enqueueDelayed(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildEnqueueDelayedOperation("queueDelayed", "helloDelayed", System.currentTimeMillis() + 1500), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertFalse(jedis.exists(getQueuesRedisKeyPrefix() + "queueDelayed"));
+            context.assertEquals(1L, jedis.zcard(getRedisPrefix() + "delayed:0"));
+            vertx.setTimer(3000, timer -> {
+                context.assertEquals(List.of("helloDelayed"), jedis.lrange(getQueuesRedisKeyPrefix() + "queueDelayed", 0, -1));
+                context.assertEquals(0L, jedis.zcard(getRedisPrefix() + "delayed:0"));
+                context.assertNotNull(jedis.zscore(getRedisPrefix() + "queues", "queueDelayed"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void delayedMoveWithoutDelayedMessagesLeasesNoShard(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        vertx.setTimer(2500, timer -> {
+            context.assertFalse(jedis.exists(getRedisPrefix() + "delayed:lease:0"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void enqueueDelayedAlreadyDue(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildEnqueueDelayedOperation("queueDelayed", "helloDelayed", System.currentTimeMillis() - 1000), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals("helloDelayed", jedis.lindex(getQueuesRedisKeyPrefix() + "queueDelayed", 0));
+            context.assertFalse(jedis.exists(getRedisPrefix() + "delayed:0"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void enqueueDelayedMissingDeliverAt(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        JsonObject operation = buildEnqueueDelayedOperation("queueDelayed", "helloDelayed", 0);
+        operation.getJsonObject(PAYLOAD).remove(DELIVER_AT);
+        eventBusSend(operation, message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertEquals(BAD_INPUT, message.result().body().getString(ERROR_TYPE));
+            context.assertFalse(jedis.exists(getQueuesRedisKeyPrefix() + "queueDelayed"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void bulkEnqueueInvalidMessages(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildBulkEnqueueOperation("queueBulk1", new JsonArray().add("hello1").add(123)), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertEquals(BAD_INPUT, message.result().body().getString(ERROR_TYPE));
+            assertKeyCount(context, getQueuesRedisKeyPrefix(), 0);
+            async.complete();
+        });
+    }
+
+    @Test
+    public void bulkEnqueueWithReachedMemoryUsageLimit(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        memoryUsageProvider.setCurrentMemoryUsage(Optional.of(90));
+        eventBusSend(buildBulkEnqueueOperation("queueBulk1", new JsonArray().add("hello1")), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertEquals(MEMORY_FULL, message.result().body().getString(MESSAGE));
+            assertKeyCount(context, getQueuesRedisKeyPrefix(), 0);
+            async.complete();
+        });
+    }
+
     @Test
     public void enqueueWithReachedMemoryUsageLimit(TestContext context) {
         Async async = context.async();
@@ -0,0 +1,111 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for the wakeup channel enabled with {@link RedisquesConfiguration#getWakeupChannelEnabled()}.
+ */
+public class RedisQuesWakeupChannelTest extends AbstractTestCase {
+
+    private static MessageConsumer<JsonObject> queueProcessor = null;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(300);
+
+    @Before
+    public void createQueueProcessor(TestContext context) {
+        deployRedisques(context);
+        queueProcessor = vertx.eventBus().consumer(PROCESSOR_ADDRESS);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    protected void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress(PROCESSOR_ADDRESS)
+                .refreshPeriod(2)
+                .wakeupChannelEnabled(true)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void queueShouldBeConsumedAfterWakeupWithoutConsumer(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "wakeupQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // enqueued by an instance which is not connected to our event bus
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "hello");
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(
+                () -> jedis.publish(getRedisPrefix() + "wakeup", new JsonObject().put(QUEUENAME, queue).encode()),
+                equalTo(1L));
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+        context.assertEquals("hello", processed.get(0));
+        async.complete();
+    }
+
+    @Test
+    public void queueShouldBeConsumedAfterWakeupOfRegisteredConsumer(TestContext context) {
+        Async async = context.async();
+        flushAll();
+
+        String queue = "wakeupQueue";
+        List<String> processed = new CopyOnWriteArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        eventBusSend(buildEnqueueOperation(queue, "hello"), reply ->
+                context.assertEquals(OK, reply.result().body().getString(STATUS)));
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(1));
+
+        // enqueued by an instance which is not connected to our event bus
+        String consumer = jedis.get(getConsumersRedisKeyPrefix() + queue);
+        jedis.rpush(getQueuesRedisKeyPrefix() + queue, "world");
+        jedis.publish(getRedisPrefix() + "wakeup", new JsonObject().put(QUEUENAME, queue).put(CONSUMER, consumer).encode());
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(processed::size, equalTo(2));
+        context.assertEquals("world", processed.get(1));
+        async.complete();
+    }
+}
@@ -145,6 +145,7 @@ public class RedisquesHttpRequestHandlerTest extends AbstractTestCase {
                 .refreshPeriod(2)
                 .httpRequestHandlerEnabled(true)
                 .httpRequestHandlerPort(7070)
+                .httpRequestHandlerMaxLineSize(64 * 1024)
                 .queueConfigurations(List.of(
                         new QueueConfiguration().withPattern("queue_1").withRetryIntervals(1, 2, 3, 5),
                         new QueueConfiguration().withPattern("stat.*").withRetryIntervals(1, 2, 3, 5)
@@ -216,7 +217,7 @@ public class RedisquesHttpRequestHandlerTest extends AbstractTestCase {
         when().get("/queuing/")
                 .then().assertThat()
                 .statusCode(200)
-                .body("queuing", hasItems("locks/", "queues/", "monitor/", "configuration/"));
+                .body("queuing", hasItems("locks/", "queues/", "deadletters/", "monitor/", "configuration/"));
     }
 
     @Test
@@ -478,6 +479,76 @@ public class RedisquesHttpRequestHandlerTest extends AbstractTestCase {
         async.complete();
     }
 
+    @Test
+    public void bulkEnqueueIntoQueue(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        String queueName = "queue_" + currentTimeMillis();
+        String item = new JsonObject(queueItemValid).encode();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append(item).append("\n");
+        }
+
+        given().body(body.toString()).when().put("/queuing/enqueue/" + queueName + "/?bulk").then().assertThat()
+                .statusCode(200).body("enqueued", equalTo(2500));
+        context.assertEquals(2500L, jedis.llen(getQueuesRedisKeyPrefix() + queueName));
+        context.assertEquals(new JsonObject(jedis.lindex(getQueuesRedisKeyPrefix() + queueName, 0)),
+                new JsonObject(jedis.lindex(getQueuesRedisKeyPrefix() + queueName, 2499)));
+        assertLockDoesNotExist(context, queueName);
+
+        async.complete();
+    }
+
+    @Test
+    public void bulkEnqueueIntoManyQueues(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        JsonObject item = new JsonObject(queueItemValid);
+        String body = new JsonObject().put(QUEUENAME, "queueA").put(MESSAGE, item).encode() + "\n"
+                + new JsonObject().put(QUEUENAME, "queueB").put(MESSAGE, item).encode() + "\n"
+                + new JsonObject().put(QUEUENAME, "queueA").put(MESSAGE, item).encode();
+
+        given().body(body).when().post("/queuing/enqueue").then().assertThat()
+                .statusCode(200).body("enqueued", equalTo(3));
+        context.assertEquals(2L, jedis.llen(getQueuesRedisKeyPrefix() + "queueA"));
+        context.assertEquals(1L, jedis.llen(getQueuesRedisKeyPrefix() + "queueB"));
+
+        async.complete();
+    }
+
+    @Test
+    public void bulkEnqueueInvalidLine(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        String queueName = "queue_" + currentTimeMillis();
+        String body = new JsonObject(queueItemValid).encode() + "\n{ invalid\n";
+
+        given().body(body).when().put("/queuing/enqueue/" + queueName + "/?bulk").then().assertThat()
+                .statusCode(400).body(containsString("Invalid line 2"));
+        assertKeyCount(context, getQueuesRedisKeyPrefix() + queueName, 0);
+
+        async.complete();
+    }
+
+    @Test
+    public void bulkEnqueueLineTooLong(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        String queueName = "queue_" + currentTimeMillis();
+        StringBuilder body = new StringBuilder(new JsonObject(queueItemValid).encode()).append("\n");
+        // a line without end exceeding the max line size
+        for (int i = 0; i < 200 * 1024; i++) {
+            body.append('x');
+        }
+
+        given().body(body.toString()).when().put("/queuing/enqueue/" + queueName + "/?bulk").then().assertThat()
+                .statusCode(413).body(containsString("Line 2 exceeds"));
+        assertKeyCount(context, getQueuesRedisKeyPrefix() + queueName, 0);
+
+        async.complete();
+    }
+
     @Test
     public void enqueueValidBodyWithMemoryLimitReached(TestContext context) {
         Async async = context.async();
@@ -1135,6 +1206,42 @@ public class RedisquesHttpRequestHandlerTest extends AbstractTestCase {
         async.awaitSuccess();
     }
 
+    @Test
+    public void listReplayAndDeleteDeadLetters(TestContext context) {
+        flushAll();
+        String deadLettersKey = getRedisPrefix() + "deadletter:queueDead";
+        jedis.rpush(deadLettersKey,
+                new JsonObject().put(PAYLOAD, "dead1").put(ATTEMPTS, 3).put(REASON, MAX_ATTEMPTS).encode(),
+                new JsonObject().put(PAYLOAD, "dead2").put(ATTEMPTS, 1).put(REASON, PERMANENT_FAILURE).encode());
+
+        when().get("/queuing/deadletters/queueDead")
+                .then().assertThat()
+                .statusCode(200)
+                .body("queueDead.payload", hasItems("dead1", "dead2"))
+                .body("queueDead.reason", hasItems(MAX_ATTEMPTS, PERMANENT_FAILURE));
+
+        when().get("/queuing/deadletters/queueDead?limit=1")
+                .then().assertThat()
+                .statusCode(200)
+                .body("queueDead.payload", equalTo(List.of("dead1")));
+
+        when().post("/queuing/deadletters/queueDead/replay")
+                .then().assertThat()
+                .statusCode(200)
+                .body("count", equalTo(2));
+        context.assertEquals(List.of("dead1", "dead2"), jedis.lrange(getQueuesRedisKeyPrefix() + "queueDead", 0, -1));
+        context.assertFalse(jedis.exists(deadLettersKey));
+
+        jedis.rpush(deadLettersKey, new JsonObject().put(PAYLOAD, "dead3").encode());
+        when().delete("/queuing/deadletters/queueDead")
+                .then().assertThat()
+                .statusCode(200);
+        context.assertFalse(jedis.exists(deadLettersKey));
+        when().delete("/queuing/deadletters/queueDead")
+                .then().assertThat()
+                .statusCode(404);
+    }
+
     @Test
     public void deleteAllQueueItemsWithUnlockOfNonExistingLock(TestContext context) {
         Async async = context.async();
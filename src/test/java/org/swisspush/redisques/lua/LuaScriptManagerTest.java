@@ -0,0 +1,567 @@
+package org.swisspush.redisques.lua;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.swisspush.redisques.util.DefaultRedisProvider;
+import org.swisspush.redisques.util.DefaultRedisquesConfigurationProvider;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+/**
+ * Tests for {@link LuaScriptManager} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class LuaScriptManagerTest {
+
+    private Vertx vertx;
+    private Jedis jedis;
+    private LuaScriptManager luaScriptManager;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        jedis = new Jedis("localhost", 6379, 5000);
+        jedis.flushAll();
+        DefaultRedisquesConfigurationProvider configurationProvider = new DefaultRedisquesConfigurationProvider(vertx,
+                new RedisquesConfiguration().asJsonObject());
+        luaScriptManager = new LuaScriptManager(new DefaultRedisProvider(vertx, configurationProvider));
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        jedis.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testConsumeScript(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1", "item2");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "0", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("ok", response.get(0).toString());
+                    context.assertEquals("myUid", response.get(1).toString());
+                    context.assertEquals(2L, response.get(2).toLong());
+                    context.assertEquals("item1", response.get(3).toString());
+                    context.assertTrue(jedis.ttl("c:queue1") > 0);
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptRemovesProcessedItems(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1", "item2", "item3");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "1", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("ok", response.get(0).toString());
+                    context.assertEquals(2L, response.get(2).toLong());
+                    context.assertEquals("item2", response.get(3).toString());
+                    context.assertEquals(List.of("item2", "item3"), jedis.lrange("q:queue1", 0, -1));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptForgetsAttemptsOfProcessedItem(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1", "item2");
+        jedis.hset("a:queue1", "id1", "2");
+        jedis.hset("a:queue1", "id2", "1");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "1", "1", "id1"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("ok", response.get(0).toString());
+                    context.assertEquals(List.of("item2"), jedis.lrange("q:queue1", 0, -1));
+                    context.assertFalse(jedis.hexists("a:queue1", "id1"));
+                    context.assertTrue(jedis.hexists("a:queue1", "id2"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptPeeksMultipleItems(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1", "item2", "item3", "item4");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "1", "5", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("ok", response.get(0).toString());
+                    context.assertEquals(3L, response.get(2).toLong());
+                    context.assertEquals(6, response.size());
+                    context.assertEquals("item2", response.get(3).toString());
+                    context.assertEquals("item4", response.get(5).toString());
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptRemovesProcessedItemsWhenNotOwner(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "otherUid");
+        jedis.rpush("q:queue1", "item1", "item2");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "1", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("notOwner", response.get(0).toString());
+                    context.assertEquals("otherUid", response.get(1).toString());
+                    context.assertEquals(1L, response.get(2).toLong());
+                    context.assertEquals(List.of("item2"), jedis.lrange("q:queue1", 0, -1));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptNotOwner(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "0", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("notOwner", response.get(0).toString());
+                    context.assertNull(response.get(1));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptLocked(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.hset("l", "queue1", "{}");
+        jedis.rpush("q:queue1", "item1");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "0", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("locked", response.get(0).toString());
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptReleasesEmptyQueueWithHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "0", "queue1", "1", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("released", response.get(0).toString());
+                    context.assertEquals(0L, response.get(2).toLong());
+                    context.assertFalse(jedis.exists("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testConsumeScriptDoesNotExpireRegistrationWithHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.rpush("q:queue1", "item1", "item2");
+        luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "0", "queue1", "1", "1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("ok", response.get(0).toString());
+                    context.assertEquals("item2", response.get(3).toString());
+                    context.assertEquals(-1L, jedis.ttl("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testRegisterScript(TestContext context) {
+        Async async = context.async();
+        luaScriptManager.evalsha(LuaScript.REGISTER, List.of("c:queue1"), List.of("myUid", "h:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("myUid", response.toString());
+                    context.assertEquals("myUid", jedis.get("c:queue1"));
+                    context.assertEquals(-1L, jedis.ttl("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testRegisterScriptTakesOverRegistrationWithoutHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "deadUid");
+        luaScriptManager.evalsha(LuaScript.REGISTER, List.of("c:queue1"), List.of("myUid", "h:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("myUid", response.toString());
+                    context.assertEquals("myUid", jedis.get("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testRegisterScriptKeepsRegistrationWithHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "otherUid");
+        jedis.set("h:otherUid", "1");
+        luaScriptManager.evalsha(LuaScript.REGISTER, List.of("c:queue1"), List.of("myUid", "h:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("otherUid", response.toString());
+                    context.assertEquals("otherUid", jedis.get("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testGetConsumerScript(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "otherUid");
+        jedis.set("c:queue2", "deadUid");
+        jedis.set("h:otherUid", "1");
+        luaScriptManager.evalsha(LuaScript.GET_CONSUMER, List.of("c:queue1"), List.of("h:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals("otherUid", response.toString());
+                    luaScriptManager.evalsha(LuaScript.GET_CONSUMER, List.of("c:queue2"), List.of("h:"))
+                            .onComplete(context.asyncAssertSuccess(response2 -> {
+                                context.assertNull(response2);
+                                async.complete();
+                            }));
+                }));
+    }
+
+    @Test
+    public void testRefreshRegistrationsScript(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        jedis.set("c:queue2", "otherUid");
+        jedis.set("c:queue3", "myUid");
+        luaScriptManager.evalsha(LuaScript.REFRESH_REGISTRATIONS, List.of("queues", "c:queue1", "c:queue2", "c:queue3", "c:queue4"),
+                        List.of("myUid", "20", "1000", "queue1", "queue2", "queue3", "queue4"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(2, response.size());
+                    context.assertEquals("queue2", response.get(0).toString());
+                    context.assertEquals("queue4", response.get(1).toString());
+                    context.assertTrue(jedis.ttl("c:queue1") > 0);
+                    context.assertEquals(-1L, jedis.ttl("c:queue2"));
+                    context.assertTrue(jedis.ttl("c:queue3") > 0);
+                    context.assertEquals(1000.0, jedis.zscore("queues", "queue1"));
+                    context.assertNull(jedis.zscore("queues", "queue2"));
+                    context.assertEquals(1000.0, jedis.zscore("queues", "queue3"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testCheckQueuesScript(TestContext context) {
+        Async async = context.async();
+        jedis.zadd("queues", 10, "queue1");
+        jedis.zadd("queues", 20, "queue2");
+        jedis.zadd("queues", 30, "queue3");
+        jedis.zadd("queues", 40, "queue4");
+        jedis.zadd("queues", 500, "queue5");
+        jedis.rpush("q:queue1", "item1");
+        jedis.rpush("q:queue3", "item1");
+        jedis.rpush("q:queue4", "item1");
+        jedis.set("c:queue1", "myUid");
+        luaScriptManager.evalsha(LuaScript.CHECK_QUEUES, List.of("queues"), List.of("100", "3", "1000", "q:", "c:", "20", "h:", "-inf"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(2, response.get(0).size());
+                    context.assertEquals("queue1", response.get(0).get(0).toString());
+                    context.assertEquals("queue3", response.get(0).get(1).toString());
+                    context.assertEquals("myUid", response.get(1).get(0).toString());
+                    context.assertEquals("", response.get(1).get(1).toString());
+                    context.assertEquals(1, response.get(2).size());
+                    context.assertEquals("queue2", response.get(2).get(0).toString());
+                    context.assertTrue(jedis.ttl("c:queue1") > 0);
+                    context.assertEquals(1000.0, jedis.zscore("queues", "queue1"));
+                    context.assertNull(jedis.zscore("queues", "queue2"));
+                    context.assertEquals(1000.0, jedis.zscore("queues", "queue3"));
+                    context.assertEquals(40.0, jedis.zscore("queues", "queue4"));
+                    context.assertEquals(500.0, jedis.zscore("queues", "queue5"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testCheckQueuesScriptWithHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.zadd("queues", 10, "queue1");
+        jedis.zadd("queues", 20, "queue2");
+        jedis.rpush("q:queue1", "item1");
+        jedis.rpush("q:queue2", "item1");
+        jedis.set("c:queue1", "myUid");
+        jedis.set("c:queue2", "deadUid");
+        jedis.set("h:myUid", "1");
+        luaScriptManager.evalsha(LuaScript.CHECK_QUEUES, List.of("queues"), List.of("100", "10", "1000", "q:", "c:", "0", "h:", "-inf"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(2, response.get(0).size());
+                    context.assertEquals("myUid", response.get(1).get(0).toString());
+                    context.assertEquals("", response.get(1).get(1).toString());
+                    context.assertEquals(-1L, jedis.ttl("c:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testCheckPartitionsScript(TestContext context) {
+        Async async = context.async();
+        for (int i = 1; i <= 10; i++) {
+            jedis.zadd("queues", i * 10, "queue" + i);
+        }
+        luaScriptManager.evalsha(LuaScript.CHECK_PARTITIONS, List.of("queues", "partitions"), List.of("90", "3", "60"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    // 9 inactive queues with the scores 10 to 90
+                    context.assertEquals(List.of("-inf", "40", "70", "90"), jedis.lrange("partitions", 0, -1));
+                    context.assertEquals(4, response.size());
+                    context.assertTrue(jedis.ttl("partitions") > 0);
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testEnqueueScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1");
+        luaScriptManager.evalsha(LuaScript.ENQUEUE, List.of("queues", "q:queue1", "c:queue1", "l"),
+                        List.of("queue1", "1000", "item2", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(2L, response.get(0).toLong());
+                    context.assertTrue(response.size() == 1 || response.get(1) == null);
+                    context.assertEquals(List.of("item1", "item2"), jedis.lrange("q:queue1", 0, -1));
+                    context.assertEquals(1000.0, jedis.zscore("queues", "queue1"));
+                    context.assertFalse(jedis.exists("l"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testEnqueueScriptWithoutTimestamp(TestContext context) {
+        Async async = context.async();
+        jedis.zadd("queues", 500, "queue1");
+        luaScriptManager.evalsha(LuaScript.ENQUEUE, List.of("queues", "q:queue1", "c:queue1", "l"),
+                        List.of("queue1", "", "item1", ""))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(1L, response.get(0).toLong());
+                    context.assertEquals(500.0, jedis.zscore("queues", "queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testEnqueueScriptWithLockAndConsumer(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        luaScriptManager.evalsha(LuaScript.ENQUEUE, List.of("queues", "q:queue1", "c:queue1", "l"),
+                        List.of("queue1", "1000", "item1", "", "{\"requestedBy\":\"me\"}"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(1L, response.get(0).toLong());
+                    context.assertEquals("myUid", response.get(1).toString());
+                    context.assertEquals("{\"requestedBy\":\"me\"}", jedis.hget("l", "queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testEnqueueScriptIgnoresConsumerWithoutHeartbeat(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "deadUid");
+        jedis.set("c:queue2", "myUid");
+        jedis.set("h:myUid", "1");
+        luaScriptManager.evalsha(LuaScript.ENQUEUE, List.of("queues", "q:queue1", "c:queue1", "l"),
+                        List.of("queue1", "1000", "item1", "h:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertTrue(response.size() == 1 || response.get(1) == null);
+                    luaScriptManager.evalsha(LuaScript.ENQUEUE, List.of("queues", "q:queue2", "c:queue2", "l"),
+                            List.of("queue2", "1000", "item1", "h:")).onComplete(context.asyncAssertSuccess(response2 -> {
+                        context.assertEquals("myUid", response2.get(1).toString());
+                        async.complete();
+                    }));
+                }));
+    }
+
+    @Test
+    public void testUnorderedTakeScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1", "item2", "item3");
+        luaScriptManager.evalsha(LuaScript.UNORDERED_TAKE, List.of("l", "q:queue1", "p:myUid:queue1", "leases"),
+                        List.of("queue1", "2", "myUid:queue1", "5000"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(2, response.size());
+                    context.assertEquals("item1", response.get(0).toString());
+                    context.assertEquals("item2", response.get(1).toString());
+                    context.assertEquals(List.of("item3"), jedis.lrange("q:queue1", 0, -1));
+                    context.assertEquals(List.of("item1", "item2"), jedis.lrange("p:myUid:queue1", 0, -1));
+                    context.assertEquals(5000.0, jedis.zscore("leases", "myUid:queue1"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testUnorderedTakeScriptWhenLocked(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1");
+        jedis.hset("l", "queue1", "{}");
+        luaScriptManager.evalsha(LuaScript.UNORDERED_TAKE, List.of("l", "q:queue1", "p:myUid:queue1", "leases"),
+                        List.of("queue1", "2", "myUid:queue1", "5000"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(0, response.size());
+                    context.assertEquals(1L, jedis.llen("q:queue1"));
+                    context.assertFalse(jedis.exists("leases"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testUnorderedReleaseScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item2");
+        jedis.rpush("p:myUid:queue1", "item1");
+        luaScriptManager.evalsha(LuaScript.UNORDERED_RELEASE, List.of("p:myUid:queue1", "q:queue1"), List.of("item1"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(1L, response.toLong());
+                    context.assertEquals(List.of("item1", "item2"), jedis.lrange("q:queue1", 0, -1));
+                    // already moved back
+                    luaScriptManager.evalsha(LuaScript.UNORDERED_RELEASE, List.of("p:myUid:queue1", "q:queue1"),
+                            List.of("item1")).onComplete(context.asyncAssertSuccess(response2 -> {
+                        context.assertEquals(0L, response2.toLong());
+                        context.assertEquals(2L, jedis.llen("q:queue1"));
+                        async.complete();
+                    }));
+                }));
+    }
+
+    @Test
+    public void testUnorderedRecoverScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue:1", "item3");
+        jedis.rpush("p:deadUid:queue:1", "item1", "item2");
+        jedis.rpush("p:myUid:queue2", "item1");
+        jedis.zadd("leases", 1000, "deadUid:queue:1");
+        jedis.zadd("leases", 3000, "myUid:queue2");
+        luaScriptManager.evalsha(LuaScript.UNORDERED_RECOVER, List.of("leases", "queues"),
+                        List.of("2000", "100", "p:", "q:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(1, response.size());
+                    context.assertEquals("queue:1", response.get(0).toString());
+                    context.assertEquals(List.of("item1", "item2", "item3"), jedis.lrange("q:queue:1", 0, -1));
+                    context.assertFalse(jedis.exists("p:deadUid:queue:1"));
+                    context.assertEquals(2000.0, jedis.zscore("queues", "queue:1"));
+                    context.assertNull(jedis.zscore("leases", "deadUid:queue:1"));
+                    context.assertEquals(1L, jedis.llen("p:myUid:queue2"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testDeadLetterScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1", "item2", "item3");
+        jedis.hset("a:queue1", "id2", "3");
+        luaScriptManager.evalsha(LuaScript.DEAD_LETTER, List.of("q:queue1", "dl:queue1", "a:queue1"),
+                List.of("item2", "deadLetter2", "id2", "1")).onComplete(context.asyncAssertSuccess(response -> {
+            context.assertEquals(1L, response.toLong());
+            // the processed item in front of the dead letter is removed too
+            context.assertEquals(List.of("item3"), jedis.lrange("q:queue1", 0, -1));
+            context.assertEquals(List.of("deadLetter2"), jedis.lrange("dl:queue1", 0, -1));
+            context.assertFalse(jedis.exists("a:queue1"));
+            // no longer at the expected place
+            luaScriptManager.evalsha(LuaScript.DEAD_LETTER, List.of("q:queue1", "dl:queue1", "a:queue1"),
+                    List.of("item2", "deadLetter2", "id2", "0")).onComplete(context.asyncAssertSuccess(response2 -> {
+                context.assertEquals(0L, response2.toLong());
+                context.assertEquals(1L, jedis.llen("q:queue1"));
+                context.assertEquals(1L, jedis.llen("dl:queue1"));
+                async.complete();
+            }));
+        }));
+    }
+
+    @Test
+    public void testDeadLetterScriptRemovesFromProcessingList(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("p:myUid:queue1", "item1", "item2");
+        luaScriptManager.evalsha(LuaScript.DEAD_LETTER, List.of("p:myUid:queue1", "dl:queue1", "a:queue1"),
+                List.of("item2", "deadLetter2", "id2", "-1")).onComplete(context.asyncAssertSuccess(response -> {
+            context.assertEquals(1L, response.toLong());
+            context.assertEquals(List.of("item1"), jedis.lrange("p:myUid:queue1", 0, -1));
+            context.assertEquals(List.of("deadLetter2"), jedis.lrange("dl:queue1", 0, -1));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testReplayDeadLettersScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1");
+        jedis.rpush("dl:queue1", "{\"payload\":\"item2\",\"attempts\":3}", "{\"payload\":\"item3\",\"attempts\":1}");
+        luaScriptManager.evalsha(LuaScript.REPLAY_DEAD_LETTERS, List.of("dl:queue1", "q:queue1", "queues"),
+                List.of("queue1", "2000")).onComplete(context.asyncAssertSuccess(response -> {
+            context.assertEquals(2L, response.toLong());
+            context.assertEquals(List.of("item1", "item2", "item3"), jedis.lrange("q:queue1", 0, -1));
+            context.assertFalse(jedis.exists("dl:queue1"));
+            context.assertEquals(2000.0, jedis.zscore("queues", "queue1"));
+            // nothing left to replay
+            luaScriptManager.evalsha(LuaScript.REPLAY_DEAD_LETTERS, List.of("dl:queue1", "q:queue1", "queues"),
+                    List.of("queue1", "3000")).onComplete(context.asyncAssertSuccess(response2 -> {
+                context.assertEquals(0L, response2.toLong());
+                context.assertEquals(3L, jedis.llen("q:queue1"));
+                async.complete();
+            }));
+        }));
+    }
+
+    @Test
+    public void testReleaseLeaseScript(TestContext context) {
+        Async async = context.async();
+        jedis.set("lease:0", "myUid");
+        jedis.set("lease:1", "otherUid");
+        luaScriptManager.evalsha(LuaScript.RELEASE_LEASE, List.of("lease:0"), List.of("myUid"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(1L, response.toLong());
+                    context.assertFalse(jedis.exists("lease:0"));
+                    luaScriptManager.evalsha(LuaScript.RELEASE_LEASE, List.of("lease:1"), List.of("myUid"))
+                            .onComplete(context.asyncAssertSuccess(response2 -> {
+                                context.assertEquals(0L, response2.toLong());
+                                context.assertEquals("otherUid", jedis.get("lease:1"));
+                                async.complete();
+                            }));
+                }));
+    }
+
+    @Test
+    public void testMoveDelayedScript(TestContext context) {
+        Async async = context.async();
+        jedis.rpush("q:queue1", "item1");
+        jedis.zadd("d:0", 1000, "{\"queuename\":\"queue1\",\"message\":\"item2\",\"id\":\"1\"}");
+        jedis.zadd("d:0", 1500, "{\"queuename\":\"queue1\",\"message\":\"item3\",\"id\":\"2\"}");
+        jedis.zadd("d:0", 1800, "{\"queuename\":\"queue2\",\"message\":\"item1\",\"id\":\"3\"}");
+        jedis.zadd("d:0", 3000, "{\"queuename\":\"queue3\",\"message\":\"item1\",\"id\":\"4\"}");
+        luaScriptManager.evalsha(LuaScript.MOVE_DELAYED, List.of("d:0", "queues"), List.of("2000", "100", "q:"))
+                .onComplete(context.asyncAssertSuccess(response -> {
+                    context.assertEquals(3L, response.get(0).toLong());
+                    context.assertEquals(2, response.get(1).size());
+                    context.assertEquals("queue1", response.get(1).get(0).toString());
+                    context.assertEquals("queue2", response.get(1).get(1).toString());
+                    context.assertEquals(List.of("item1", "item2", "item3"), jedis.lrange("q:queue1", 0, -1));
+                    context.assertEquals(List.of("item1"), jedis.lrange("q:queue2", 0, -1));
+                    context.assertFalse(jedis.exists("q:queue3"));
+                    context.assertEquals(2000.0, jedis.zscore("queues", "queue1"));
+                    context.assertNull(jedis.zscore("queues", "queue3"));
+                    context.assertEquals(1L, jedis.zcard("d:0"));
+                    async.complete();
+                }));
+    }
+
+    @Test
+    public void testScriptIsReloadedWhenUnknown(TestContext context) {
+        Async async = context.async();
+        jedis.set("c:queue1", "myUid");
+        luaScriptManager.loadScripts().onComplete(context.asyncAssertSuccess(loaded -> {
+            jedis.scriptFlush();
+            luaScriptManager.evalsha(LuaScript.CONSUME, List.of("c:queue1", "l", "q:queue1", "a:queue1"), List.of("myUid", "20", "queue1", "0", "1", ""))
+                    .onComplete(context.asyncAssertSuccess(response -> {
+                        context.assertEquals("ok", response.get(0).toString());
+                        context.assertEquals(0L, response.get(2).toLong());
+                        context.assertEquals(3, response.size());
+                        async.complete();
+                    }));
+        }));
+    }
+}
@@ -0,0 +1,119 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link AdaptiveProcessorTimeout} and {@link LatencyHistogram} classes.
+ */
+@RunWith(VertxUnitRunner.class)
+public class AdaptiveProcessorTimeoutTest {
+
+    private static final long PROCESSOR_TIMEOUT = 240000;
+
+    @Test
+    public void testProcessorTimeoutWithoutAdaptiveTimeout(TestContext context) {
+        AdaptiveProcessorTimeout timeouts = new AdaptiveProcessorTimeout();
+        QueueConfiguration queueConfiguration = new QueueConfiguration().withPattern("queue-.*");
+        for (int i = 0; i < 100; i++) {
+            timeouts.observe(queueConfiguration, 10);
+        }
+        context.assertEquals(PROCESSOR_TIMEOUT, timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT));
+        context.assertEquals(PROCESSOR_TIMEOUT, timeouts.timeout(null, PROCESSOR_TIMEOUT));
+    }
+
+    @Test
+    public void testMaxTimeoutUntilEnoughLatenciesObserved(TestContext context) {
+        AdaptiveProcessorTimeout timeouts = new AdaptiveProcessorTimeout();
+        QueueConfiguration queueConfiguration = new QueueConfiguration().withPattern("queue-.*")
+                .withAdaptiveTimeoutPercentile(99).withAdaptiveTimeoutMaxMillis(60000);
+        for (int i = 1; i < AdaptiveProcessorTimeout.MIN_SAMPLES; i++) {
+            timeouts.observe(queueConfiguration, 10);
+        }
+        context.assertEquals(60000L, timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT));
+        timeouts.observe(queueConfiguration, 10);
+        context.assertTrue(timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT) < 60000L);
+    }
+
+    @Test
+    public void testTimeoutFollowsLatencyPercentile(TestContext context) {
+        AdaptiveProcessorTimeout timeouts = new AdaptiveProcessorTimeout();
+        QueueConfiguration queueConfiguration = new QueueConfiguration().withPattern("queue-.*")
+                .withAdaptiveTimeoutPercentile(90).withAdaptiveTimeoutMinMillis(100);
+        for (int i = 0; i < 95; i++) {
+            timeouts.observe(queueConfiguration, 2000);
+        }
+        for (int i = 0; i < 5; i++) {
+            timeouts.observe(queueConfiguration, 100000);
+        }
+        long timeout = timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT);
+        // twice the 90th percentile of about 2s
+        context.assertTrue(timeout >= 4000 && timeout < 5000, "unexpected timeout " + timeout);
+    }
+
+    @Test
+    public void testTimeoutIsBounded(TestContext context) {
+        AdaptiveProcessorTimeout timeouts = new AdaptiveProcessorTimeout();
+        QueueConfiguration fast = new QueueConfiguration().withPattern("fast-.*")
+                .withAdaptiveTimeoutPercentile(99).withAdaptiveTimeoutMinMillis(500);
+        QueueConfiguration slow = new QueueConfiguration().withPattern("slow-.*")
+                .withAdaptiveTimeoutPercentile(99).withAdaptiveTimeoutMaxMillis(30000);
+        for (int i = 0; i < 100; i++) {
+            timeouts.observe(fast, 1);
+            timeouts.observe(slow, 50000);
+        }
+        context.assertEquals(500L, timeouts.timeout(fast, PROCESSOR_TIMEOUT));
+        context.assertEquals(30000L, timeouts.timeout(slow, PROCESSOR_TIMEOUT));
+    }
+
+    @Test
+    public void testTimeoutShrinksBackAfterProcessorRecovers(TestContext context) {
+        AdaptiveProcessorTimeout timeouts = new AdaptiveProcessorTimeout();
+        QueueConfiguration queueConfiguration = new QueueConfiguration().withPattern("queue-.*")
+                .withAdaptiveTimeoutPercentile(99).withAdaptiveTimeoutMinMillis(100)
+                .withAdaptiveTimeoutMaxMillis(60000);
+        for (int i = 0; i < 100; i++) {
+            timeouts.observe(queueConfiguration, 1000);
+        }
+        long usual = timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT);
+        context.assertTrue(usual >= 2000 && usual < 2500, "unexpected timeout " + usual);
+
+        // the processor hangs, each timeout doubles the timeout up to the maximum
+        timeouts.observeTimeout(queueConfiguration);
+        context.assertEquals(2 * usual, timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT));
+        for (int i = 0; i < 50; i++) {
+            timeouts.observeTimeout(queueConfiguration);
+        }
+        context.assertEquals(60000L, timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT));
+
+        // the processor recovers, the timeouts did not push up the latency percentile
+        timeouts.observe(queueConfiguration, 1000);
+        context.assertEquals(usual, timeouts.timeout(queueConfiguration, PROCESSOR_TIMEOUT));
+    }
+
+    @Test
+    public void testHistogramPercentiles(TestContext context) {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        context.assertEquals(0L, histogram.percentile(99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        context.assertEquals(100L, histogram.count());
+        long p50 = histogram.percentile(50);
+        context.assertTrue(p50 >= 50 && p50 <= 60, "unexpected p50 " + p50);
+        long p100 = histogram.percentile(100);
+        context.assertTrue(p100 >= 100 && p100 <= 120, "unexpected p100 " + p100);
+    }
+
+    @Test
+    public void testHistogramIsHalvedAfterWindow(TestContext context) {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(10);
+        context.assertEquals(50L, histogram.count());
+    }
+}
@@ -0,0 +1,119 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link CircuitBreakers} and {@link RetryBackoff} classes.
+ */
+@RunWith(VertxUnitRunner.class)
+public class CircuitBreakersTest {
+
+    private final QueueConfiguration queueConfiguration = new QueueConfiguration().withPattern("queue-.*")
+            .withCircuitBreakerThreshold(2).withCircuitBreakerOpenSeconds(10);
+
+    @Test
+    public void testNoCircuitBreakerWithoutThreshold(TestContext context) {
+        CircuitBreakers circuitBreakers = new CircuitBreakers();
+        QueueConfiguration withoutThreshold = new QueueConfiguration().withPattern("queue-.*");
+        for (int i = 0; i < 10; i++) {
+            circuitBreakers.failure(withoutThreshold, "queue-" + i, 0);
+        }
+        context.assertFalse(circuitBreakers.isOpen(withoutThreshold));
+        context.assertEquals(0L, circuitBreakers.blockedFor(withoutThreshold, 0));
+        context.assertEquals(0L, circuitBreakers.blockedFor(null, 0));
+    }
+
+    @Test
+    public void testOpenWhenThresholdOfFailingQueuesReached(TestContext context) {
+        CircuitBreakers circuitBreakers = new CircuitBreakers();
+        circuitBreakers.failure(queueConfiguration, "queue-1", 0);
+        circuitBreakers.failure(queueConfiguration, "queue-1", 0);
+        context.assertFalse(circuitBreakers.isOpen(queueConfiguration), "the same queue failing twice counts once");
+
+        circuitBreakers.failure(queueConfiguration, "queue-2", 1000);
+        context.assertTrue(circuitBreakers.isOpen(queueConfiguration));
+        context.assertEquals(10000L, circuitBreakers.blockedFor(queueConfiguration, 1000));
+        context.assertEquals(1000L, circuitBreakers.blockedFor(queueConfiguration, 10000));
+    }
+
+    @Test
+    public void testSuccessOfFailingQueueBeforeThreshold(TestContext context) {
+        CircuitBreakers circuitBreakers = new CircuitBreakers();
+        circuitBreakers.failure(queueConfiguration, "queue-1", 0);
+        circuitBreakers.success(queueConfiguration, "queue-1");
+        circuitBreakers.failure(queueConfiguration, "queue-2", 0);
+        context.assertFalse(circuitBreakers.isOpen(queueConfiguration));
+    }
+
+    @Test
+    public void testForgottenQueueIsNoLongerFailing(TestContext context) {
+        CircuitBreakers circuitBreakers = new CircuitBreakers();
+        circuitBreakers.failure(queueConfiguration, "queue-1", 0);
+        // e.g. deleted or taken over by another instance
+        circuitBreakers.forget(queueConfiguration, "queue-1");
+        circuitBreakers.failure(queueConfiguration, "queue-2", 0);
+        context.assertFalse(circuitBreakers.isOpen(queueConfiguration));
+    }
+
+    @Test
+    public void testSingleProbeAfterOpenTime(TestContext context) {
+        CircuitBreakers circuitBreakers = new CircuitBreakers();
+        circuitBreakers.failure(queueConfiguration, "queue-1", 0);
+        circuitBreakers.failure(queueConfiguration, "queue-2", 0);
+
+        context.assertEquals(0L, circuitBreakers.blockedFor(queueConfiguration, 10000), "the probe is allowed");
+        context.assertEquals(10000L, circuitBreakers.blockedFor(queueConfiguration, 10000), "only one probe is allowed");
+
+        // the probe fails
+        circuitBreakers.failure(queueConfiguration, "queue-3", 10500);
+        context.assertTrue(circuitBreakers.isOpen(queueConfiguration));
+        context.assertEquals(0L, circuitBreakers.blockedFor(queueConfiguration, 20000), "the next probe is allowed");
+
+        // the probe succeeds
+        circuitBreakers.success(queueConfiguration, "queue-4");
+        context.assertFalse(circuitBreakers.isOpen(queueConfiguration));
+        context.assertEquals(0L, circuitBreakers.blockedFor(queueConfiguration, 20000));
+        circuitBreakers.failure(queueConfiguration, "queue-1", 20000);
+        context.assertFalse(circuitBreakers.isOpen(queueConfiguration), "the failing queues are reset");
+    }
+
+    @Test
+    public void testRetryIntervalsWithoutBackoff(TestContext context) {
+        QueueConfiguration configuration = new QueueConfiguration().withPattern("queue-.*").withRetryIntervals(1, 5);
+        context.assertEquals(1, RetryBackoff.retryInterval(configuration, 1));
+        context.assertEquals(5, RetryBackoff.retryInterval(configuration, 2));
+        context.assertEquals(5, RetryBackoff.retryInterval(configuration, 3));
+        context.assertEquals(5, RetryBackoff.retryInterval(configuration, 100));
+        context.assertNull(RetryBackoff.retryInterval(new QueueConfiguration().withPattern("queue-.*"), 1));
+    }
+
+    @Test
+    public void testExponentialBackoffAfterRetryIntervals(TestContext context) {
+        QueueConfiguration configuration = new QueueConfiguration().withPattern("queue-.*").withRetryIntervals(1, 5)
+                .withRetryBackoffMaxSeconds(60);
+        context.assertEquals(5, RetryBackoff.retryInterval(configuration, 2));
+        context.assertEquals(10, RetryBackoff.retryInterval(configuration, 3));
+        context.assertEquals(20, RetryBackoff.retryInterval(configuration, 4));
+        context.assertEquals(40, RetryBackoff.retryInterval(configuration, 5));
+        context.assertEquals(60, RetryBackoff.retryInterval(configuration, 6));
+        context.assertEquals(60, RetryBackoff.retryInterval(configuration, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testJitter(TestContext context) {
+        context.assertEquals(1000L, RetryBackoff.jitter(null, 1000));
+        context.assertEquals(1000L, RetryBackoff.jitter(new QueueConfiguration().withPattern("queue-.*"), 1000));
+        QueueConfiguration configuration = new QueueConfiguration().withPattern("queue-.*").withRetryJitter(0.5f);
+        boolean jittered = false;
+        for (int i = 0; i < 100; i++) {
+            long delay = RetryBackoff.jitter(configuration, 1000);
+            context.assertTrue(delay >= 500 && delay <= 1000, "delay " + delay + " is out of range");
+            jittered |= delay != 1000;
+        }
+        context.assertTrue(jittered);
+        context.assertEquals(0L, RetryBackoff.jitter(configuration, 0));
+    }
+}
@@ -0,0 +1,62 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link ConsumerLocationCache} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class ConsumerLocationCacheTest {
+
+    @Test
+    public void testPutAndGet(TestContext context) {
+        ConsumerLocationCache cache = new ConsumerLocationCache(10, 60000);
+        context.assertNull(cache.get("queue1"));
+        cache.put("queue1", "consumer1");
+        context.assertEquals("consumer1", cache.get("queue1"));
+        cache.put("queue1", "consumer2");
+        context.assertEquals("consumer2", cache.get("queue1"));
+    }
+
+    @Test
+    public void testNoConsumerIsNotCached(TestContext context) {
+        ConsumerLocationCache cache = new ConsumerLocationCache(10, 60000);
+        cache.put("queue1", "consumer1");
+        cache.put("queue1", null);
+        context.assertNull(cache.get("queue1"));
+        context.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate(TestContext context) {
+        ConsumerLocationCache cache = new ConsumerLocationCache(10, 60000);
+        cache.put("queue1", "consumer1");
+        cache.invalidate("queue1");
+        context.assertNull(cache.get("queue1"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted(TestContext context) {
+        ConsumerLocationCache cache = new ConsumerLocationCache(2, 60000);
+        cache.put("queue1", "consumer1");
+        cache.put("queue2", "consumer1");
+        cache.get("queue1");
+        cache.put("queue3", "consumer1");
+        context.assertEquals(2, cache.size());
+        context.assertEquals("consumer1", cache.get("queue1"));
+        context.assertNull(cache.get("queue2"));
+        context.assertEquals("consumer1", cache.get("queue3"));
+    }
+
+    @Test
+    public void testEntryExpires(TestContext context) throws InterruptedException {
+        ConsumerLocationCache cache = new ConsumerLocationCache(10, 20);
+        cache.put("queue1", "consumer1");
+        Thread.sleep(50);
+        context.assertNull(cache.get("queue1"));
+        context.assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,116 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+/**
+ * Tests for {@link ConsumerNotifier} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class ConsumerNotifierTest {
+
+    private Vertx vertx;
+    private QueueStatisticsCollector queueStatisticsCollector;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        queueStatisticsCollector = new QueueStatisticsCollector(Mockito.mock(RedisProvider.class), "queues:", vertx, 0);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testNotificationsInFlightAreSuppressed(TestContext context) {
+        Async async = context.async();
+        ConsumerNotifier notifier = new ConsumerNotifier(vertx, 5000, queueStatisticsCollector);
+        List<String> received = new ArrayList<>();
+        vertx.eventBus().<String>consumer("consumer1", message -> {
+            received.add(message.body());
+            // acknowledge later, so the following notifications are suppressed
+            vertx.setTimer(50, id -> message.reply(null));
+        });
+        vertx.runOnContext(v -> {
+            notifier.notify("queue1", "consumer1");
+            notifier.notify("queue1", "consumer1");
+            notifier.notify("queue1", "consumer1");
+            context.assertEquals(1, notifier.inFlight());
+            vertx.setPeriodic(10, id -> {
+                if (received.size() == 2 && notifier.inFlight() == 0) {
+                    vertx.cancelTimer(id);
+                    assertStatistics(context, 2, 2, async);
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testNotificationsOfOtherQueuesAreSent(TestContext context) {
+        Async async = context.async();
+        ConsumerNotifier notifier = new ConsumerNotifier(vertx, 5000, queueStatisticsCollector);
+        List<String> received = new ArrayList<>();
+        vertx.eventBus().<String>consumer("consumer1", message -> {
+            received.add(message.body());
+            message.reply(null);
+        });
+        vertx.runOnContext(v -> {
+            notifier.notify("queue1", "consumer1");
+            notifier.notify("queue2", "consumer1");
+            vertx.setPeriodic(10, id -> {
+                if (received.size() == 2 && notifier.inFlight() == 0) {
+                    vertx.cancelTimer(id);
+                    context.assertEquals(List.of("queue1", "queue2"), received);
+                    assertStatistics(context, 2, 0, async);
+                }
+            });
+        });
+    }
+
+    @Test
+    public void testSuppressedNotificationIsSentWhenNotAcknowledged(TestContext context) {
+        Async async = context.async();
+        ConsumerNotifier notifier = new ConsumerNotifier(vertx, 100, queueStatisticsCollector);
+        List<String> received = new ArrayList<>();
+        // does not acknowledge the notifications
+        vertx.eventBus().<String>consumer("consumer1", message -> received.add(message.body()));
+        vertx.runOnContext(v -> {
+            notifier.notify("queue1", "consumer1");
+            notifier.notify("queue1", "consumer1");
+            vertx.setPeriodic(10, id -> {
+                if (received.size() == 2 && notifier.inFlight() == 0) {
+                    vertx.cancelTimer(id);
+                    assertStatistics(context, 1, 1, async);
+                }
+            });
+        });
+    }
+
+    private void assertStatistics(TestContext context, long sent, long suppressed, Async async) {
+        Message<JsonObject> event = Mockito.mock(Message.class);
+        Mockito.doAnswer(invocation -> {
+            JsonObject body = (JsonObject) invocation.getArguments()[0];
+            context.assertEquals(sent, body.getLong(STATISTIC_NOTIFICATIONS_SENT));
+            context.assertEquals(suppressed, body.getLong(STATISTIC_NOTIFICATIONS_SUPPRESSED));
+            async.complete();
+            return null;
+        }).when(event).reply(Mockito.any(JsonObject.class));
+        queueStatisticsCollector.getNotificationStatistics(event);
+    }
+}
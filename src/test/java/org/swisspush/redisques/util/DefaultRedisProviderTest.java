@@ -0,0 +1,91 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisAPI;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.params.ClientKillParams;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Tests for {@link DefaultRedisProvider} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class DefaultRedisProviderTest {
+
+    private Vertx vertx;
+    private Jedis jedis;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        jedis = new Jedis("localhost", 6379, 5000);
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        jedis.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testSharedByManyEventLoops(TestContext context) {
+        RedisProvider redisProvider = new DefaultRedisProvider(vertx, new DefaultRedisquesConfigurationProvider(vertx,
+                new RedisquesConfiguration().asJsonObject()));
+        int instances = 8;
+        Set<RedisAPI> apis = ConcurrentHashMap.newKeySet();
+        Async async = context.async(instances);
+        for (int i = 0; i < instances; i++) {
+            // each new context runs on the next event loop
+            vertx.getOrCreateContext().runOnContext(v -> redisProvider.redis()
+                    .compose(redisAPI -> {
+                        apis.add(redisAPI);
+                        return redisAPI.ping(List.of());
+                    })
+                    .onComplete(context.asyncAssertSuccess(pong -> async.countDown())));
+        }
+        async.awaitSuccess();
+        context.assertEquals(1, apis.size());
+    }
+
+    @Test
+    public void testReconnectKeepsReplacedClientOpenForOtherInstances(TestContext context) {
+        RedisquesConfiguration configuration = RedisquesConfiguration.with()
+                .redisReconnectAttempts(-1)
+                .redisReconnectDelaySec(1)
+                .build();
+        RedisProvider redisProvider = new DefaultRedisProvider(vertx,
+                new DefaultRedisquesConfigurationProvider(vertx, configuration.asJsonObject()));
+        Async connected = context.async();
+        Redis[] previous = new Redis[1];
+        redisProvider.connection().onComplete(context.asyncAssertSuccess(redis -> {
+            previous[0] = redis;
+            connected.complete();
+        }));
+        connected.awaitSuccess();
+
+        // break the connection, so the provider reconnects with a new client
+        jedis.clientKill(new ClientKillParams().type(ClientKillParams.Type.NORMAL).skipMe(ClientKillParams.SkipMe.YES));
+        Awaitility.await().atMost(Duration.ofSeconds(5))
+                .until(() -> redisProvider.connection().result(), not(sameInstance(previous[0])));
+
+        // the replaced client may still be in use by another instance
+        Async async = context.async();
+        RedisAPI.api(previous[0]).ping(List.of()).onComplete(context.asyncAssertSuccess(pong -> async.complete()));
+    }
+}
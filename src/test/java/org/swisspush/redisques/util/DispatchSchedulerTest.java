@@ -0,0 +1,82 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link DispatchScheduler} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class DispatchSchedulerTest {
+
+    @Test
+    public void testDispatchesUpToTheLimit(TestContext context) {
+        DispatchScheduler scheduler = new DispatchScheduler(2);
+        List<String> dispatched = new ArrayList<>();
+        scheduler.dispatch("queue1", 0, 1, v -> dispatched.add("queue1"));
+        scheduler.dispatch("queue2", 0, 1, v -> dispatched.add("queue2"));
+        scheduler.dispatch("queue3", 0, 1, v -> dispatched.add("queue3"));
+        context.assertEquals(List.of("queue1", "queue2"), dispatched);
+        context.assertEquals(2, scheduler.inFlight());
+        context.assertEquals(1, scheduler.waiting());
+
+        scheduler.release();
+        context.assertEquals(List.of("queue1", "queue2", "queue3"), dispatched);
+        context.assertEquals(2, scheduler.inFlight());
+        context.assertEquals(0, scheduler.waiting());
+
+        scheduler.release();
+        scheduler.release();
+        context.assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    public void testWaitingQueuesAreDispatchedRoundRobin(TestContext context) {
+        DispatchScheduler scheduler = new DispatchScheduler(1);
+        List<String> dispatched = new ArrayList<>();
+        scheduler.dispatch("busy", 0, 1, v -> dispatched.add("busy"));
+        scheduler.dispatch("small", 0, 1, v -> dispatched.add("small"));
+        // the busy queue dispatches its next message after the small one
+        scheduler.release();
+        scheduler.dispatch("busy", 0, 1, v -> dispatched.add("busy"));
+        scheduler.release();
+        context.assertEquals(List.of("busy", "small", "busy"), dispatched);
+    }
+
+    @Test
+    public void testWeightedQueueContinuesItsTurn(TestContext context) {
+        DispatchScheduler scheduler = new DispatchScheduler(1);
+        List<String> dispatched = new ArrayList<>();
+        scheduler.dispatch("a", 0, 2, v -> dispatched.add("a"));
+        scheduler.dispatch("b", 0, 1, v -> dispatched.add("b"));
+        // one dispatch left in the turn of queue a
+        scheduler.dispatch("a", 0, 2, v -> dispatched.add("a"));
+        scheduler.release();
+        // the turn of queue a is over
+        scheduler.dispatch("a", 0, 2, v -> dispatched.add("a"));
+        scheduler.release();
+        scheduler.release();
+        context.assertEquals(List.of("a", "a", "b", "a"), dispatched);
+    }
+
+    @Test
+    public void testHigherPriorityIsDispatchedFirst(TestContext context) {
+        DispatchScheduler scheduler = new DispatchScheduler(1);
+        List<String> dispatched = new ArrayList<>();
+        scheduler.dispatch("low1", 0, 1, v -> dispatched.add("low1"));
+        scheduler.dispatch("low2", 0, 1, v -> dispatched.add("low2"));
+        scheduler.dispatch("high", 5, 1, v -> dispatched.add("high"));
+        scheduler.dispatch("medium", 1, 1, v -> dispatched.add("medium"));
+        context.assertEquals(3, scheduler.waiting());
+        scheduler.release();
+        scheduler.release();
+        scheduler.release();
+        context.assertEquals(List.of("low1", "high", "medium", "low2"), dispatched);
+        context.assertEquals(0, scheduler.waiting());
+    }
+}
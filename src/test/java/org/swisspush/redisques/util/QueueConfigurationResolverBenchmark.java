@@ -0,0 +1,91 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the lookup of the queue configuration by matching all patterns with the lookup by
+ * the {@link QueueConfigurationResolver}, depending on the number of configured patterns. The queue names match
+ * the last pattern or none, which is the worst case of the pattern matching. Not executed by the unit tests, run
+ * it with the main method from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueueConfigurationResolverBenchmark {
+
+    private static final int QUEUE_NAMES = 10_000;
+
+    @Param({"1", "10", "40"})
+    private int patterns;
+
+    private List<QueueConfiguration> queueConfigurations;
+    private QueueConfigurationResolver resolver;
+    private String[] queueNames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        queueConfigurations = new ArrayList<>();
+        for (int i = 0; i < patterns; i++) {
+            queueConfigurations.add(new QueueConfiguration().withPattern("queue-pattern-" + i + "-.*"));
+        }
+        RedisquesConfiguration configuration = RedisquesConfiguration.with()
+                .queueConfigurations(queueConfigurations).build();
+        resolver = new QueueConfigurationResolver(new RedisquesConfigurationProvider() {
+            @Override
+            public RedisquesConfiguration configuration() {
+                return configuration;
+            }
+
+            @Override
+            public Result<Void, String> updateConfiguration(JsonObject configuration, boolean validateOnly) {
+                return Result.err("not supported");
+            }
+        }, QUEUE_NAMES);
+        queueConfigurations = configuration.getQueueConfigurations();
+        queueNames = new String[QUEUE_NAMES];
+        for (int i = 0; i < QUEUE_NAMES; i++) {
+            queueNames[i] = i % 2 == 0 ? "queue-pattern-" + (patterns - 1) + "-" + i : "unconfigured-queue-" + i;
+        }
+    }
+
+    private String nextQueueName() {
+        next = (next + 1) % QUEUE_NAMES;
+        return queueNames[next];
+    }
+
+    @Benchmark
+    public QueueConfiguration matchPatterns() {
+        return QueueConfigurationResolver.match(queueConfigurations, nextQueueName());
+    }
+
+    @Benchmark
+    public QueueConfiguration resolveCached() {
+        return resolver.resolve(nextQueueName());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QueueConfigurationResolverBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link QueueConfigurationResolver} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class QueueConfigurationResolverTest {
+
+    private RedisquesConfigurationProvider configurationProvider;
+
+    @Before
+    public void setUp() {
+        configurationProvider = Mockito.mock(RedisquesConfigurationProvider.class);
+    }
+
+    private RedisquesConfiguration configure(QueueConfiguration... queueConfigurations) {
+        RedisquesConfiguration configuration = RedisquesConfiguration.with()
+                .queueConfigurations(List.of(queueConfigurations)).build();
+        when(configurationProvider.configuration()).thenReturn(configuration);
+        return configuration;
+    }
+
+    @Test
+    public void testResolveFirstMatchingConfiguration(TestContext context) {
+        configure(new QueueConfiguration().withPattern("vehicle-.*").withRetryIntervals(1),
+                new QueueConfiguration().withPattern(".*").withRetryIntervals(2));
+        QueueConfigurationResolver resolver = new QueueConfigurationResolver(configurationProvider, 10);
+        context.assertEquals("vehicle-.*", resolver.resolve("vehicle-1").getPattern());
+        context.assertEquals(".*", resolver.resolve("other").getPattern());
+        // cached
+        context.assertEquals("vehicle-.*", resolver.resolve("vehicle-1").getPattern());
+        context.assertEquals(2, resolver.size());
+    }
+
+    @Test
+    public void testQueueWithoutMatchingConfigurationIsCached(TestContext context) {
+        configure(new QueueConfiguration().withPattern("vehicle-.*"));
+        QueueConfigurationResolver resolver = new QueueConfigurationResolver(configurationProvider, 10);
+        context.assertNull(resolver.resolve("other"));
+        context.assertNull(resolver.resolve("other"));
+        context.assertEquals(1, resolver.size());
+    }
+
+    @Test
+    public void testCacheIsInvalidatedWhenConfigurationChanges(TestContext context) {
+        configure(new QueueConfiguration().withPattern("vehicle-.*"));
+        QueueConfigurationResolver resolver = new QueueConfigurationResolver(configurationProvider, 10);
+        context.assertNotNull(resolver.resolve("vehicle-1"));
+        context.assertNull(resolver.resolve("other"));
+
+        configure(new QueueConfiguration().withPattern("other"));
+        context.assertNull(resolver.resolve("vehicle-1"));
+        context.assertEquals("other", resolver.resolve("other").getPattern());
+        context.assertEquals(2, resolver.size());
+    }
+
+    @Test
+    public void testCacheIsBounded(TestContext context) {
+        configure(new QueueConfiguration().withPattern("queue-.*"));
+        QueueConfigurationResolver resolver = new QueueConfigurationResolver(configurationProvider, 3);
+        for (int i = 0; i < 10; i++) {
+            context.assertNotNull(resolver.resolve("queue-" + i));
+            context.assertTrue(resolver.size() <= 3);
+        }
+    }
+
+    @Test
+    public void testWithoutCache(TestContext context) {
+        configure(new QueueConfiguration().withPattern("queue-.*"));
+        QueueConfigurationResolver resolver = new QueueConfigurationResolver(configurationProvider, 0);
+        context.assertNotNull(resolver.resolve("queue-1"));
+        context.assertNull(resolver.resolve("other"));
+        context.assertEquals(0, resolver.size());
+    }
+}
@@ -0,0 +1,109 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+
+/**
+ * Tests for {@link QueueTimestampCoalescer} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class QueueTimestampCoalescerTest {
+
+    private Vertx vertx;
+    private Jedis jedis;
+    private RedisProvider redisProvider;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        jedis = new Jedis("localhost", 6379, 5000);
+        jedis.flushAll();
+        redisProvider = new DefaultRedisProvider(vertx, new DefaultRedisquesConfigurationProvider(vertx,
+                new RedisquesConfiguration().asJsonObject()));
+    }
+
+    @After
+    public void tearDown(TestContext context) {
+        jedis.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testMarkIfDue(TestContext context) throws InterruptedException {
+        QueueTimestampCoalescer coalescer = new QueueTimestampCoalescer(vertx, redisProvider, "queues", 50);
+        context.assertTrue(coalescer.markIfDue("queue1"));
+        context.assertFalse(coalescer.markIfDue("queue1"));
+        context.assertTrue(coalescer.markIfDue("queue2"));
+        Thread.sleep(60);
+        context.assertTrue(coalescer.markIfDue("queue1"));
+    }
+
+    @Test
+    public void testMarkWrittenAndForget(TestContext context) {
+        QueueTimestampCoalescer coalescer = new QueueTimestampCoalescer(vertx, redisProvider, "queues", 60000);
+        coalescer.markWritten(List.of("queue1", "queue2"), System.currentTimeMillis());
+        context.assertFalse(coalescer.markIfDue("queue1"));
+        context.assertFalse(coalescer.markIfDue("queue2"));
+        coalescer.forget("queue1");
+        context.assertTrue(coalescer.markIfDue("queue1"));
+    }
+
+    @Test
+    public void testUpdatesAreFlushedOncePerQueue(TestContext context) {
+        Async async = context.async();
+        QueueTimestampCoalescer coalescer = new QueueTimestampCoalescer(vertx, redisProvider, "queues", 60000);
+        vertx.runOnContext(v -> {
+            coalescer.update("queue1");
+            coalescer.update("queue1");
+            coalescer.update("queue2");
+            context.assertEquals(2, coalescer.pending());
+            coalescer.flush().onComplete(context.asyncAssertSuccess(flushed -> {
+                context.assertEquals(0, coalescer.pending());
+                context.assertEquals(2L, jedis.zcard("queues"));
+                context.assertNotNull(jedis.zscore("queues", "queue1"));
+                // not due yet
+                coalescer.update("queue1");
+                context.assertEquals(0, coalescer.pending());
+                async.complete();
+            }));
+        });
+    }
+
+    @Test
+    public void testFlushInChunks(TestContext context) {
+        Async async = context.async();
+        QueueTimestampCoalescer coalescer = new QueueTimestampCoalescer(vertx, redisProvider, "queues", 60000);
+        int queues = QueueTimestampCoalescer.FLUSH_CHUNK_SIZE * 2 + 1;
+        vertx.runOnContext(v -> {
+            for (int i = 0; i < queues; i++) {
+                coalescer.update("queue" + i);
+            }
+            coalescer.flush().onComplete(context.asyncAssertSuccess(flushed -> {
+                context.assertEquals((long) queues, jedis.zcard("queues"));
+                async.complete();
+            }));
+        });
+    }
+
+    @Test
+    public void testPendingUpdatesAreFlushedAutomatically(TestContext context) {
+        Async async = context.async();
+        QueueTimestampCoalescer coalescer = new QueueTimestampCoalescer(vertx, redisProvider, "queues", 60000);
+        vertx.runOnContext(v -> coalescer.update("queue1"));
+        vertx.setPeriodic(10, id -> {
+            if (jedis.zscore("queues", "queue1") != null) {
+                vertx.cancelTimer(id);
+                async.complete();
+            }
+        });
+    }
+}
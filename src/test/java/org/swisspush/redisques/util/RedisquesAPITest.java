@@ -111,6 +111,14 @@ public class RedisquesAPITest {
         context.assertEquals(expected, operation);
     }
 
+    @Test
+    public void testBuildBulkEnqueueOperation(TestContext context) {
+        JsonObject operation = RedisquesAPI.buildBulkEnqueueOperation("my_queue_name", new JsonArray().add("v_1").add("v_2"));
+        JsonObject expected = buildExpectedJsonObject("bulkEnqueue", new JsonObject()
+                .put(QUEUES, new JsonObject().put("my_queue_name", new JsonArray().add("v_1").add("v_2"))));
+        context.assertEquals(expected, operation);
+    }
+
     @Test
     public void testBuildGetQueueItemsOperation(TestContext context) {
         JsonObject operation = RedisquesAPI.buildGetQueueItemsOperation("my_queue_name", "99");
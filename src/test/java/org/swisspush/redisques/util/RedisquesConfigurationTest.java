@@ -47,6 +47,18 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getQueueConfigurations().size(), 0);
         testContext.assertEquals(config.getQueueSpeedIntervalSec(),60);
         testContext.assertEquals(config.getMemoryUsageLimitPercent(),100);
+        testContext.assertFalse(config.getWakeupChannelEnabled());
+        testContext.assertFalse(config.getConsumerHeartbeatEnabled());
+        testContext.assertEquals(config.getCheckQueuesPerSec(), 10000);
+        testContext.assertEquals(config.getCheckPartitions(), 1);
+        testContext.assertEquals(config.getConsumerLocationCacheSize(), 0);
+        testContext.assertEquals(config.getTimestampCoalescingPercent(), 0);
+        testContext.assertFalse(config.getNotificationDedupEnabled());
+        testContext.assertEquals(config.getMaxInFlight(), 0);
+        testContext.assertEquals(config.getQueueConfigurationCacheSize(), 10000);
+        testContext.assertEquals(config.getDelayedMoveIntervalMs(), 1000);
+        testContext.assertEquals(config.getDelayedShards(), 1);
+        testContext.assertEquals(config.getHttpRequestHandlerMaxLineSize(), 10485760);
     }
 
     @Test
@@ -75,6 +87,18 @@ public class RedisquesConfigurationTest {
                 ))
                 .queueSpeedIntervalSec(1)
                 .memoryUsageLimitPercent(80)
+                .wakeupChannelEnabled(true)
+                .consumerHeartbeatEnabled(true)
+                .checkQueuesPerSec(500)
+                .checkPartitions(12)
+                .consumerLocationCacheSize(1000)
+                .timestampCoalescingPercent(25)
+                .notificationDedupEnabled(true)
+                .maxInFlight(500)
+                .queueConfigurationCacheSize(500)
+                .delayedMoveIntervalMs(200)
+                .delayedShards(4)
+                .httpRequestHandlerMaxLineSize(1024)
                 .build();
 
         // default values
@@ -102,6 +126,18 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getHttpRequestHandlerUserHeader(), "x-custom-user-header");
         testContext.assertEquals(config.getQueueSpeedIntervalSec(), 1);
         testContext.assertEquals(config.getMemoryUsageLimitPercent(), 80);
+        testContext.assertTrue(config.getWakeupChannelEnabled());
+        testContext.assertTrue(config.getConsumerHeartbeatEnabled());
+        testContext.assertEquals(config.getCheckQueuesPerSec(), 500);
+        testContext.assertEquals(config.getCheckPartitions(), 12);
+        testContext.assertEquals(config.getConsumerLocationCacheSize(), 1000);
+        testContext.assertEquals(config.getTimestampCoalescingPercent(), 25);
+        testContext.assertTrue(config.getNotificationDedupEnabled());
+        testContext.assertEquals(config.getMaxInFlight(), 500);
+        testContext.assertEquals(config.getQueueConfigurationCacheSize(), 500);
+        testContext.assertEquals(config.getDelayedMoveIntervalMs(), 200);
+        testContext.assertEquals(config.getDelayedShards(), 4);
+        testContext.assertEquals(config.getHttpRequestHandlerMaxLineSize(), 1024);
         // queue configurations
         testContext.assertEquals(config.getQueueConfigurations().size(), 1);
         QueueConfiguration queueConfiguration = config.getQueueConfigurations().get(0);
@@ -137,6 +173,18 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(json.getJsonArray(PROP_QUEUE_CONFIGURATIONS).getList().size(), 0);
         testContext.assertEquals(json.getInteger(PROP_QUEUE_SPEED_INTERVAL_SEC), 60);
         testContext.assertEquals(json.getInteger(PROP_MEMORY_USAGE_LIMIT_PCT), 100);
+        testContext.assertFalse(json.getBoolean(PROP_WAKEUP_CHANNEL_ENABLED));
+        testContext.assertFalse(json.getBoolean(PROP_CONSUMER_HEARTBEAT_ENABLED));
+        testContext.assertEquals(json.getInteger(PROP_CHECK_QUEUES_PER_SEC), 10000);
+        testContext.assertEquals(json.getInteger(PROP_CHECK_PARTITIONS), 1);
+        testContext.assertEquals(json.getInteger(PROP_CONSUMER_LOCATION_CACHE_SIZE), 0);
+        testContext.assertEquals(json.getInteger(PROP_TIMESTAMP_COALESCING_PCT), 0);
+        testContext.assertFalse(json.getBoolean(PROP_NOTIFICATION_DEDUP_ENABLED));
+        testContext.assertEquals(json.getInteger(PROP_MAX_IN_FLIGHT), 0);
+        testContext.assertEquals(json.getInteger(PROP_QUEUE_CONFIGURATION_CACHE_SIZE), 10000);
+        testContext.assertEquals(json.getInteger(PROP_DELAYED_MOVE_INTERVAL_MS), 1000);
+        testContext.assertEquals(json.getInteger(PROP_DELAYED_SHARDS), 1);
+        testContext.assertEquals(json.getInteger(PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE), 10485760);
     }
 
     @Test
@@ -257,6 +305,18 @@ public class RedisquesConfigurationTest {
         json.put(PROP_HTTP_REQUEST_HANDLER_USER_HEADER, "x-custom-user-header");
         json.put(PROP_QUEUE_SPEED_INTERVAL_SEC, 1);
         json.put(PROP_MEMORY_USAGE_LIMIT_PCT, 75);
+        json.put(PROP_WAKEUP_CHANNEL_ENABLED, Boolean.TRUE);
+        json.put(PROP_CONSUMER_HEARTBEAT_ENABLED, Boolean.TRUE);
+        json.put(PROP_CHECK_QUEUES_PER_SEC, 0);
+        json.put(PROP_CHECK_PARTITIONS, 4);
+        json.put(PROP_CONSUMER_LOCATION_CACHE_SIZE, 1000);
+        json.put(PROP_TIMESTAMP_COALESCING_PCT, 25);
+        json.put(PROP_NOTIFICATION_DEDUP_ENABLED, true);
+        json.put(PROP_MAX_IN_FLIGHT, 500);
+        json.put(PROP_QUEUE_CONFIGURATION_CACHE_SIZE, 500);
+        json.put(PROP_DELAYED_MOVE_INTERVAL_MS, 200);
+        json.put(PROP_DELAYED_SHARDS, 4);
+        json.put(PROP_HTTP_REQUEST_HANDLER_MAX_LINE_SIZE, 2048);
         json.put(PROP_QUEUE_CONFIGURATIONS, new JsonArray(Collections.singletonList(
                 new QueueConfiguration().withPattern("vehicle-.*")
                         .withRetryIntervals(10, 20, 30, 60)
@@ -285,6 +345,18 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getHttpRequestHandlerUserHeader(), "x-custom-user-header");
         testContext.assertEquals(config.getQueueSpeedIntervalSec(), 1);
         testContext.assertEquals(config.getMemoryUsageLimitPercent(), 75);
+        testContext.assertTrue(config.getWakeupChannelEnabled());
+        testContext.assertTrue(config.getConsumerHeartbeatEnabled());
+        testContext.assertEquals(config.getCheckQueuesPerSec(), 0);
+        testContext.assertEquals(config.getCheckPartitions(), 4);
+        testContext.assertEquals(config.getConsumerLocationCacheSize(), 1000);
+        testContext.assertEquals(config.getTimestampCoalescingPercent(), 25);
+        testContext.assertTrue(config.getNotificationDedupEnabled());
+        testContext.assertEquals(config.getMaxInFlight(), 500);
+        testContext.assertEquals(config.getQueueConfigurationCacheSize(), 500);
+        testContext.assertEquals(config.getDelayedMoveIntervalMs(), 200);
+        testContext.assertEquals(config.getDelayedShards(), 4);
+        testContext.assertEquals(config.getHttpRequestHandlerMaxLineSize(), 2048);
 
         // queue configurations
         testContext.assertEquals(config.getQueueConfigurations().size(), 1);
@@ -0,0 +1,65 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the scheduling and cancelling of retry timeouts on the {@link TimingWheel} with
+ * plain vertx timers. Not executed by the unit tests, run it with the main method from the test classpath.
+ * <p>
+ * The periodic tick of the wheel is longer than a benchmark run, so the benchmark thread is the only one
+ * accessing the wheel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final long DELAY_MS = 10_000;
+
+    private Vertx vertx;
+    private TimingWheel wheel;
+
+    @Setup
+    public void setUp() {
+        vertx = Vertx.vertx();
+        wheel = new TimingWheel(vertx, 60_000, 512);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public boolean timingWheelScheduleAndCancel() {
+        return wheel.schedule(DELAY_MS, h -> {}).cancel();
+    }
+
+    @Benchmark
+    public boolean vertxTimerScheduleAndCancel() {
+        return vertx.cancelTimer(vertx.setTimer(DELAY_MS, id -> {}));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TimingWheelBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests for {@link TimingWheel} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class TimingWheelTest {
+
+    private Vertx vertx;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        context = vertx.getOrCreateContext();
+    }
+
+    @After
+    public void tearDown(TestContext testContext) {
+        vertx.close(testContext.asyncAssertSuccess());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTick() {
+        new TimingWheel(vertx, 0, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWheelSize() {
+        new TimingWheel(vertx, 10, 0);
+    }
+
+    @Test
+    public void testTimeoutsExpireInOrderAndNotEarly(TestContext testContext) {
+        Async async = testContext.async();
+        List<Integer> expired = new CopyOnWriteArrayList<>();
+        context.runOnContext(v -> {
+            TimingWheel wheel = new TimingWheel(vertx, 10, 4);
+            long start = System.currentTimeMillis();
+            // longer than one turn of the wheel
+            wheel.schedule(150, h -> {
+                testContext.assertTrue(System.currentTimeMillis() - start >= 150);
+                expired.add(150);
+                testContext.assertEquals(List.of(0, 20, 150), expired);
+                testContext.assertEquals(0, wheel.pending());
+                async.complete();
+            });
+            wheel.schedule(20, h -> {
+                testContext.assertTrue(System.currentTimeMillis() - start >= 20);
+                expired.add(20);
+            });
+            wheel.schedule(0, h -> expired.add(0));
+            testContext.assertEquals(3, wheel.pending());
+        });
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotExpire(TestContext testContext) {
+        Async async = testContext.async();
+        context.runOnContext(v -> {
+            TimingWheel wheel = new TimingWheel(vertx, 10, 8);
+            TimingWheel.Timeout timeout = wheel.schedule(30, h -> testContext.fail("cancelled timeout expired"));
+            testContext.assertTrue(timeout.cancel());
+            testContext.assertFalse(timeout.cancel());
+            testContext.assertEquals(0, wheel.pending());
+            wheel.schedule(60, h -> async.complete());
+        });
+    }
+
+    @Test
+    public void testTimeoutScheduledByExpiringHandler(TestContext testContext) {
+        Async async = testContext.async();
+        context.runOnContext(v -> {
+            TimingWheel wheel = new TimingWheel(vertx, 10, 8);
+            wheel.schedule(10, h -> wheel.schedule(0, h2 -> async.complete()));
+        });
+    }
+}